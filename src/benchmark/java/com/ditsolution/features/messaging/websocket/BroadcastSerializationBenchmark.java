@@ -0,0 +1,105 @@
+package com.ditsolution.features.messaging.websocket;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Diffusion d'un message WebSocket : sérialisation par destinataire (ancien chemin, nouvel ObjectMapper
+ * à chaque envoi) contre sérialisation unique ({@link OutboundFrame}). Le transport acquitte
+ * immédiatement : seul le coût côté serveur est mesuré.
+ *
+ * Profil Maven {@code benchmark} : {@code mvn -Pbenchmark test-compile exec:exec}
+ * (options JMH via {@code -Djmh.args="..."}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(2)
+@State(Scope.Benchmark)
+public class BroadcastSerializationBenchmark {
+
+    @Param({ "2", "50", "1000" })
+    int recipients;
+
+    private ObjectMapper mapper;
+    private MessageWebSocket.WebSocketMessage message;
+    private List<SessionOutbox> outboxes;
+
+    @Setup
+    public void setup() {
+        mapper = new ObjectMapper();
+        message = sampleMessage();
+        var stats = new OutboundStats();
+        outboxes = new ArrayList<>(recipients);
+        for (int i = 0; i < recipients; i++) {
+            outboxes.add(new SessionOutbox(new ImmediateTransport(), 256, Duration.ofSeconds(10), stats));
+        }
+    }
+
+    // Ancien chemin : un ObjectMapper et une sérialisation par session
+    @Benchmark
+    public void perRecipient(Blackhole bh) throws JsonProcessingException {
+        for (SessionOutbox outbox : outboxes) {
+            String text = new ObjectMapper().writeValueAsString(message);
+            bh.consume(outbox.offer(text, null));
+        }
+    }
+
+    @Benchmark
+    public void serializeOnce(Blackhole bh) {
+        OutboundFrame frame = OutboundFrame.of(mapper, message);
+        for (SessionOutbox outbox : outboxes) {
+            bh.consume(outbox.offer(frame.text(), frame.coalesceKey()));
+        }
+    }
+
+    private static MessageWebSocket.WebSocketMessage sampleMessage() {
+        var message = new MessageWebSocket.WebSocketMessage();
+        message.setType("message");
+        message.getData().put("id", 123_456L);
+        message.getData().put("conversationId", 42L);
+        message.getData().put("senderId", UUID.randomUUID().toString());
+        message.getData().put("content", "Bonjour, l'appartement de Cocody est-il toujours disponible pour une visite samedi ?");
+        message.getData().put("messageType", "TEXT");
+        message.getData().put("timestamp", Instant.now().toString());
+        return message;
+    }
+
+    private static final class ImmediateTransport implements SessionOutbox.Transport {
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void send(String text, Consumer<Throwable> done) {
+            done.accept(null);
+        }
+
+        @Override
+        public void close(String reason) {
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.ditsolution.common.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Cache en mémoire borné (taille max + TTL) avec chargement à la demande.
+ *
+ * Garantie de fraîcheur : une valeur chargée avant un {@link #invalidate} concurrent n'est jamais
+ * insérée après lui. Chaque clé est associée à un tampon (rayé sur {@value #STRIPES} compteurs)
+ * incrémenté avant la suppression ; le chargeur n'insère que si le tampon n'a pas bougé.
+ *
+ * L'éviction par taille est approximative : entrées expirées d'abord, puis ordre d'itération.
+ */
+public class BoundedCache<K, V> {
+
+    private static final int STRIPES = 1024;
+
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private record Entry<V>(V value, long expiresAt) {}
+
+    /** Compteurs exposés pour le monitoring. */
+    public record Stats(long size, long hits, long misses, long evictions) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+
+    public BoundedCache(int maxSize, Duration ttl) {
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize doit être ≥ 1");
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Retourne la valeur en cache ou la charge via {@code loader}. Une valeur null n'est pas mise en cache.
+     * Les exceptions du chargeur sont propagées telles quelles.
+     */
+    public V get(K key, Function<K, V> loader) {
+        long now = System.nanoTime();
+        Entry<V> e = entries.get(key);
+        if (e != null && e.expiresAt() - now > 0) {
+            hits.increment();
+            return e.value();
+        }
+        misses.increment();
+
+        int stripe = stripe(key);
+        long stamp = stamps.get(stripe);
+        V value = loader.apply(key);
+        if (value != null) {
+            Entry<V> fresh = new Entry<>(value, now + ttlNanos);
+            entries.compute(key, (k, old) -> stamps.get(stripe) == stamp ? fresh : old);
+            if (entries.size() > maxSize) evict();
+        }
+        return value;
+    }
+
+    /** Valeur en cache non expirée, sans chargement (ni comptée en hit/miss). */
+    public V getIfPresent(K key) {
+        Entry<V> e = entries.get(key);
+        return e != null && e.expiresAt() - System.nanoTime() > 0 ? e.value() : null;
+    }
+
+    public void invalidate(K key) {
+        stamps.incrementAndGet(stripe(key));
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) stamps.incrementAndGet(i);
+        entries.clear();
+    }
+
+    public Stats stats() {
+        return new Stats(entries.size(), hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private void evict() {
+        long now = System.nanoTime();
+        // On redescend à 90 % pour ne pas évincer à chaque insertion
+        int target = maxSize - Math.max(1, maxSize / 10);
+        entries.entrySet().removeIf(en -> {
+            boolean expired = en.getValue().expiresAt() - now <= 0;
+            if (expired) evictions.increment();
+            return expired;
+        });
+        Iterator<K> it = entries.keySet().iterator();
+        while (entries.size() > target && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private static int stripe(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+}
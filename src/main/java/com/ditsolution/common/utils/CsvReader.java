@@ -0,0 +1,85 @@
+package com.ditsolution.common.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecteur CSV minimal (RFC 4180) : séparateur configurable, champs entre guillemets avec
+ * guillemets doublés, retours à la ligne dans un champ cité, fins de ligne CRLF ou LF.
+ * Lit un enregistrement à la fois : la mémoire ne dépend pas de la taille du fichier.
+ */
+public final class CsvReader {
+
+    private final Reader in;
+    private final char separator;
+    private int pending = -2; // caractère lu d'avance (-2 : aucun)
+    private int line = 1;
+
+    public CsvReader(Reader in, char separator) {
+        this.in = in;
+        this.separator = separator;
+    }
+
+    /** Ligne (1-based) où commence le prochain enregistrement, pour les messages d'erreur. */
+    public int line() {
+        return line;
+    }
+
+    /** Enregistrement suivant, null en fin de flux. Une ligne vide donne un enregistrement d'un champ vide. */
+    public List<String> next() throws IOException {
+        int c = read();
+        if (c == -1) return null;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean afterQuote = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) throw new IOException("Guillemet non fermé (ligne " + line + ")");
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        afterQuote = true;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                }
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+                afterQuote = false;
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') pending = next;
+                }
+                if (c != -1) line++;
+                fields.add(field.toString());
+                return fields;
+            } else if (c == '"' && field.isEmpty() && !afterQuote) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return in.read();
+    }
+}
@@ -0,0 +1,47 @@
+package com.ditsolution.common.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * ETags faibles et évaluation de If-None-Match (comparaison faible, RFC 9110 §13.1.2).
+ */
+public final class ETags {
+    private ETags() {}
+
+    public static String weak(String opaque) {
+        return "W/\"" + opaque + "\"";
+    }
+
+    /** Empreinte courte (128 bits, base64url) et stable des éléments fournis. */
+    public static String digest(Object... parts) {
+        try {
+            var md = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                md.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                md.update((byte) 0);
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(md.digest(), 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Vrai si l'en-tête If-None-Match désigne {@code etag} (ou "*"). */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        String opaque = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || opaque(c).equals(opaque)) return true;
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
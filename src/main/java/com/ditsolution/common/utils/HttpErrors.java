@@ -1,6 +1,7 @@
 package com.ditsolution.common.utils;
 
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import java.util.Map;
 
@@ -27,4 +28,19 @@ public final class HttpErrors {
             Response.status(Response.Status.NOT_FOUND).entity(body).build()
         );
     }
-}
\ No newline at end of file
+
+    public static WebApplicationException serviceUnavailable(String code, String msg) {
+        var body = Map.of("error", code, "message", msg);
+        return new WebApplicationException(
+            Response.status(Response.Status.SERVICE_UNAVAILABLE).entity(body).build()
+        );
+    }
+
+    public static WebApplicationException tooManyRequests(String code, String msg) {
+        var body = Map.of("error", code, "message", msg);
+        // Type explicite : l'erreur peut sortir d'un endpoint qui ne produit pas de JSON
+        return new WebApplicationException(
+            Response.status(Response.Status.TOO_MANY_REQUESTS).type(MediaType.APPLICATION_JSON_TYPE).entity(body).build()
+        );
+    }
+}
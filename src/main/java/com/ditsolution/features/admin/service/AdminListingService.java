@@ -6,7 +6,10 @@ import com.ditsolution.features.admin.dto.AdminListingUpdateDto;
 import com.ditsolution.features.auth.entity.AdminLogEntity;
 import com.ditsolution.features.auth.entity.UserEntity;
 import com.ditsolution.features.listing.entity.ListingEntity;
+import com.ditsolution.features.listing.search.ListingChangedEvent;
+import com.ditsolution.features.listing.search.ListingSnapshot;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
@@ -27,6 +30,9 @@ public class AdminListingService {
     @Inject
     EntityManager entityManager;
 
+    @Inject
+    Event<ListingChangedEvent> listingChanged;
+
     @Transactional
     public List<AdminListingDto> getListings(AdminListingFilterDto filter) {
         StringBuilder query = new StringBuilder("SELECT l FROM ListingEntity l JOIN FETCH l.owner WHERE 1=1");
@@ -104,12 +110,15 @@ public class AdminListingService {
                 // Log de l'action admin
                 logAdminAction("LISTING_UPDATE", listingId.toString(), updateDto.reason());
                 
+                var before = ListingSnapshot.of(listing);
                 if (updateDto.status() != null && !updateDto.status().isBlank()) {
                     // Utiliser l'enum ListingStatus
                     listing.setStatus(com.ditsolution.features.listing.enums.ListingStatus.valueOf(updateDto.status()));
+                    listing.setUpdatedAt(java.time.OffsetDateTime.now().toInstant());
                 }
                 
                 entityManager.merge(listing);
+                listingChanged.fire(new ListingChangedEvent(before, ListingSnapshot.of(listing)));
             }
         }
     }
@@ -7,7 +7,10 @@ import com.ditsolution.features.auth.service.AdminAuditService;
 import com.ditsolution.features.listing.entity.ListingEntity;
 import com.ditsolution.features.listing.enums.ListingStatus;
 import com.ditsolution.features.listing.repository.ListingRepository;
+import com.ditsolution.features.listing.search.ListingChangedEvent;
+import com.ditsolution.features.listing.search.ListingSnapshot;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.NotFoundException;
@@ -26,6 +29,9 @@ public class AdminModerationService {
     @Inject
     AdminAuditService auditService;
 
+    @Inject
+    Event<ListingChangedEvent> listingChanged;
+
     @Transactional
     public ListingEntity moderateListing(UUID listingId, UserEntity admin, ModerateListingRequest request, String ip, String userAgent) {
         ListingEntity listing = listingRepository.findById(listingId);
@@ -51,8 +57,10 @@ public class AdminModerationService {
         }
 
         ListingStatus previousStatus = listing.getStatus();
+        var before = ListingSnapshot.of(listing);
         listing.setStatus(ListingStatus.REMOVED);
         listing.setUpdatedAt(java.time.OffsetDateTime.now().toInstant());
+        listingChanged.fire(new ListingChangedEvent(before, ListingSnapshot.of(listing)));
         
         // Log de l'action
         Map<String, Object> details = new HashMap<>();
@@ -93,8 +101,10 @@ public class AdminModerationService {
         }
 
         // Restaurer en DRAFT par défaut (l'admin peut ensuite la publier)
+        var before = ListingSnapshot.of(listing);
         listing.setStatus(ListingStatus.DRAFT);
         listing.setUpdatedAt(java.time.OffsetDateTime.now().toInstant());
+        listingChanged.fire(new ListingChangedEvent(before, ListingSnapshot.of(listing)));
         
         // Log de l'action
         Map<String, Object> details = new HashMap<>();
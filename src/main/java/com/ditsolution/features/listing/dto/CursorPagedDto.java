@@ -0,0 +1,9 @@
+package com.ditsolution.features.listing.dto;
+
+import java.util.List;
+
+/**
+ * Page obtenue par curseur : {@code nextCursor} est null sur la dernière page,
+ * {@code total} est null quand le comptage n'a pas été demandé.
+ */
+public record CursorPagedDto<T>(List<T> items, String nextCursor, Long total, int size) {}
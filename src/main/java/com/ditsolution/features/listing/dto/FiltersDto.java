@@ -4,6 +4,22 @@ import java.math.BigDecimal;
 
 import com.ditsolution.features.listing.enums.ListingType;
 
+/**
+ * Filtres publics de GET /listings ; {@code q} est la recherche plein texte (titre + description).
+ * {@code radiusKm} restreint aux annonces à moins de ce rayon de ({@code latitude}, {@code longitude}).
+ */
 public record FiltersDto(
             String city, String district, ListingType type,
-            BigDecimal minPrice, BigDecimal maxPrice) {}
\ No newline at end of file
+            BigDecimal minPrice, BigDecimal maxPrice, String q,
+            Integer minRooms, Integer maxRooms,
+            BigDecimal latitude, BigDecimal longitude, Double radiusKm) {
+
+    /** Filtres sans pièces ni rayon (facettes). */
+    public FiltersDto(String city, String district, ListingType type, BigDecimal minPrice, BigDecimal maxPrice, String q) {
+        this(city, district, type, minPrice, maxPrice, q, null, null, null, null, null);
+    }
+
+    public boolean hasRadius() {
+        return radiusKm != null && latitude != null && longitude != null;
+    }
+}
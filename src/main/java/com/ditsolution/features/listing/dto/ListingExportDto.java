@@ -0,0 +1,50 @@
+package com.ditsolution.features.listing.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import com.ditsolution.features.listing.enums.ListingStatus;
+import com.ditsolution.features.listing.enums.ListingType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Ligne de l'export NDJSON du catalogue public (GET /listings/export), photos dans l'ordre d'affichage.
+ * Pour un export incrémental, une annonce dépubliée depuis {@code updatedSince} n'a que id, status et updatedAt.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ListingExportDto(
+    UUID id,
+    ListingStatus status,
+    ListingType type,
+    String title,
+    String description,
+    String city,
+    String district,
+    BigDecimal price,
+
+    // Géolocalisation
+    BigDecimal latitude,
+    BigDecimal longitude,
+
+    // Champs enrichis
+    Integer rooms,
+    Integer floor,
+    Integer buildingYear,
+    String energyClass,
+    Boolean hasElevator,
+    Boolean hasParking,
+    Boolean hasBalcony,
+    Boolean hasTerrace,
+
+    List<String> photos,
+    Instant createdAt,
+    Instant updatedAt
+) {
+
+    public static ListingExportDto removed(UUID id, ListingStatus status, Instant updatedAt) {
+        return new ListingExportDto(id, status, null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null, null, null, updatedAt);
+    }
+}
@@ -0,0 +1,22 @@
+package com.ditsolution.features.listing.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Facettes du catalogue public pour un jeu de filtres.
+ * Chaque dimension est comptée avec tous les filtres sauf le sien ; {@code total} applique tous les filtres.
+ */
+public record ListingFacetsDto(
+        long total,
+        List<Value> cities,
+        List<Value> districts,
+        List<Value> types,
+        List<Value> rooms,
+        List<PriceBucket> prices) {
+
+    public record Value(String value, long count) {}
+
+    /** Tranche [min, max[ ; min null pour la première, max null pour la dernière. */
+    public record PriceBucket(BigDecimal min, BigDecimal max, long count) {}
+}
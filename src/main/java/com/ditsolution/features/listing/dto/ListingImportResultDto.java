@@ -0,0 +1,15 @@
+package com.ditsolution.features.listing.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Résultat d'un import en masse : annonces créées (en brouillon) et lignes rejetées.
+ * {@code row} est le numéro de ligne de la requête (1 = premier élément du tableau / première ligne de données CSV).
+ */
+public record ListingImportResultDto(int received, int imported, List<Created> created, List<RowError> errors) {
+
+    public record Created(int row, UUID id) {}
+
+    public record RowError(int row, String code, String message) {}
+}
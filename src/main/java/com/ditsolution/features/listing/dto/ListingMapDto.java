@@ -0,0 +1,16 @@
+package com.ditsolution.features.listing.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Vue carte d'une emprise : groupes pré-agrégés, et annonces individuelles pour les petits groupes.
+ */
+public record ListingMapDto(int zoom, List<Cluster> clusters, List<Pin> pins) {
+
+    /** Groupe d'annonces d'une cellule (barycentre des positions). */
+    public record Cluster(double latitude, double longitude, long count, BigDecimal minPrice, BigDecimal maxPrice) {}
+
+    public record Pin(UUID id, double latitude, double longitude, BigDecimal price) {}
+}
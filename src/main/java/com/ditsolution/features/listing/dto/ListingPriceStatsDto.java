@@ -0,0 +1,20 @@
+package com.ditsolution.features.listing.dto;
+
+import java.math.BigDecimal;
+
+import com.ditsolution.features.listing.enums.ListingType;
+
+/**
+ * Prix du marché d'un segment (critères null = tous) : nombre d'annonces publiées et quartiles de prix,
+ * à 1 % près. Quartiles null si aucune annonce.
+ */
+public record ListingPriceStatsDto(
+    String city,
+    String district,
+    ListingType type,
+    Integer rooms,
+    long count,
+    BigDecimal p25,
+    BigDecimal median,
+    BigDecimal p75
+) {}
@@ -0,0 +1,16 @@
+package com.ditsolution.features.listing.dto;
+
+import java.util.UUID;
+
+import com.ditsolution.features.listing.enums.ListingStatus;
+
+/**
+ * Audience d'une annonce pour son propriétaire.
+ */
+public record ListingStatsDto(
+    UUID listingId,
+    String title,
+    ListingStatus status,
+    long views,
+    long contacts
+) {}
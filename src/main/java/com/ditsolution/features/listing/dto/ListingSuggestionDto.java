@@ -0,0 +1,6 @@
+package com.ditsolution.features.listing.dto;
+
+/**
+ * Suggestion d'autocomplétion : ville ou quartier (avec sa ville) et nombre d'annonces publiées.
+ */
+public record ListingSuggestionDto(String kind, String label, String city, long count) {}
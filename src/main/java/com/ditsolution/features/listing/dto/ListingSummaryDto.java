@@ -0,0 +1,31 @@
+package com.ditsolution.features.listing.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import com.ditsolution.features.listing.enums.ListingStatus;
+import com.ditsolution.features.listing.enums.ListingType;
+
+/**
+ * Vue compacte d'une annonce pour les listes (carte) : pas de description,
+ * une seule photo (la première selon {@code ordering}).
+ */
+public record ListingSummaryDto(
+    UUID id,
+    ListingStatus status,
+    ListingType type,
+    String city,
+    String district,
+    BigDecimal price,
+    String title,
+    Integer rooms,
+
+    // Géolocalisation
+    BigDecimal latitude,
+    BigDecimal longitude,
+
+    String thumbnailUrl,
+    Instant createdAt,
+    Instant updatedAt
+) {}
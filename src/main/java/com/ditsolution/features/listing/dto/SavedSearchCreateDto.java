@@ -0,0 +1,20 @@
+package com.ditsolution.features.listing.dto;
+
+import java.math.BigDecimal;
+
+import com.ditsolution.features.listing.enums.ListingType;
+
+public record SavedSearchCreateDto(
+    String name,
+    String city,
+    String district,
+    ListingType type,
+    BigDecimal minPrice,
+    BigDecimal maxPrice,
+    Integer minRooms,
+
+    // Rayon autour d'un point (les trois ensemble)
+    BigDecimal latitude,
+    BigDecimal longitude,
+    Double radiusKm
+) {}
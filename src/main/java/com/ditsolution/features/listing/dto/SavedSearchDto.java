@@ -0,0 +1,29 @@
+package com.ditsolution.features.listing.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import com.ditsolution.features.listing.entity.SavedSearchEntity;
+import com.ditsolution.features.listing.enums.ListingType;
+
+public record SavedSearchDto(
+    UUID id,
+    String name,
+    String city,
+    String district,
+    ListingType type,
+    BigDecimal minPrice,
+    BigDecimal maxPrice,
+    Integer minRooms,
+    BigDecimal latitude,
+    BigDecimal longitude,
+    Double radiusKm,
+    Instant createdAt
+) {
+    public static SavedSearchDto of(SavedSearchEntity s) {
+        return new SavedSearchDto(s.getId(), s.getName(), s.getCity(), s.getDistrict(), s.getType(),
+                s.getMinPrice(), s.getMaxPrice(), s.getMinRooms(),
+                s.getLatitude(), s.getLongitude(), s.getRadiusKm(), s.getCreatedAt());
+    }
+}
@@ -0,0 +1,56 @@
+package com.ditsolution.features.listing.entity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import com.ditsolution.features.auth.entity.UserEntity;
+import com.ditsolution.features.listing.enums.ListingType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Critères d'alerte d'un utilisateur : chaque critère null ne filtre pas.
+ */
+@Entity
+@Data
+@Table(name = "saved_searches")
+public class SavedSearchEntity {
+    @Id @GeneratedValue private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private UserEntity user;
+
+    private String name;
+    private String city;
+    private String district;
+
+    @Enumerated(EnumType.STRING)
+    private ListingType type;
+
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Integer minRooms;
+
+    // Recherche par rayon autour d'un point
+    @Column(precision = 10, scale = 8)
+    private BigDecimal latitude;
+
+    @Column(precision = 11, scale = 8)
+    private BigDecimal longitude;
+
+    private Double radiusKm;
+
+    private Instant createdAt = Instant.now();
+}
@@ -0,0 +1,84 @@
+package com.ditsolution.features.listing.repository;
+
+import java.sql.Array;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.Session;
+
+import com.ditsolution.features.listing.dto.ListingStatsDto;
+import com.ditsolution.features.listing.enums.ListingStatus;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Accès à la table listing_counters (non mappée : écrite uniquement par upsert groupé).
+ */
+@ApplicationScoped
+public class ListingCounterRepository {
+
+    // Une seule instruction pour tout le lot ; les annonces supprimées entre-temps sont ignorées
+    private static final String UPSERT = """
+        INSERT INTO listing_counters (listing_id, views, contacts, updated_at)
+        SELECT u.id, u.views, u.contacts, NOW()
+        FROM unnest(?, ?, ?) AS u(id, views, contacts)
+        WHERE EXISTS (SELECT 1 FROM listings l WHERE l.id = u.id)
+        ON CONFLICT (listing_id) DO UPDATE SET
+          views = listing_counters.views + EXCLUDED.views,
+          contacts = listing_counters.contacts + EXCLUDED.contacts,
+          updated_at = NOW()
+        """;
+
+    @Inject
+    EntityManager entityManager;
+
+    /**
+     * Ajoute les deltas fournis (tableaux parallèles). Les ids doivent être triés pour que deux
+     * instances qui flushent en même temps verrouillent les lignes dans le même ordre.
+     * Doit être appelé dans une transaction.
+     */
+    public void addAll(UUID[] ids, long[] views, long[] contacts) {
+        if (ids.length == 0) return;
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (var ps = connection.prepareStatement(UPSERT)) {
+                Array idArray = connection.createArrayOf("uuid", ids);
+                Array viewArray = connection.createArrayOf("bigint", box(views));
+                Array contactArray = connection.createArrayOf("bigint", box(contacts));
+                ps.setArray(1, idArray);
+                ps.setArray(2, viewArray);
+                ps.setArray(3, contactArray);
+                ps.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * Compteurs persistés des annonces (non supprimées) d'un propriétaire, les plus vues d'abord.
+     */
+    public List<ListingStatsDto> findOwnerStats(UUID ownerId) {
+        String sql = """
+            SELECT l.id, l.title, l.status, COALESCE(c.views, 0), COALESCE(c.contacts, 0)
+            FROM listings l LEFT JOIN listing_counters c ON c.listing_id = l.id
+            WHERE l.owner_id = :ownerId AND l.status <> 'REMOVED'
+            ORDER BY COALESCE(c.views, 0) DESC, l.created_at DESC
+            """;
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(sql)
+                .setParameter("ownerId", ownerId)
+                .getResultList();
+        return rows.stream().map(r -> new ListingStatsDto(
+                r[0] instanceof UUID u ? u : UUID.fromString(r[0].toString()),
+                (String) r[1],
+                ListingStatus.valueOf(r[2].toString()),
+                ((Number) r[3]).longValue(),
+                ((Number) r[4]).longValue())).toList();
+    }
+
+    private static Long[] box(long[] values) {
+        Long[] boxed = new Long[values.length];
+        for (int i = 0; i < values.length; i++) boxed[i] = values[i];
+        return boxed;
+    }
+}
@@ -0,0 +1,121 @@
+package com.ditsolution.features.listing.repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+
+import com.ditsolution.features.listing.enums.ListingStatus;
+import com.ditsolution.features.listing.enums.ListingType;
+import com.ditsolution.features.storage.entity.UploadedImageEntity;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Insertion en masse des annonces importées et de leurs photos, par lots JDBC
+ * (réécrits en INSERT multi-lignes par le driver avec reWriteBatchedInserts), sans passer par la session.
+ */
+@ApplicationScoped
+public class ListingImportRepository {
+
+    private static final String INSERT_LISTING = """
+        INSERT INTO listings (id, owner_id, status, type, city, district, price, title, description,
+                              latitude, longitude, rooms, floor, building_year, energy_class,
+                              has_elevator, has_parking, has_balcony, has_terrace, created_at, updated_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String INSERT_PHOTO = "INSERT INTO listing_photos (listing_id, url, ordering) VALUES (?, ?, ?)";
+
+    @Inject
+    EntityManager entityManager;
+
+    @ConfigProperty(name = "app.listing.import.jdbc-batch-size", defaultValue = "500")
+    int batchSize;
+
+    /** Annonce prête à insérer (valeurs déjà validées et trimées, photos dans l'ordre). */
+    public record NewListing(
+        UUID id, ListingType type, String city, String district, BigDecimal price,
+        String title, String description, BigDecimal latitude, BigDecimal longitude,
+        Integer rooms, Integer floor, Integer buildingYear, String energyClass,
+        boolean hasElevator, boolean hasParking, boolean hasBalcony, boolean hasTerrace,
+        List<String> photos
+    ) {}
+
+    /**
+     * Insère les annonces (en brouillon, pour {@code ownerId}) puis leurs photos.
+     * Doit être appelé dans une transaction : un échec annule tout le lot.
+     */
+    public void insertAll(UUID ownerId, List<NewListing> listings, Instant now) {
+        if (listings.isEmpty()) return;
+        OffsetDateTime ts = now.atOffset(ZoneOffset.UTC);
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_LISTING)) {
+                int n = 0;
+                for (NewListing l : listings) {
+                    ps.setObject(1, l.id());
+                    ps.setObject(2, ownerId);
+                    ps.setString(3, ListingStatus.DRAFT.name());
+                    ps.setString(4, l.type().name());
+                    ps.setString(5, l.city());
+                    ps.setString(6, l.district());
+                    ps.setBigDecimal(7, l.price());
+                    ps.setString(8, l.title());
+                    ps.setString(9, l.description());
+                    ps.setBigDecimal(10, l.latitude());
+                    ps.setBigDecimal(11, l.longitude());
+                    setInt(ps, 12, l.rooms());
+                    setInt(ps, 13, l.floor());
+                    setInt(ps, 14, l.buildingYear());
+                    ps.setString(15, l.energyClass());
+                    ps.setBoolean(16, l.hasElevator());
+                    ps.setBoolean(17, l.hasParking());
+                    ps.setBoolean(18, l.hasBalcony());
+                    ps.setBoolean(19, l.hasTerrace());
+                    ps.setObject(20, ts);
+                    ps.setObject(21, ts);
+                    ps.addBatch();
+                    if (++n % batchSize == 0) ps.executeBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_PHOTO)) {
+                int n = 0;
+                for (NewListing l : listings) {
+                    int ordering = 0;
+                    for (String url : l.photos()) {
+                        ps.setObject(1, l.id());
+                        ps.setString(2, url);
+                        ps.setInt(3, ordering++);
+                        ps.addBatch();
+                        if (++n % batchSize == 0) ps.executeBatch();
+                    }
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Marque utilisées, en une requête, les images uploadées référencées par les annonces importées.
+     */
+    public int markPhotosUsed(UUID ownerId, Collection<String> urls) {
+        return UploadedImageEntity.markUsed(ownerId, urls);
+    }
+
+    private static void setInt(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value == null) ps.setNull(index, Types.INTEGER);
+        else ps.setInt(index, value);
+    }
+}
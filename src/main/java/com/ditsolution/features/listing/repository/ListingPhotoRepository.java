@@ -1,9 +1,11 @@
 package com.ditsolution.features.listing.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 import com.ditsolution.features.listing.entity.ListingPhotoEntity;
+import com.ditsolution.features.storage.entity.UploadedImageEntity;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -14,4 +16,14 @@ public class ListingPhotoRepository implements PanacheRepository<ListingPhotoEnt
     public List<ListingPhotoEntity> findByListingId(UUID listingId) {
         return find("listing.id = ?1 order by ordering asc", listingId).list();
     }
+
+    /**
+     * Après un remplacement de photos : flush des lignes listing_photos, puis une requête pour marquer
+     * utilisées les images ajoutées et une pour libérer les retirées qui ne sont plus référencées.
+     */
+    public void updateImageFlags(UUID ownerId, Collection<String> added, Collection<String> removed) {
+        flush();
+        UploadedImageEntity.markUsed(ownerId, added);
+        UploadedImageEntity.markUnused(ownerId, removed);
+    }
 }
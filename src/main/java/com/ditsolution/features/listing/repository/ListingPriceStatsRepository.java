@@ -0,0 +1,87 @@
+package com.ditsolution.features.listing.repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Session;
+
+import com.ditsolution.features.listing.enums.ListingType;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Accès à la table listing_price_stats (non mappée) : sketches de prix par segment,
+ * réécrits en bloc par {@code ListingPriceIndex} et relus au démarrage.
+ */
+@ApplicationScoped
+public class ListingPriceStatsRepository {
+
+    private static final String INSERT = """
+        INSERT INTO listing_price_stats (city, district, type, rooms, listing_count, p25, median, p75, sketch, updated_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, NOW())
+        """;
+
+    // Colonnes de clé non nulles : '' pour « sans quartier », -1 pour « pièces non renseignées »
+    private static final String NO_DISTRICT = "";
+    private static final int NO_ROOMS = -1;
+
+    @Inject
+    EntityManager entityManager;
+
+    /** Ligne persistée : segment normalisé, quantiles en centimes et sketch sérialisé. */
+    public record Row(String city, String district, ListingType type, Integer rooms,
+                      long count, long p25, long median, long p75, byte[] sketch) {}
+
+    /**
+     * Remplace toutes les lignes par {@code rows}. Doit être appelé dans une transaction.
+     */
+    public void replaceAll(List<Row> rows) {
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (var delete = connection.prepareStatement("DELETE FROM listing_price_stats")) {
+                delete.executeUpdate();
+            }
+            if (rows.isEmpty()) return;
+            try (var ps = connection.prepareStatement(INSERT)) {
+                for (Row r : rows) {
+                    ps.setString(1, r.city());
+                    ps.setString(2, r.district() == null ? NO_DISTRICT : r.district());
+                    ps.setString(3, r.type().name());
+                    ps.setInt(4, r.rooms() == null ? NO_ROOMS : r.rooms());
+                    ps.setLong(5, r.count());
+                    ps.setBigDecimal(6, BigDecimal.valueOf(r.p25(), 2));
+                    ps.setBigDecimal(7, BigDecimal.valueOf(r.median(), 2));
+                    ps.setBigDecimal(8, BigDecimal.valueOf(r.p75(), 2));
+                    ps.setBytes(9, r.sketch());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+
+    /** Toutes les lignes persistées ; les quantiles ne sont pas relus (à 0), ils se recalculent depuis le sketch. */
+    public List<Row> findAll() {
+        List<Row> rows = new ArrayList<>();
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (var ps = connection.prepareStatement(
+                    "SELECT city, district, type, rooms, listing_count, sketch FROM listing_price_stats");
+                 var rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String district = rs.getString(2);
+                    int rooms = rs.getInt(4);
+                    rows.add(new Row(
+                            rs.getString(1),
+                            NO_DISTRICT.equals(district) ? null : district,
+                            ListingType.valueOf(rs.getString(3)),
+                            rooms == NO_ROOMS ? null : rooms,
+                            rs.getLong(5), 0, 0, 0,
+                            rs.getBytes(6)));
+                }
+            }
+        });
+        return rows;
+    }
+}
@@ -1,15 +1,31 @@
 package com.ditsolution.features.listing.repository;
 
+import com.ditsolution.features.listing.dto.ListingExportDto;
+import com.ditsolution.features.listing.dto.ListingSummaryDto;
 import com.ditsolution.features.listing.entity.ListingEntity;
 import com.ditsolution.features.listing.enums.ListingStatus;
 import com.ditsolution.features.listing.enums.ListingType;
+import com.ditsolution.features.listing.search.ListingCursor;
+import com.ditsolution.features.listing.search.ListingSearchPlanner;
+import com.ditsolution.features.listing.search.ListingSort;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @ApplicationScoped
 public class ListingRepository implements PanacheRepository<ListingEntity> {
@@ -20,128 +36,184 @@ public class ListingRepository implements PanacheRepository<ListingEntity> {
     }
 
     /**
-     * Recherche filtrée par ville, type et fourchette de prix.
+     * Ids seuls (sans hydratation) pour une clause where Panache, paginés par OFFSET.
      */
-    public List<ListingEntity> search(String city, ListingType type, BigDecimal minPrice, BigDecimal maxPrice, int page, int size) {
-        var query = new StringBuilder("status = :status");
-        var params = new java.util.HashMap<String, Object>();
-        params.put("status", ListingStatus.PUBLISHED);
-
-        if (city != null && !city.isBlank()) {
-            query.append(" AND LOWER(city) = :city");
-            params.put("city", city.toLowerCase());
-        }
-        if (type != null) {
-            query.append(" AND type = :type");
-            params.put("type", type);
-        }
-        if (minPrice != null) {
-            query.append(" AND price >= :minPrice");
-            params.put("minPrice", minPrice);
-        }
-        if (maxPrice != null) {
-            query.append(" AND price <= :maxPrice");
-            params.put("maxPrice", maxPrice);
-        }
+    public List<UUID> findIds(String where, Map<String, Object> params, int page, int size) {
+        var query = getEntityManager().createQuery("SELECT id FROM ListingEntity WHERE " + where, UUID.class);
+        params.forEach(query::setParameter);
+        return query.setFirstResult(page * size).setMaxResults(size).getResultList();
+    }
 
-        return find(query.toString(), params)
-                .page(page, size)
-                .list();
+    /** Date de modification d'une annonce non supprimée, sans charger l'entité. */
+    public Optional<Instant> findUpdatedAt(UUID id) {
+        return getEntityManager()
+                .createQuery("SELECT updatedAt FROM ListingEntity WHERE id = :id AND status <> :removed", Instant.class)
+                .setParameter("id", id)
+                .setParameter("removed", ListingStatus.REMOVED)
+                .getResultStream().findFirst();
+    }
+
+    /** Dernière modification parmi les annonces fournies (null si la liste est vide). */
+    public Instant findMaxUpdatedAt(List<UUID> ids) {
+        if (ids.isEmpty()) return null;
+        return getEntityManager()
+                .createQuery("SELECT MAX(updatedAt) FROM ListingEntity WHERE id IN :ids", Instant.class)
+                .setParameter("ids", ids)
+                .getSingleResult();
     }
 
     /**
-     * Recherche par distance (rayon en km autour d'un point).
-     * Utilise la formule de Haversine pour calculer la distance.
+     * Clés de pagination (createdAt, price, id) seules pour une clause where Panache déjà ordonnée.
      */
-    public List<ListingEntity> searchByDistance(BigDecimal centerLat, BigDecimal centerLng, double radiusKm, int page, int size) {
-        String hql = """
-            SELECT l FROM ListingEntity l 
-            WHERE l.status = :status 
-            AND l.latitude IS NOT NULL 
-            AND l.longitude IS NOT NULL
-            AND (
-                6371 * acos(
-                    cos(radians(:centerLat)) * 
-                    cos(radians(l.latitude)) * 
-                    cos(radians(l.longitude) - radians(:centerLng)) + 
-                    sin(radians(:centerLat)) * 
-                    sin(radians(l.latitude))
-                )
-            ) <= :radiusKm
-            ORDER BY (
-                6371 * acos(
-                    cos(radians(:centerLat)) * 
-                    cos(radians(l.latitude)) * 
-                    cos(radians(l.longitude) - radians(:centerLng)) + 
-                    sin(radians(:centerLat)) * 
-                    sin(radians(l.latitude))
-                )
-            )
-            """;
+    public List<ListingCursor> findCursorKeys(String where, Map<String, Object> params, int limit) {
+        var query = getEntityManager().createQuery(
+                "SELECT new com.ditsolution.features.listing.search.ListingCursor(createdAt, price, id) FROM ListingEntity WHERE " + where,
+                ListingCursor.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Charge les annonces publiées dont l'id est fourni, dans l'ordre de la liste.
+     * Les ids devenus invisibles entre-temps sont ignorés.
+     */
+    public List<ListingEntity> findPublishedByIdsInOrder(List<UUID> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<UUID, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) rank.put(ids.get(i), i);
+        return find("id in ?1 and status = ?2", ids, ListingStatus.PUBLISHED)
+                .stream()
+                .sorted(Comparator.comparing(l -> rank.get(l.getId())))
+                .toList();
+    }
 
-        Query query = getEntityManager().createQuery(hql, ListingEntity.class);
-        query.setParameter("status", ListingStatus.PUBLISHED);
-        query.setParameter("centerLat", centerLat);
-        query.setParameter("centerLng", centerLng);
-        query.setParameter("radiusKm", radiusKm);
+    /**
+     * Recherche plein texte (colonne search_vector + index GIN, V35) : ids publiés classés par pertinence
+     * (titre avant description), puis par récence, ou selon {@code sort} s'il est fourni.
+     * Les filtres structurés et le rayon ({@code filter}) s'appliquent aux correspondances.
+     * {@code q} est interprété comme une saisie web : mots, "expression exacte", -exclusion, OR.
+     */
+    public List<UUID> findIdsByText(String q, ListingSearchPlanner.Plan filter, ListingSort sort, int page, int size) {
+        var params = new HashMap<String, Object>();
+        String sql = "SELECT l.id FROM listings l " + textWhere(q, filter, params) + (sort != null
+                ? sort.sqlOrderBy("l", params)
+                : " ORDER BY ts_rank_cd(l.search_vector, websearch_to_tsquery('french_unaccent', :q)) DESC,"
+                        + " l.created_at DESC, l.id DESC");
+        Query query = getEntityManager().createNativeQuery(sql);
+        params.forEach(query::setParameter);
         query.setFirstResult(page * size);
         query.setMaxResults(size);
+        @SuppressWarnings("unchecked")
+        List<Object> rows = query.getResultList();
+        return rows.stream().map(r -> r instanceof UUID u ? u : UUID.fromString(r.toString())).toList();
+    }
+
+    public long countByText(String q, ListingSearchPlanner.Plan filter) {
+        var params = new HashMap<String, Object>();
+        Query query = getEntityManager().createNativeQuery("SELECT COUNT(*) FROM listings l " + textWhere(q, filter, params));
+        params.forEach(query::setParameter);
+        return ((Number) query.getSingleResult()).longValue();
+    }
 
-        return query.getResultList();
+    /** {@code filter} doit être planifié en {@link ListingSearchPlanner.Dialect#SQL}. */
+    private static String textWhere(String q, ListingSearchPlanner.Plan filter, Map<String, Object> params) {
+        params.putAll(filter.params());
+        params.put("q", q);
+        return "WHERE l.search_vector @@ websearch_to_tsquery('french_unaccent', :q) AND " + filter.where();
     }
 
     /**
-     * Recherche enrichie avec tous les filtres + géolocalisation.
+     * Parcourt le catalogue public par curseur serveur (fetch size, lecture seule, sans entités en session) :
+     * mémoire constante quelle que soit la taille du catalogue. Ordre (updated_at, id) pour les exports incrémentaux.
+     * Avec {@code updatedSince}, les annonces sorties du catalogue depuis (hors brouillons) sont aussi émises, sans leurs colonnes.
+     * Borne incluse ({@code >=}) : les lignes de même updated_at que la dernière reçue ne sont pas sautées ;
+     * {@code afterId} (id de la dernière ligne reçue) reprend strictement après elle sur la clé (updated_at, id).
+     * Doit être appelé dans une transaction (le curseur JDBC de Postgres en dépend).
      */
-    public List<ListingEntity> searchEnriched(
-            String city, 
-            ListingType type, 
-            BigDecimal minPrice, 
-            BigDecimal maxPrice,
-            Integer minRooms,
-            Integer maxRooms,
-            BigDecimal centerLat, 
-            BigDecimal centerLng, 
-            Double radiusKm,
-            int page, 
-            int size
-    ) {
-        var query = new StringBuilder("status = :status");
-        var params = new java.util.HashMap<String, Object>();
-        params.put("status", ListingStatus.PUBLISHED);
-
-        if (city != null && !city.isBlank()) {
-            query.append(" AND LOWER(city) = :city");
-            params.put("city", city.toLowerCase());
-        }
-        if (type != null) {
-            query.append(" AND type = :type");
-            params.put("type", type);
-        }
-        if (minPrice != null) {
-            query.append(" AND price >= :minPrice");
-            params.put("minPrice", minPrice);
-        }
-        if (maxPrice != null) {
-            query.append(" AND price <= :maxPrice");
-            params.put("maxPrice", maxPrice);
-        }
-        if (minRooms != null) {
-            query.append(" AND rooms >= :minRooms");
-            params.put("minRooms", minRooms);
-        }
-        if (maxRooms != null) {
-            query.append(" AND rooms <= :maxRooms");
-            params.put("maxRooms", maxRooms);
+    public void scrollForExport(Instant updatedSince, UUID afterId, int fetchSize, Consumer<ListingExportDto> sink) {
+        String sql = """
+            SELECT l.id, CAST(l.status AS text), CAST(l.type AS text), l.title, l.description, l.city, l.district, l.price,
+                   l.latitude, l.longitude, l.rooms, l.floor, l.building_year, l.energy_class,
+                   l.has_elevator, l.has_parking, l.has_balcony, l.has_terrace,
+                   (SELECT string_agg(p.url, chr(10) ORDER BY p.ordering) FROM listing_photos p WHERE p.listing_id = l.id),
+                   l.created_at, l.updated_at
+            FROM listings l
+            """ + (updatedSince == null
+                ? "WHERE l.status = :status"
+                : afterId == null
+                    ? "WHERE l.updated_at >= :since AND l.status <> :draft"
+                    : "WHERE (l.updated_at, l.id) > (:since, :afterId) AND l.status <> :draft")
+            + " ORDER BY l.updated_at, l.id";
+
+        var query = getEntityManager().unwrap(Session.class).createNativeQuery(sql, Object[].class);
+        if (updatedSince == null) {
+            query.setParameter("status", ListingStatus.PUBLISHED.name());
+        } else {
+            query.setParameter("since", updatedSince);
+            query.setParameter("draft", ListingStatus.DRAFT.name());
+            if (afterId != null) query.setParameter("afterId", afterId);
         }
+        query.setFetchSize(fetchSize);
+        query.setReadOnly(true);
 
-        // Si géolocalisation demandée, utiliser la recherche par distance
-        if (centerLat != null && centerLng != null && radiusKm != null) {
-            return searchByDistance(centerLat, centerLng, radiusKm, page, size);
+        try (ScrollableResults<Object[]> rows = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (rows.next()) {
+                sink.accept(exportRow(rows.get()));
+            }
         }
+    }
+
+    private static ListingExportDto exportRow(Object[] r) {
+        UUID id = r[0] instanceof UUID u ? u : UUID.fromString(r[0].toString());
+        ListingStatus status = ListingStatus.valueOf((String) r[1]);
+        Instant updatedAt = instant(r[20]);
+        if (status != ListingStatus.PUBLISHED) return ListingExportDto.removed(id, status, updatedAt);
+        return new ListingExportDto(
+                id, status,
+                r[2] == null ? null : ListingType.valueOf((String) r[2]),
+                (String) r[3], (String) r[4], (String) r[5], (String) r[6],
+                (BigDecimal) r[7], (BigDecimal) r[8], (BigDecimal) r[9],
+                integer(r[10]), integer(r[11]), integer(r[12]), (String) r[13],
+                (Boolean) r[14], (Boolean) r[15], (Boolean) r[16], (Boolean) r[17],
+                r[18] == null ? List.of() : List.of(((String) r[18]).split("\n")),
+                instant(r[19]), updatedAt);
+    }
+
+    private static Integer integer(Object o) {
+        return o == null ? null : ((Number) o).intValue();
+    }
+
+    private static Instant instant(Object o) {
+        if (o == null) return null;
+        if (o instanceof Instant i) return i;
+        if (o instanceof OffsetDateTime odt) return odt.toInstant();
+        if (o instanceof Timestamp ts) return ts.toInstant();
+        throw new IllegalStateException("Type de date inattendu : " + o.getClass());
+    }
 
-        return find(query.toString(), params)
-                .page(page, size)
-                .list();
+    /**
+     * Résumés (colonnes de la carte + première photo) des annonces dont l'id est fourni, dans l'ordre de la liste.
+     * Une seule requête : la photo est lue par sous-requête corrélée, sans hydrater ni entités ni collection.
+     */
+    public List<ListingSummaryDto> findSummariesByIdsInOrder(List<UUID> ids) {
+        if (ids.isEmpty()) return List.of();
+        String hql = """
+            SELECT new com.ditsolution.features.listing.dto.ListingSummaryDto(
+                l.id, l.status, l.type, l.city, l.district, l.price, l.title, l.rooms,
+                l.latitude, l.longitude,
+                (SELECT MIN(p.url) FROM ListingPhotoEntity p
+                  WHERE p.listing = l
+                    AND p.ordering = (SELECT MIN(p2.ordering) FROM ListingPhotoEntity p2 WHERE p2.listing = l)),
+                l.createdAt, l.updatedAt)
+            FROM ListingEntity l
+            WHERE l.id IN :ids
+            """;
+        Map<UUID, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) rank.put(ids.get(i), i);
+        return getEntityManager().createQuery(hql, ListingSummaryDto.class)
+                .setParameter("ids", ids)
+                .getResultStream()
+                .sorted(Comparator.comparing(s -> rank.get(s.id())))
+                .toList();
     }
 }
@@ -0,0 +1,36 @@
+package com.ditsolution.features.listing.repository;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import com.ditsolution.features.listing.entity.SavedSearchEntity;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class SavedSearchRepository implements PanacheRepository<SavedSearchEntity> {
+
+    public List<SavedSearchEntity> findByUserId(UUID userId) {
+        return find("user.id = ?1 order by createdAt desc", userId).list();
+    }
+
+    public SavedSearchEntity findByIdAndUserId(UUID id, UUID userId) {
+        return find("id = ?1 and user.id = ?2", id, userId).firstResult();
+    }
+
+    public long countByUserId(UUID userId) {
+        return count("user.id", userId);
+    }
+
+    /**
+     * Parcours de toutes les recherches sauvegardées (utilisateur non chargé).
+     * Doit être appelé dans une transaction.
+     */
+    public void forEach(Consumer<SavedSearchEntity> consumer) {
+        try (var stream = findAll().<SavedSearchEntity>stream()) {
+            stream.forEach(consumer);
+        }
+    }
+}
@@ -1,19 +1,28 @@
 package com.ditsolution.features.listing.ressources;
 
+import com.ditsolution.common.cache.BoundedCache;
 import com.ditsolution.features.auth.entity.RefreshTokenEntity;
 import com.ditsolution.features.auth.service.AdminAuditService;
 import com.ditsolution.features.listing.entity.ListingEntity;
 import com.ditsolution.features.listing.enums.ListingStatus;
 import com.ditsolution.features.listing.repository.ListingRepository;
+import com.ditsolution.features.listing.search.ListingChangedEvent;
+import com.ditsolution.features.listing.search.ListingSearchCache;
+import com.ditsolution.features.listing.search.ListingSnapshot;
+import com.ditsolution.features.listing.services.ListingDetailCache;
 import io.quarkus.security.identity.SecurityIdentity;
 import jakarta.annotation.security.RolesAllowed;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.GET;
 import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.PATCH;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.jboss.resteasy.spi.HttpRequest;
 
@@ -33,6 +42,15 @@ public class AdminListingResource {
     @Inject
     AdminAuditService auditService;
 
+    @Inject
+    Event<ListingChangedEvent> listingChanged;
+
+    @Inject
+    ListingDetailCache detailCache;
+
+    @Inject
+    ListingSearchCache searchCache;
+
     @Context
     HttpRequest request;
 
@@ -56,7 +74,10 @@ public class AdminListingResource {
             return Response.noContent().build();
         }
 
+        var before = ListingSnapshot.of(listing);
         listing.setStatus(ListingStatus.REMOVED);
+        listing.setUpdatedAt(java.time.OffsetDateTime.now().toInstant());
+        listingChanged.fire(new ListingChangedEvent(before, ListingSnapshot.of(listing)));
         // Log
         auditService.log(
                 UUID.fromString(identity.getPrincipal().getName()),
@@ -70,4 +91,27 @@ public class AdminListingResource {
 
         return Response.noContent().build();
     }
+
+    /**
+     * Statistiques des caches d'annonces (détail et résultats de recherche)
+     */
+    @GET
+    @Path("/cache-stats")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response cacheStats() {
+        return Response.ok(java.util.Map.of(
+                "detail", toMap(detailCache.stats()),
+                "search", toMap(searchCache.stats())
+        )).build();
+    }
+
+    private static java.util.Map<String, Object> toMap(BoundedCache.Stats stats) {
+        return java.util.Map.of(
+                "size", stats.size(),
+                "hits", stats.hits(),
+                "misses", stats.misses(),
+                "evictions", stats.evictions(),
+                "hitRate", stats.hitRate()
+        );
+    }
 }
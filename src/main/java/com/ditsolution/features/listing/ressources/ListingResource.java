@@ -1,14 +1,23 @@
 package com.ditsolution.features.listing.ressources;
 
+import com.ditsolution.common.utils.ETags;
+import com.ditsolution.common.utils.HttpErrors;
 import com.ditsolution.features.auth.entity.UserEntity;
 import com.ditsolution.features.listing.dto.FiltersDto;
 import com.ditsolution.features.listing.dto.ListingCreateDto;
+import com.ditsolution.features.listing.dto.ListingDto;
+import com.ditsolution.features.listing.dto.ListingSummaryDto;
 import com.ditsolution.features.listing.dto.ListingUpdateDto;
 import com.ditsolution.features.listing.dto.PageRequestDto;
 import com.ditsolution.features.listing.entity.ListingEntity;
 import com.ditsolution.features.listing.enums.ListingType;
 import com.ditsolution.features.listing.mapper.ListingMapper;
+import com.ditsolution.features.listing.search.ListingCursor;
+import com.ditsolution.features.listing.search.ListingSort;
+import com.ditsolution.features.listing.services.ListingExportService;
+import com.ditsolution.features.listing.services.ListingImportService;
 import com.ditsolution.features.listing.services.ListingService;
+import com.ditsolution.shared.dto.CursorPagedResponse;
 import com.ditsolution.shared.dto.PagedResponse;
 
 import io.quarkus.security.Authenticated;
@@ -18,10 +27,20 @@ import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.UUID;
 
 
@@ -34,6 +53,18 @@ public class ListingResource {
     @Inject ListingService listingService;
     @Inject SecurityIdentity identity;
     @Inject ListingMapper mapper;
+    @Inject ListingExportService exportService;
+    @Inject ListingImportService importService;
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
+    // Cache-Control des lectures publiques (navigateurs / CDN)
+    @ConfigProperty(name = "app.http.cache-control.listing-detail", defaultValue = "public, max-age=30, s-maxage=60, stale-while-revalidate=120")
+    String detailCacheControl;
+
+    @ConfigProperty(name = "app.http.cache-control.listing-list", defaultValue = "public, max-age=0, s-maxage=15, must-revalidate")
+    String listCacheControl;
 
     // ---------------------------
     // 1. CREATE
@@ -62,6 +93,35 @@ public class ListingResource {
         return Response.status(Response.Status.CREATED).entity(mapper.toDto(l)).build();
     }
 
+    // ---------------------------
+    // 1b. IMPORT EN MASSE (tableau JSON ou CSV avec en-tête), annonces créées en brouillon
+    // ---------------------------
+    @POST
+    @Path("/import")
+    @RolesAllowed({"OWNER", "ADMIN"})
+    public Response importJson(List<ListingCreateDto> listings) {
+        var actor = currentUser();
+        if (actor == null) {
+            return Response.status(Response.Status.UNAUTHORIZED)
+                .entity(new ErrorDto("UNAUTHORIZED", "Utilisateur non authentifié")).build();
+        }
+        return Response.ok(importService.importJson(actor, listings)).build();
+    }
+
+    @POST
+    @Path("/import")
+    @Consumes(CSV)
+    @RolesAllowed({"OWNER", "ADMIN"})
+    public Response importCsv(InputStream body) {
+        var actor = currentUser();
+        if (actor == null) {
+            return Response.status(Response.Status.UNAUTHORIZED)
+                .entity(new ErrorDto("UNAUTHORIZED", "Utilisateur non authentifié")).build();
+        }
+        var reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+        return Response.ok(importService.importCsv(actor, reader)).build();
+    }
+
     // ---------------------------
     // 2. LIST (public, paginée avec filtres)
     // ---------------------------
@@ -72,23 +132,135 @@ public class ListingResource {
         @QueryParam("type") String type,                // "RENT" | "SALE"
         @QueryParam("minPrice") BigDecimal minPrice,
         @QueryParam("maxPrice") BigDecimal maxPrice,
+        @QueryParam("q") String q,                      // recherche plein texte (titre + description)
+        @QueryParam("minRooms") Integer minRooms,
+        @QueryParam("maxRooms") Integer maxRooms,
+        @QueryParam("lat") BigDecimal lat,              // centre du rayon / origine de sort=distance
+        @QueryParam("lng") BigDecimal lng,
+        @QueryParam("radiusKm") Double radiusKm,
+        @QueryParam("sort") String sort,                // price | -price | createdAt | -createdAt | distance
         @QueryParam("page") @DefaultValue("0") int page,
-        @QueryParam("size") @DefaultValue("10") int size
+        @QueryParam("size") @DefaultValue("10") int size,
+        @QueryParam("after") String after,              // présent (même vide) => pagination par curseur
+        @QueryParam("withTotal") @DefaultValue("false") boolean withTotal,
+        @QueryParam("view") @DefaultValue("full") String view,  // "full" | "summary"
+        @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch
     ) {
-      // parse sûr de `type` -> ListingType
-      ListingType listingType = null;
-      if (type != null && !type.isBlank()) {
-        try { listingType = ListingType.valueOf(type.trim().toUpperCase()); }
-        catch (IllegalArgumentException ignored) { /* type inconnu => pas de filtre */ }
+      var filters = new FiltersDto(city, district, parseType(type), minPrice, maxPrice, q,
+          minRooms, maxRooms, lat, lng, radiusKm);
+      var order = ListingSort.parse(sort, lat, lng);
+
+      if (after != null) {
+        var cursor = after.isBlank() ? null : ListingCursor.decode(after.trim());
+        if (isSummaryView(view)) {
+          var slice = listingService.listListingSummariesAfter(filters, order, cursor, size, withTotal);
+          return Response.ok(new CursorPagedResponse<>(slice.items(), slice.nextCursor(), slice.total(), size)).build();
+        }
+        var slice = listingService.listListingsAfter(filters, order, cursor, size, withTotal);
+        var items = slice.items().stream().map(mapper::toDto).toList();
+        return Response.ok(new CursorPagedResponse<>(items, slice.nextCursor(), slice.total(), size)).build();
       }
-  
-      var filters = new FiltersDto(city, district, listingType, minPrice, maxPrice);
+
       var pageReq = new PageRequestDto(page, size);
+
+      var etagView = isSummaryView(view) ? "summary" : "full";
+
+      // 304 avant toute hydratation / sérialisation ; sans If-None-Match, pas de requête en plus
+      String etag = null;
+      if (ifNoneMatch != null) {
+        etag = listingService.getListingsETag(filters, order, pageReq, etagView);
+        if (ETags.matches(ifNoneMatch, etag)) {
+          return notModified(etag, listCacheControl);
+        }
+      }
+
+      if (isSummaryView(view)) {
+        var summaries = listingService.listListingSummaries(filters, order, pageReq);
+        if (etag == null) {
+          etag = listingService.getListingsETag(filters, order, pageReq, etagView,
+              summaries.items().stream().map(ListingSummaryDto::updatedAt).toList());
+        }
+        return cacheable(Response.ok(new PagedResponse<>(summaries.items(), summaries.total(), page, size)), etag, listCacheControl);
+      }
   
-      var result = listingService.listListings(filters, pageReq); // <- ta signature
+      var result = listingService.listListings(filters, order, pageReq); // <- ta signature
   
       var items = result.items().stream().map(mapper::toDto).toList();
-      return Response.ok(new PagedResponse<>(items, result.total(), page, size)).build();
+      if (etag == null) {
+        etag = listingService.getListingsETag(filters, order, pageReq, etagView,
+            items.stream().map(ListingDto::updatedAt).toList());
+      }
+      return cacheable(Response.ok(new PagedResponse<>(items, result.total(), page, size)), etag, listCacheControl);
+    }
+
+    // ---------------------------
+    // 2b. FACETTES (public, mêmes filtres que la liste)
+    // ---------------------------
+    @GET
+    @Path("/facets")
+    public Response facets(
+        @QueryParam("city") String city,
+        @QueryParam("district") String district,
+        @QueryParam("type") String type,
+        @QueryParam("minPrice") BigDecimal minPrice,
+        @QueryParam("maxPrice") BigDecimal maxPrice
+    ) {
+      var filters = new FiltersDto(city, district, parseType(type), minPrice, maxPrice, null);
+      return Response.ok(listingService.getFacets(filters)).build();
+    }
+
+    // ---------------------------
+    // 2c. CARTE (groupes pré-agrégés par tuile)
+    // ---------------------------
+    @GET
+    @Path("/map")
+    public Response map(@QueryParam("bbox") String bbox, @QueryParam("zoom") @DefaultValue("12") int zoom) {
+        return Response.ok(listingService.getMap(bbox, zoom)).build();
+    }
+
+    // ---------------------------
+    // 2d. AUTOCOMPLÉTION (villes, quartiers)
+    // ---------------------------
+    @GET
+    @Path("/suggest")
+    public Response suggest(@QueryParam("prefix") String prefix, @QueryParam("limit") @DefaultValue("8") int limit) {
+        return Response.ok(listingService.suggest(prefix, limit)).build();
+    }
+
+    // ---------------------------
+    // 2e. PRIX DU MARCHÉ (médiane, p25/p75 par ville, quartier, type, pièces)
+    // ---------------------------
+    @GET
+    @Path("/price-stats")
+    public Response priceStats(
+        @QueryParam("city") String city,
+        @QueryParam("district") String district,
+        @QueryParam("type") String type,
+        @QueryParam("rooms") Integer rooms
+    ) {
+        var stats = listingService.priceStats(city, district, parseType(type), rooms);
+        return Response.ok(stats).header(HttpHeaders.CACHE_CONTROL, listCacheControl).build();
+    }
+
+    // ---------------------------
+    // 2f. EXPORT NDJSON (catalogue complet ou incrémental, réservé aux admins : partenaires et équipe data)
+    // ---------------------------
+    @GET
+    @Path("/export")
+    @Produces(NDJSON)
+    @RolesAllowed("ADMIN")
+    public Response export(@QueryParam("updatedSince") String updatedSince, @QueryParam("afterId") UUID afterId) {
+      Instant since;
+      try {
+        since = updatedSince == null || updatedSince.isBlank() ? null : Instant.parse(updatedSince.trim());
+      } catch (DateTimeParseException e) {
+        throw HttpErrors.badRequest("VALIDATION_ERROR", "updatedSince doit être une date ISO-8601 (ex. 2025-01-31T00:00:00Z)");
+      }
+      if (afterId != null && since == null) {
+        throw HttpErrors.badRequest("VALIDATION_ERROR", "afterId s'utilise avec updatedSince (updatedAt et id de la dernière annonce reçue)");
+      }
+      StreamingOutput body = exportService.open(since, afterId);
+      return Response.ok(body, NDJSON).header(HttpHeaders.CACHE_CONTROL, "no-store").build();
     }
 
     // ---------------------------
@@ -96,9 +268,37 @@ public class ListingResource {
     // ---------------------------
     @GET
     @Path("/{id}")
-    public Response get(@PathParam("id") UUID id) {
-        var l = listingService.getListing(id);
-        return Response.ok(mapper.toDto(l)).build();
+    public Response get(@PathParam("id") UUID id, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        // 304 sans charger l'annonce ni passer par le mapper
+        if (ifNoneMatch != null) {
+            var etag = listingService.getListingETag(id);
+            if (ETags.matches(ifNoneMatch, etag)) {
+                listingService.recordView(id);
+                return notModified(etag, detailCacheControl);
+            }
+        }
+        var dto = listingService.getListingDto(id);
+        listingService.recordView(id);
+        return cacheable(Response.ok(dto), ListingService.listingETag(dto), detailCacheControl);
+    }
+
+    // ---------------------------
+    // 3a. CLIC "CONTACTER" (compteur)
+    // ---------------------------
+    @POST
+    @Path("/{id}/contact")
+    public Response contact(@PathParam("id") UUID id) {
+        listingService.recordContact(id);
+        return Response.noContent().build();
+    }
+
+    // ---------------------------
+    // 3b. ANNONCES SIMILAIRES (carrousel de la page détail)
+    // ---------------------------
+    @GET
+    @Path("/{id}/similar")
+    public Response similar(@PathParam("id") UUID id, @QueryParam("k") @DefaultValue("6") int k) {
+        return Response.ok(listingService.getSimilarListings(id, k)).build();
     }
 
     // ---------------------------
@@ -125,19 +325,40 @@ public class ListingResource {
     @Authenticated
     public Response getUserListings(
         @QueryParam("page") @DefaultValue("0") int page,
-        @QueryParam("size") @DefaultValue("10") int size
+        @QueryParam("size") @DefaultValue("10") int size,
+        @QueryParam("view") @DefaultValue("full") String view   // "full" | "summary"
     ) {
         var actor = currentUser();
         if (actor == null) {
             return Response.status(Response.Status.UNAUTHORIZED)
                 .entity(new ErrorDto("UNAUTHORIZED", "Utilisateur non authentifié")).build();
         }
+
+        if (isSummaryView(view)) {
+            var summaries = listingService.getUserListingSummaries(actor.getId(), page, size);
+            return Response.ok(new PagedResponse<>(summaries.items(), summaries.total(), page, size)).build();
+        }
         
         var result = listingService.getUserListings(actor.getId(), page, size);
         var items = result.items().stream().map(mapper::toDto).toList();
         return Response.ok(new PagedResponse<>(items, result.total(), page, size)).build();
     }
 
+    // ---------------------------
+    // 5b. AUDIENCE DES ANNONCES DU PROPRIÉTAIRE (vues, contacts)
+    // ---------------------------
+    @GET
+    @Path("/my/stats")
+    @RolesAllowed({"OWNER", "ADMIN"})
+    public Response getMyStats() {
+        var actor = currentUser();
+        if (actor == null) {
+            return Response.status(Response.Status.UNAUTHORIZED)
+                .entity(new ErrorDto("UNAUTHORIZED", "Utilisateur non authentifié")).build();
+        }
+        return Response.ok(listingService.getOwnerStats(actor.getId())).build();
+    }
+
     // ---------------------------
     // 6. DELETE (soft delete)
     // ---------------------------
@@ -157,6 +378,25 @@ public class ListingResource {
     // ---------------------------
     // Helper
     // ---------------------------
+    // parse sûr de `type` -> ListingType (type inconnu => pas de filtre)
+    private static ListingType parseType(String type) {
+        if (type == null || type.isBlank()) return null;
+        try { return ListingType.valueOf(type.trim().toUpperCase()); }
+        catch (IllegalArgumentException ignored) { return null; }
+    }
+
+    private static Response notModified(String etag, String cacheControl) {
+        return cacheable(Response.notModified(), etag, cacheControl);
+    }
+
+    private static Response cacheable(Response.ResponseBuilder builder, String etag, String cacheControl) {
+        return builder.header(HttpHeaders.ETAG, etag).header(HttpHeaders.CACHE_CONTROL, cacheControl).build();
+    }
+
+    private static boolean isSummaryView(String view) {
+        return "summary".equalsIgnoreCase(view);
+    }
+
     private UserEntity currentUser() {
         if (identity == null) {
             System.out.println("SecurityIdentity is null");
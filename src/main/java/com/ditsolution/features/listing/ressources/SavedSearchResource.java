@@ -0,0 +1,50 @@
+package com.ditsolution.features.listing.ressources;
+
+import com.ditsolution.features.listing.dto.SavedSearchCreateDto;
+import com.ditsolution.features.listing.service.SavedSearchService;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+
+import java.util.UUID;
+
+/**
+ * Recherches sauvegardées de l'utilisateur connecté (alertes nouvelles annonces).
+ */
+@Path("/saved-searches")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@RolesAllowed({"TENANT", "OWNER", "ADMIN"})
+public class SavedSearchResource {
+
+    @Inject
+    SavedSearchService savedSearchService;
+
+    @Inject
+    JsonWebToken jwt;
+
+    @GET
+    public Response list() {
+        return Response.ok(savedSearchService.getUserSearches(currentUserId())).build();
+    }
+
+    @POST
+    public Response create(SavedSearchCreateDto dto) {
+        var created = savedSearchService.createSearch(currentUserId(), dto);
+        return Response.status(Response.Status.CREATED).entity(created).build();
+    }
+
+    @DELETE
+    @Path("/{id}")
+    public Response delete(@PathParam("id") UUID id) {
+        savedSearchService.deleteSearch(currentUserId(), id);
+        return Response.noContent().build();
+    }
+
+    private UUID currentUserId() {
+        return UUID.fromString(jwt.getSubject());
+    }
+}
@@ -0,0 +1,26 @@
+package com.ditsolution.features.listing.search;
+
+/**
+ * Index en mémoire dérivé du catalogue public, alimenté par {@link CatalogueIndexer}.
+ *
+ * {@link #apply} doit être idempotent et ne dépendre que de l'état courant de l'annonce
+ * (upsert si PUBLISHED, retrait sinon) : une même annonce peut être rejouée après une reconstruction.
+ */
+public interface CatalogueIndex {
+
+    /** Nom court pour les logs. */
+    String name();
+
+    /** Prépare un état vide qui sera rempli avec toutes les annonces publiées puis installé. */
+    Rebuild beginRebuild();
+
+    /** Applique l'état courant d'une annonce à l'index installé (no-op tant qu'aucun état n'est installé). */
+    void apply(ListingSnapshot listing);
+
+    interface Rebuild {
+        void apply(ListingSnapshot listing);
+
+        /** Remplace atomiquement l'état servi par l'index. */
+        void install();
+    }
+}
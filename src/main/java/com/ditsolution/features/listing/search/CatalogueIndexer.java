@@ -0,0 +1,106 @@
+package com.ditsolution.features.listing.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jboss.logging.Logger;
+
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Alimente tous les {@link CatalogueIndex} : une seule lecture du catalogue au démarrage et à chaque
+ * reconstruction périodique (qui rattrape les écritures des autres instances), puis application
+ * des {@link ListingChangedEvent} après commit.
+ *
+ * Les changements commités pendant une reconstruction sont mis de côté et rejoués sur le nouvel
+ * état avant son installation, pour qu'aucun ne soit perdu par la substitution.
+ */
+@ApplicationScoped
+public class CatalogueIndexer {
+
+    private static final Logger LOG = Logger.getLogger(CatalogueIndexer.class);
+
+    @Inject
+    @Any
+    Instance<CatalogueIndex> indexes;
+
+    @Inject
+    ListingSnapshotLoader loader;
+
+    private final Object lock = new Object();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    // Non null pendant une reconstruction (protégé par lock)
+    private List<ListingSnapshot> pending;
+
+    @Transactional
+    void onStart(@Observes StartupEvent ev) {
+        rebuildAll();
+    }
+
+    @Scheduled(every = "${app.search.index.rebuild-every:15m}", delayed = "${app.search.index.rebuild-every:15m}")
+    @Transactional
+    void scheduledRebuild() {
+        rebuildAll();
+    }
+
+    void onListingChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) ListingChangedEvent event) {
+        synchronized (lock) {
+            if (pending != null) pending.add(event.listing());
+            for (CatalogueIndex index : indexes) {
+                try {
+                    index.apply(event.listing());
+                } catch (Exception e) {
+                    LOG.error("Erreur lors de la mise à jour de l'index " + index.name(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reconstruit tous les index depuis la base. Doit être appelé dans une transaction.
+     */
+    public void rebuildAll() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            LOG.debug("Reconstruction des index déjà en cours");
+            return;
+        }
+        try {
+            List<CatalogueIndex.Rebuild> rebuilds = new ArrayList<>();
+            for (CatalogueIndex index : indexes) rebuilds.add(index.beginRebuild());
+
+            synchronized (lock) {
+                pending = new ArrayList<>();
+            }
+            int[] count = { 0 };
+            loader.forEachPublished(s -> {
+                count[0]++;
+                for (CatalogueIndex.Rebuild r : rebuilds) r.apply(s);
+            });
+
+            synchronized (lock) {
+                for (ListingSnapshot s : pending) {
+                    for (CatalogueIndex.Rebuild r : rebuilds) r.apply(s);
+                }
+                rebuilds.forEach(CatalogueIndex.Rebuild::install);
+            }
+            LOG.info("Index du catalogue reconstruits - " + count[0] + " annonces publiées, " + rebuilds.size() + " index");
+        } catch (Exception e) {
+            LOG.error("Erreur lors de la reconstruction des index du catalogue", e);
+        } finally {
+            synchronized (lock) {
+                pending = null;
+            }
+            rebuilding.set(false);
+        }
+    }
+}
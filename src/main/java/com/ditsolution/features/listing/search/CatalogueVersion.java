@@ -0,0 +1,47 @@
+package com.ditsolution.features.listing.search;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+/**
+ * Compteurs de version du catalogue public, incrémentés après commit dès qu'une annonce
+ * entre dans, sort de, ou change au sein de l'ensemble PUBLISHED.
+ * Une version globale + une version par ville (normalisée en minuscules) : un résultat
+ * filtré par ville ne dépend que de la version de cette ville.
+ */
+@ApplicationScoped
+public class CatalogueVersion {
+
+    private final AtomicLong global = new AtomicLong();
+    private final Map<String, AtomicLong> byCity = new ConcurrentHashMap<>();
+
+    public long global() {
+        return global.get();
+    }
+
+    public long city(String city) {
+        AtomicLong v = byCity.get(normalizeCity(city));
+        return v == null ? 0 : v.get();
+    }
+
+    void onListingChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) ListingChangedEvent event) {
+        if (!event.affectsPublicCatalogue()) return;
+        if (event.previous() != null) bumpCity(event.previous().city());
+        bumpCity(event.listing().city());
+        global.incrementAndGet();
+    }
+
+    public static String normalizeCity(String city) {
+        return city == null ? "" : city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void bumpCity(String city) {
+        byCity.computeIfAbsent(normalizeCity(city), k -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -0,0 +1,232 @@
+package com.ditsolution.features.listing.search;
+
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+import com.ditsolution.features.listing.enums.ListingType;
+
+/**
+ * Catalogue publié en colonnes de tableaux primitifs, immuable une fois construit.
+ *
+ * Une ligne par annonce : quartier en code de dictionnaire, prix en centimes, pièces en short,
+ * position en float, date de création en microsecondes (précision de Postgres). Ville et type,
+ * les égalités les plus sélectives et les plus fréquentes, sont des bitsets intersectés ; les autres
+ * prédicats (quartier, prix, pièces, rayon) une boucle sur les lignes restantes.
+ *
+ * Les ordres sont ceux de {@link ListingSort}, id compris : l'uuid est comparé en non signé, octet par octet,
+ * comme le fait Postgres, pour que les pages soient identiques à celles servies par la base.
+ */
+public final class ColumnarCatalogue {
+
+    public static final ColumnarCatalogue EMPTY = of(List.of());
+
+    private static final int NONE = -1;
+    private static final short NO_ROOMS = Short.MIN_VALUE;
+
+    /** Ville et quartier normalisés ({@link SearchKeys#normalize}), prix en centimes, rayon en km. */
+    public record Query(String city, String district, ListingType type,
+                        Long minPrice, Long maxPrice, Integer minRooms, Integer maxRooms,
+                        Double latitude, Double longitude, Double radiusKm) {}
+
+    /** Ids de la page demandée, dans l'ordre, et nombre total de lignes correspondantes. */
+    public record Page(List<UUID> ids, long total) {}
+
+    private final int size;
+    private final long[] idHigh;
+    private final long[] idLow;
+    private final int[] district;
+    private final long[] price;
+    private final short[] rooms;
+    private final float[] latitude;
+    private final float[] longitude;
+    private final long[] createdAt;
+
+    private final Map<String, Integer> cityCodes;
+    private final Map<String, Integer> districtCodes;
+    private final BitSet[] byCity;
+    private final BitSet[] byType;
+
+    private ColumnarCatalogue(List<ListingSnapshot> rows) {
+        size = rows.size();
+        idHigh = new long[size];
+        idLow = new long[size];
+        district = new int[size];
+        price = new long[size];
+        rooms = new short[size];
+        latitude = new float[size];
+        longitude = new float[size];
+        createdAt = new long[size];
+        cityCodes = new HashMap<>();
+        districtCodes = new HashMap<>();
+        List<BitSet> cities = new ArrayList<>();
+        byType = new BitSet[ListingType.values().length];
+        for (int t = 0; t < byType.length; t++) byType[t] = new BitSet(size);
+
+        for (int i = 0; i < size; i++) {
+            ListingSnapshot s = rows.get(i);
+            idHigh[i] = s.id().getMostSignificantBits();
+            idLow[i] = s.id().getLeastSignificantBits();
+            String cityKey = SearchKeys.normalize(s.city());
+            if (cityKey != null) {
+                int code = cityCodes.computeIfAbsent(cityKey, k -> {
+                    cities.add(new BitSet());
+                    return cities.size() - 1;
+                });
+                cities.get(code).set(i);
+            }
+            String districtKey = SearchKeys.normalize(s.district());
+            district[i] = districtKey == null ? NONE : districtCodes.computeIfAbsent(districtKey, k -> districtCodes.size());
+            if (s.type() != null) byType[s.type().ordinal()].set(i);
+            price[i] = SearchKeys.cents(s.price(), RoundingMode.HALF_UP);
+            rooms[i] = s.rooms() == null ? NO_ROOMS : (short) Math.max(Short.MIN_VALUE + 1, Math.min(Short.MAX_VALUE, s.rooms()));
+            latitude[i] = s.hasLocation() ? s.latitude().floatValue() : Float.NaN;
+            longitude[i] = s.hasLocation() ? s.longitude().floatValue() : Float.NaN;
+            createdAt[i] = micros(s.createdAt());
+        }
+        byCity = cities.toArray(BitSet[]::new);
+    }
+
+    /** Construit les colonnes ; seules les annonces publiées avec un prix sont retenues. */
+    public static ColumnarCatalogue of(Collection<ListingSnapshot> listings) {
+        List<ListingSnapshot> rows = new ArrayList<>(listings.size());
+        for (ListingSnapshot s : listings) {
+            if (s.isPublished() && s.price() != null) rows.add(s);
+        }
+        return new ColumnarCatalogue(rows);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Lignes correspondant à {@code q}, triées selon {@code sort} (départage par id), de {@code offset}
+     * à {@code offset + limit}.
+     */
+    public Page search(Query q, ListingSort sort, int offset, int limit) {
+        BitSet candidates = candidates(q);
+        if (candidates == null) return new Page(List.of(), 0);
+
+        int districtCode = NONE;
+        if (q.district() != null) {
+            Integer code = districtCodes.get(q.district());
+            if (code == null) return new Page(List.of(), 0);
+            districtCode = code;
+        }
+
+        boolean radius = q.radiusKm() != null && q.latitude() != null && q.longitude() != null;
+        long minPrice = q.minPrice() == null ? Long.MIN_VALUE : q.minPrice();
+        long maxPrice = q.maxPrice() == null ? Long.MAX_VALUE : q.maxPrice();
+        boolean roomsFilter = q.minRooms() != null || q.maxRooms() != null;
+        int minRooms = q.minRooms() == null ? Integer.MIN_VALUE : q.minRooms();
+        int maxRooms = q.maxRooms() == null ? Integer.MAX_VALUE : q.maxRooms();
+
+        boolean byDistance = sort.isDistance();
+        double originLat = byDistance ? sort.latitude().doubleValue() : 0;
+        double originLng = byDistance ? sort.longitude().doubleValue() : 0;
+
+        int[] matches = new int[candidates.cardinality()];
+        // Distance à l'origine du tri, indexée par ligne (NaN : pas de position)
+        double[] distance = byDistance ? new double[size] : null;
+        int count = 0;
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (districtCode != NONE && district[i] != districtCode) continue;
+            if (price[i] < minPrice || price[i] > maxPrice) continue;
+            if (roomsFilter && (rooms[i] == NO_ROOMS || rooms[i] < minRooms || rooms[i] > maxRooms)) continue;
+            if (radius) {
+                if (Float.isNaN(latitude[i])) continue;
+                if (GeoGrid.distanceKm(q.latitude(), q.longitude(), latitude[i], longitude[i]) > q.radiusKm()) continue;
+            }
+            if (byDistance) {
+                distance[i] = Float.isNaN(latitude[i]) ? Double.NaN
+                        : GeoGrid.distanceKm(originLat, originLng, latitude[i], longitude[i]);
+            }
+            matches[count++] = i;
+        }
+
+        int wanted = (int) Math.min((long) offset + limit, count);
+        if (offset >= wanted) return new Page(List.of(), count);
+        int[] top = top(matches, count, wanted, comparator(sort, distance));
+
+        List<UUID> ids = new ArrayList<>(wanted - offset);
+        for (int k = offset; k < wanted; k++) ids.add(new UUID(idHigh[top[k]], idLow[top[k]]));
+        return new Page(ids, count);
+    }
+
+    /** Intersection des bitsets ville et type ; null si rien ne peut correspondre. */
+    private BitSet candidates(Query q) {
+        BitSet result = new BitSet(size);
+        result.set(0, size);
+        if (q.city() != null) {
+            Integer code = cityCodes.get(q.city());
+            if (code == null) return null;
+            result.and(byCity[code]);
+        }
+        if (q.type() != null) result.and(byType[q.type().ordinal()]);
+        return result.isEmpty() ? null : result;
+    }
+
+    private interface RowComparator {
+        int compare(int a, int b);
+    }
+
+    private RowComparator comparator(ListingSort sort, double[] distance) {
+        boolean desc = sort.order().descending();
+        return switch (sort.order()) {
+            case NEWEST, OLDEST -> (a, b) -> {
+                int c = Long.compare(createdAt[a], createdAt[b]);
+                if (c == 0) c = compareIds(a, b);
+                return desc ? -c : c;
+            };
+            case PRICE_ASC, PRICE_DESC -> (a, b) -> {
+                int c = Long.compare(price[a], price[b]);
+                if (c == 0) c = compareIds(a, b);
+                return desc ? -c : c;
+            };
+            // NULLS LAST
+            case DISTANCE -> (a, b) -> {
+                boolean na = Double.isNaN(distance[a]), nb = Double.isNaN(distance[b]);
+                if (na != nb) return na ? 1 : -1;
+                int c = na ? 0 : Double.compare(distance[a], distance[b]);
+                return c != 0 ? c : compareIds(a, b);
+            };
+        };
+    }
+
+    /** Ordre de Postgres sur uuid : comparaison des 16 octets non signés. */
+    private int compareIds(int a, int b) {
+        int c = Long.compareUnsigned(idHigh[a], idHigh[b]);
+        return c != 0 ? c : Long.compareUnsigned(idLow[a], idLow[b]);
+    }
+
+    /** Les {@code wanted} premières lignes de {@code rows[0..count)} dans l'ordre, via un tas borné. */
+    private static int[] top(int[] rows, int count, int wanted, RowComparator cmp) {
+        // Tas max de taille wanted : la racine est la pire des lignes retenues
+        PriorityQueue<Integer> heap = new PriorityQueue<>(wanted, (a, b) -> cmp.compare(b, a));
+        for (int k = 0; k < count; k++) {
+            int row = rows[k];
+            if (heap.size() < wanted) {
+                heap.add(row);
+            } else if (cmp.compare(row, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(row);
+            }
+        }
+        int[] out = new int[heap.size()];
+        for (int k = out.length - 1; k >= 0; k--) out[k] = heap.poll();
+        return out;
+    }
+
+    private static long micros(Instant t) {
+        return t == null ? Long.MIN_VALUE : ChronoUnit.MICROS.between(Instant.EPOCH, t);
+    }
+}
@@ -0,0 +1,186 @@
+package com.ditsolution.features.listing.search;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.ditsolution.features.listing.enums.ListingType;
+
+/**
+ * Compteurs de facettes maintenus incrémentalement.
+ *
+ * Les annonces sont regroupées en cellules (ville, quartier, type, pièces) ; chaque cellule garde
+ * ses prix triés, ce qui donne le nombre d'annonces dans un intervalle de prix par deux recherches
+ * dichotomiques. Un calcul de facettes parcourt donc les cellules (quelques milliers au plus),
+ * jamais les annonces.
+ *
+ * Facettes disjonctives : chaque dimension est comptée avec tous les filtres sauf le sien,
+ * pour que la ville sélectionnée n'écrase pas les autres villes proposées.
+ *
+ * Ville et quartier doivent être fournis normalisés ; les prix sont en centimes.
+ */
+public class FacetIndex {
+
+    private final long[] bucketBounds;
+
+    private final Map<CellKey, Cell> cells = new HashMap<>();
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param bucketBounds bornes croissantes des tranches de prix (centimes) :
+     *                     tranche i = [bucketBounds[i-1], bucketBounds[i]), la dernière est ouverte
+     */
+    public FacetIndex(long[] bucketBounds) {
+        for (int i = 1; i < bucketBounds.length; i++) {
+            if (bucketBounds[i] <= bucketBounds[i - 1]) {
+                throw new IllegalArgumentException("Les bornes de prix doivent être strictement croissantes");
+            }
+        }
+        this.bucketBounds = bucketBounds.clone();
+    }
+
+    public record Query(String city, String district, ListingType type, Long minPrice, Long maxPrice) {}
+
+    /**
+     * Résultat d'un calcul : total des annonces correspondant à tous les filtres, puis comptes par valeur.
+     * {@code priceBuckets[i]} correspond à la tranche i des bornes du constructeur.
+     */
+    public record Counts(long total,
+                         Map<String, Long> cities,
+                         Map<String, Long> districts,
+                         Map<ListingType, Long> types,
+                         Map<Integer, Long> rooms,
+                         long[] priceBuckets) {}
+
+    private record CellKey(String city, String district, ListingType type, Integer rooms) {}
+
+    private record Entry(CellKey key, long price) {}
+
+    public void put(UUID id, String city, String district, ListingType type, Integer rooms, long price) {
+        var key = new CellKey(city, district, type, rooms);
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(id, new Entry(key, price));
+            if (previous != null) removeFromCell(previous);
+            cells.computeIfAbsent(key, k -> new Cell()).add(price);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(id);
+            if (previous != null) removeFromCell(previous);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Counts count(Query q) {
+        long lo = q.minPrice() != null ? q.minPrice() : Long.MIN_VALUE;
+        long hi = q.maxPrice() != null ? q.maxPrice() : Long.MAX_VALUE;
+
+        long total = 0;
+        Map<String, Long> cities = new HashMap<>();
+        Map<String, Long> districts = new HashMap<>();
+        Map<ListingType, Long> types = new EnumMap<>(ListingType.class);
+        Map<Integer, Long> rooms = new HashMap<>();
+        long[] buckets = new long[bucketBounds.length + 1];
+
+        lock.readLock().lock();
+        try {
+            for (var e : cells.entrySet()) {
+                CellKey key = e.getKey();
+                Cell cell = e.getValue();
+                boolean city = q.city() == null || q.city().equals(key.city());
+                boolean district = q.district() == null || q.district().equals(key.district());
+                boolean type = q.type() == null || q.type() == key.type();
+                if (!(city && district) && !(city && type) && !(district && type)) continue;
+
+                long inRange = cell.countBetween(lo, hi);
+                if (inRange > 0) {
+                    if (district && type && key.city() != null) cities.merge(key.city(), inRange, Long::sum);
+                    if (city && type && key.district() != null) districts.merge(key.district(), inRange, Long::sum);
+                    if (city && district && key.type() != null) types.merge(key.type(), inRange, Long::sum);
+                    if (city && district && type) {
+                        total += inRange;
+                        if (key.rooms() != null) rooms.merge(key.rooms(), inRange, Long::sum);
+                    }
+                }
+                if (city && district && type) {
+                    for (int i = 0; i < buckets.length; i++) {
+                        long from = i == 0 ? Long.MIN_VALUE : bucketBounds[i - 1];
+                        long to = i == bucketBounds.length ? Long.MAX_VALUE : bucketBounds[i] - 1;
+                        buckets[i] += cell.countBetween(from, to);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new Counts(total, cities, districts, types, rooms, buckets);
+    }
+
+    private void removeFromCell(Entry entry) {
+        Cell cell = cells.get(entry.key());
+        if (cell == null) return;
+        cell.remove(entry.price());
+        if (cell.size == 0) cells.remove(entry.key());
+    }
+
+    /** Multiensemble de prix trié. */
+    private static final class Cell {
+        private long[] prices = new long[4];
+        private int size;
+
+        void add(long price) {
+            int at = lowerBound(price);
+            if (size == prices.length) prices = Arrays.copyOf(prices, size * 2);
+            System.arraycopy(prices, at, prices, at + 1, size - at);
+            prices[at] = price;
+            size++;
+        }
+
+        void remove(long price) {
+            int at = lowerBound(price);
+            if (at < size && prices[at] == price) {
+                System.arraycopy(prices, at + 1, prices, at, size - at - 1);
+                size--;
+            }
+        }
+
+        /** Nombre de prix dans [from, to] (bornes incluses). */
+        long countBetween(long from, long to) {
+            if (from > to) return 0;
+            int end = to == Long.MAX_VALUE ? size : lowerBound(to + 1);
+            return end - lowerBound(from);
+        }
+
+        /** Premier indice dont le prix est >= price. */
+        private int lowerBound(long price) {
+            int low = 0, high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (prices[mid] < price) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+    }
+}
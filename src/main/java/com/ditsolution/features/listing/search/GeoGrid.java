@@ -0,0 +1,149 @@
+package com.ditsolution.features.listing.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Grille lat/lng à cellules fixes (équivalent d'un geohash à précision constante).
+ * Une recherche par rayon ne lit que les cellules couvrant la bounding box du cercle,
+ * puis affine chaque candidat par la distance exacte (Haversine).
+ *
+ * Lectures et écritures concurrentes autorisées (cohérence faible, comme ConcurrentHashMap).
+ */
+public class GeoGrid {
+
+    static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE_LAT = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    private final double cellDegrees;
+    private final long lngCells;
+
+    private final Map<Long, Set<UUID>> cells = new ConcurrentHashMap<>();
+    private final Map<UUID, double[]> positions = new ConcurrentHashMap<>();
+
+    public GeoGrid(double cellDegrees) {
+        if (cellDegrees <= 0 || cellDegrees > 90) {
+            throw new IllegalArgumentException("cellDegrees doit être dans ]0, 90]");
+        }
+        this.cellDegrees = cellDegrees;
+        this.lngCells = (long) Math.ceil(360.0 / cellDegrees) + 1;
+    }
+
+    /** Résultat d'une recherche : identifiant et distance exacte au centre. */
+    public record Hit(UUID id, double distanceKm) {}
+
+    public void put(UUID id, double lat, double lng) {
+        double[] previous = positions.put(id, new double[] { lat, lng });
+        long cell = cellOf(lat, lng);
+        if (previous != null) {
+            long previousCell = cellOf(previous[0], previous[1]);
+            if (previousCell == cell) return;
+            removeFromCell(previousCell, id);
+        }
+        cells.compute(cell, (k, ids) -> {
+            if (ids == null) ids = ConcurrentHashMap.newKeySet();
+            ids.add(id);
+            return ids;
+        });
+    }
+
+    public void remove(UUID id) {
+        double[] previous = positions.remove(id);
+        if (previous != null) {
+            removeFromCell(cellOf(previous[0], previous[1]), id);
+        }
+    }
+
+    public boolean contains(UUID id) {
+        return positions.containsKey(id);
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    /**
+     * Tous les points à moins de {@code radiusKm} du centre, triés par distance croissante (puis par id).
+     */
+    public List<Hit> within(double centerLat, double centerLng, double radiusKm) {
+        if (radiusKm < 0) return List.of();
+
+        double dLat = radiusKm / KM_PER_DEGREE_LAT;
+        double cosLat = Math.cos(Math.toRadians(centerLat));
+        double minLat = Math.max(-90, centerLat - dLat);
+        double maxLat = Math.min(90, centerLat + dLat);
+        // Près des pôles ou si la box traverse l'antiméridien : on retombe sur un parcours complet
+        boolean fullScan = cosLat < 1e-6 || maxLat >= 90 || minLat <= -90;
+        double dLng = fullScan ? 180 : radiusKm / (KM_PER_DEGREE_LAT * cosLat);
+        double minLng = centerLng - dLng;
+        double maxLng = centerLng + dLng;
+        fullScan = fullScan || minLng < -180 || maxLng > 180;
+
+        List<Hit> hits = new ArrayList<>();
+        if (!fullScan) {
+            long latFrom = latIndex(minLat), latTo = latIndex(maxLat);
+            long lngFrom = lngIndex(minLng), lngTo = lngIndex(maxLng);
+            long cellCount = (latTo - latFrom + 1) * (lngTo - lngFrom + 1);
+            // Quand la box couvre plus de cellules qu'il n'y a de points, le parcours direct est moins cher
+            if (cellCount <= positions.size()) {
+                for (long la = latFrom; la <= latTo; la++) {
+                    for (long ln = lngFrom; ln <= lngTo; ln++) {
+                        Set<UUID> ids = cells.get(la * lngCells + ln);
+                        if (ids == null) continue;
+                        for (UUID id : ids) {
+                            collect(id, positions.get(id), centerLat, centerLng, radiusKm, hits);
+                        }
+                    }
+                }
+                return sorted(hits);
+            }
+        }
+        positions.forEach((id, p) -> collect(id, p, centerLat, centerLng, radiusKm, hits));
+        return sorted(hits);
+    }
+
+    /** Distance orthodromique en km (formule de Haversine). */
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static void collect(UUID id, double[] p, double lat, double lng, double radiusKm, List<Hit> out) {
+        if (p == null) return; // retiré entre-temps
+        double d = distanceKm(lat, lng, p[0], p[1]);
+        if (d <= radiusKm) out.add(new Hit(id, d));
+    }
+
+    private static List<Hit> sorted(List<Hit> hits) {
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm).thenComparing(Hit::id));
+        return hits;
+    }
+
+    private void removeFromCell(long cell, UUID id) {
+        cells.computeIfPresent(cell, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private long cellOf(double lat, double lng) {
+        return latIndex(lat) * lngCells + lngIndex(lng);
+    }
+
+    private long latIndex(double lat) {
+        return (long) Math.floor((lat + 90) / cellDegrees);
+    }
+
+    private long lngIndex(double lng) {
+        return (long) Math.floor((lng + 180) / cellDegrees);
+    }
+}
@@ -0,0 +1,158 @@
+package com.ditsolution.features.listing.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Plus proches voisins exacts (distance euclidienne) sur des vecteurs de petite dimension.
+ *
+ * Les vecteurs sont rangés bout à bout dans un seul {@code float[]} : une requête est un parcours
+ * séquentiel sans allocation par élément, de l'ordre de la milliseconde pour quelques centaines de
+ * milliers de vecteurs de dimension 10. Une composante {@link #MISSING} (NaN) de l'un des deux vecteurs
+ * coûte une pénalité fixe au lieu d'un écart.
+ */
+public class KnnIndex {
+
+    public static final float MISSING = Float.NaN;
+
+    private final int dims;
+    private final double missingPenalty;
+
+    private float[] vectors;
+    private UUID[] ids;
+    private int size;
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public KnnIndex(int dims, double missingPenalty) {
+        if (dims < 1) throw new IllegalArgumentException("dims doit être ≥ 1");
+        this.dims = dims;
+        this.missingPenalty = missingPenalty;
+        this.vectors = new float[16 * dims];
+        this.ids = new UUID[16];
+    }
+
+    public record Neighbor(UUID id, double distance) {}
+
+    public void put(UUID id, float[] vector) {
+        if (vector.length != dims) throw new IllegalArgumentException("Dimension attendue : " + dims);
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(id);
+            if (slot == null) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                    vectors = Arrays.copyOf(vectors, size * 2 * dims);
+                }
+                slot = size++;
+                ids[slot] = id;
+                slots.put(id, slot);
+            }
+            System.arraycopy(vector, 0, vectors, slot * dims, dims);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.remove(id);
+            if (slot == null) return;
+            // Le dernier vecteur prend la place libérée : le tableau reste compact
+            int last = --size;
+            if (slot != last) {
+                ids[slot] = ids[last];
+                System.arraycopy(vectors, last * dims, vectors, slot * dims, dims);
+                slots.put(ids[slot], slot);
+            }
+            ids[last] = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Copie du vecteur indexé, null si absent. */
+    public float[] vectorOf(UUID id) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slots.get(id);
+            return slot == null ? null : Arrays.copyOfRange(vectors, slot * dims, slot * dims + dims);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Les {@code k} vecteurs les plus proches de {@code query}, du plus proche au plus lointain
+     * (à distance égale, par id), {@code exclude} exclu.
+     */
+    public List<Neighbor> nearest(float[] query, int k, UUID exclude) {
+        if (k < 1) return List.of();
+        // Top-k trié par insertion dans des tableaux primitifs (k petit)
+        double[] bestDist = new double[k];
+        int[] bestSlot = new int[k];
+        int found = 0;
+
+        lock.readLock().lock();
+        try {
+            for (int s = 0; s < size; s++) {
+                if (exclude != null && exclude.equals(ids[s])) continue;
+                double d = squaredDistance(query, s * dims, found == k ? bestDist[k - 1] : Double.MAX_VALUE);
+                if (found == k && !closer(d, ids[s], bestDist[k - 1], ids[bestSlot[k - 1]])) continue;
+
+                int at = found < k ? found++ : k - 1;
+                while (at > 0 && closer(d, ids[s], bestDist[at - 1], ids[bestSlot[at - 1]])) {
+                    bestDist[at] = bestDist[at - 1];
+                    bestSlot[at] = bestSlot[at - 1];
+                    at--;
+                }
+                bestDist[at] = d;
+                bestSlot[at] = s;
+            }
+
+            List<Neighbor> out = new ArrayList<>(found);
+            for (int i = 0; i < found; i++) {
+                out.add(new Neighbor(ids[bestSlot[i]], Math.sqrt(bestDist[i])));
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Distance au carré, abandonnée dès qu'elle dépasse {@code bound}. */
+    private double squaredDistance(float[] query, int offset, double bound) {
+        double sum = 0;
+        for (int d = 0; d < dims; d++) {
+            float a = query[d], b = vectors[offset + d];
+            if (Float.isNaN(a) || Float.isNaN(b)) {
+                sum += missingPenalty;
+            } else {
+                double diff = a - b;
+                sum += diff * diff;
+            }
+            if (sum > bound) return sum;
+        }
+        return sum;
+    }
+
+    private static boolean closer(double d, UUID id, double otherD, UUID otherId) {
+        return d < otherD || (d == otherD && id.compareTo(otherId) < 0);
+    }
+}
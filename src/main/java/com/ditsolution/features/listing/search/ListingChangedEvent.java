@@ -0,0 +1,21 @@
+package com.ditsolution.features.listing.search;
+
+/**
+ * Émis à chaque changement d'une annonce (création, modification, publication, archivage, suppression, modération).
+ * Les index en mémoire l'observent en {@code TransactionPhase.AFTER_SUCCESS} pour ne jamais refléter un rollback.
+ *
+ * {@code previous} est l'état lu avant la modification (null à la création) : il permet aux index
+ * incrémentaux de retirer l'ancienne contribution (ancienne ville, ancien prix, ancien statut).
+ */
+public record ListingChangedEvent(ListingSnapshot previous, ListingSnapshot listing) {
+
+    /** Vrai si l'annonce était ou est désormais visible publiquement. */
+    public boolean affectsPublicCatalogue() {
+        return (previous != null && previous.isPublished()) || listing.isPublished();
+    }
+
+    /** Vrai si l'annonce devient visible publiquement avec ce changement (publication, validation). */
+    public boolean becamePublished() {
+        return listing.isPublished() && (previous == null || !previous.isPublished());
+    }
+}
@@ -0,0 +1,121 @@
+package com.ditsolution.features.listing.search;
+
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.ditsolution.features.listing.dto.FiltersDto;
+import com.ditsolution.features.listing.dto.PageRequestDto;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Moteur de recherche optionnel ({@code app.search.columnar.enabled}) : GET /listings filtre et trie
+ * sur un {@link ColumnarCatalogue} en mémoire, la base ne sert plus qu'à hydrater la page.
+ *
+ * Copy-on-write : une modification d'annonce ne touche que les lignes et marque l'index sale ;
+ * {@link #refresh()} reconstruit les colonnes hors du verrou au plus une fois par
+ * {@code app.search.columnar.refresh-every} et les publie d'un bloc. Les lecteurs gardent la version
+ * qu'ils ont lue, sans verrou, et peuvent voir un catalogue en retard d'un intervalle.
+ * La recherche plein texte reste en base.
+ */
+@ApplicationScoped
+public class ListingColumnarIndex implements CatalogueIndex {
+
+    @ConfigProperty(name = "app.search.columnar.enabled", defaultValue = "false")
+    boolean enabled;
+
+    // Lignes courantes (modifiées sous le verrou de l'indexeur) et colonnes publiées ; null tant que non chargé
+    private Map<UUID, ListingSnapshot> rows;
+    private volatile ColumnarCatalogue columns;
+    // Sous this : lignes modifiées depuis la dernière publication, nombre de rechargements complets
+    private boolean dirty;
+    private long generation;
+
+    @Override
+    public String name() {
+        return "columnar";
+    }
+
+    @Override
+    public Rebuild beginRebuild() {
+        Map<UUID, ListingSnapshot> fresh = new HashMap<>();
+        return new Rebuild() {
+            @Override
+            public void apply(ListingSnapshot listing) {
+                if (enabled) put(fresh, listing);
+            }
+
+            @Override
+            public void install() {
+                if (!enabled) return;
+                ColumnarCatalogue built = ColumnarCatalogue.of(fresh.values());
+                synchronized (ListingColumnarIndex.this) {
+                    rows = fresh;
+                    columns = built;
+                    dirty = false;
+                    generation++;
+                }
+            }
+        };
+    }
+
+    @Override
+    public synchronized void apply(ListingSnapshot listing) {
+        if (rows == null) return;
+        put(rows, listing);
+        dirty = true;
+    }
+
+    /** Republie les colonnes si des annonces ont changé ; une rafale de modifications coûte une seule reconstruction. */
+    @Scheduled(every = "${app.search.columnar.refresh-every:1s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void refresh() {
+        List<ListingSnapshot> current;
+        long seen;
+        synchronized (this) {
+            if (!dirty) return;
+            dirty = false;
+            seen = generation;
+            current = new ArrayList<>(rows.values());
+        }
+        ColumnarCatalogue built = ColumnarCatalogue.of(current);
+        synchronized (this) {
+            // Un rechargement complet publié entre-temps est plus récent que cette copie
+            if (generation == seen) columns = built;
+        }
+    }
+
+    /**
+     * Page d'ids et total pour des filtres normalisés, ou vide si le moteur est désactivé, pas encore chargé
+     * ou si la requête doit aller en base (recherche plein texte).
+     */
+    public Optional<ListingSearchCache.CachedPage> search(FiltersDto f, ListingSort sort, PageRequestDto page) {
+        ColumnarCatalogue current = columns;
+        if (current == null || f.q() != null) return Optional.empty();
+        var query = new ColumnarCatalogue.Query(
+                f.city(), f.district(), f.type(),
+                f.minPrice() != null ? SearchKeys.cents(f.minPrice(), RoundingMode.CEILING) : null,
+                f.maxPrice() != null ? SearchKeys.cents(f.maxPrice(), RoundingMode.FLOOR) : null,
+                f.minRooms(), f.maxRooms(),
+                f.hasRadius() ? f.latitude().doubleValue() : null,
+                f.hasRadius() ? f.longitude().doubleValue() : null,
+                f.hasRadius() ? f.radiusKm() : null);
+        var result = current.search(query, sort, page.page() * page.size(), page.size());
+        return Optional.of(new ListingSearchCache.CachedPage(result.ids(), result.total()));
+    }
+
+    private static void put(Map<UUID, ListingSnapshot> target, ListingSnapshot s) {
+        if (s.isPublished() && s.price() != null) {
+            target.put(s.id(), s);
+        } else {
+            target.remove(s.id());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ditsolution.features.listing.search;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+import com.ditsolution.common.utils.HttpErrors;
+
+/**
+ * Position dans la liste publique triée par date ou par prix (voir {@link ListingSort}), départagée par id.
+ * Sérialisée en jeton opaque base64url pour le paramètre {@code after} de GET /listings.
+ * Les jetons émis avant le tri par prix ("createdAt|id") restent lisibles ({@code price} null).
+ */
+public record ListingCursor(Instant createdAt, BigDecimal price, UUID id) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id + (price == null ? "" : SEPARATOR + price.toPlainString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ListingCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length < 2 || parts.length > 3) throw new IllegalArgumentException(raw);
+            return new ListingCursor(Instant.parse(parts[0]),
+                    parts.length == 3 ? new BigDecimal(parts[2]) : null,
+                    UUID.fromString(parts[1]));
+        } catch (RuntimeException e) {
+            throw HttpErrors.badRequest("INVALID_CURSOR", "Curseur de pagination invalide");
+        }
+    }
+}
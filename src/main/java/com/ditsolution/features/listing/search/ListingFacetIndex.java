@@ -0,0 +1,145 @@
+package com.ditsolution.features.listing.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.ditsolution.features.listing.dto.FiltersDto;
+import com.ditsolution.features.listing.dto.ListingFacetsDto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Facettes du catalogue public (ville, quartier, type, pièces, tranches de prix) servies depuis un
+ * {@link FacetIndex} en mémoire plutôt que par des GROUP BY à chaque requête.
+ */
+@ApplicationScoped
+public class ListingFacetIndex implements CatalogueIndex {
+
+    @ConfigProperty(name = "app.search.facets.price-buckets",
+            defaultValue = "50000,100000,250000,500000,1000000,10000000,50000000,100000000")
+    List<BigDecimal> priceBounds;
+
+    @ConfigProperty(name = "app.search.facets.max-values", defaultValue = "50")
+    int maxValues;
+
+    private long[] bucketBounds;
+
+    // null tant que le premier chargement n'est pas terminé
+    private volatile FacetIndex index;
+
+    // Libellé d'affichage (dernière casse vue) par valeur normalisée
+    private final Map<String, String> labels = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        bucketBounds = priceBounds.stream().sorted().mapToLong(ListingFacetIndex::toCents).toArray();
+    }
+
+    @Override
+    public String name() {
+        return "facets";
+    }
+
+    @Override
+    public Rebuild beginRebuild() {
+        var fresh = new FacetIndex(bucketBounds);
+        return new Rebuild() {
+            @Override
+            public void apply(ListingSnapshot listing) {
+                ListingFacetIndex.this.apply(fresh, listing);
+            }
+
+            @Override
+            public void install() {
+                index = fresh;
+            }
+        };
+    }
+
+    @Override
+    public void apply(ListingSnapshot listing) {
+        FacetIndex current = index;
+        if (current != null) apply(current, listing);
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * Facettes pour des filtres déjà normalisés ({@link ListingSearchCache#normalize}).
+     * Vide tant que l'index n'est pas chargé.
+     */
+    public Optional<ListingFacetsDto> facets(FiltersDto f) {
+        FacetIndex current = index;
+        if (current == null) return Optional.empty();
+
+        var counts = current.count(new FacetIndex.Query(
+                f.city(), f.district(), f.type(),
+                f.minPrice() != null ? SearchKeys.cents(f.minPrice(), RoundingMode.CEILING) : null,
+                f.maxPrice() != null ? SearchKeys.cents(f.maxPrice(), RoundingMode.FLOOR) : null));
+
+        List<ListingFacetsDto.PriceBucket> prices = new ArrayList<>();
+        long[] buckets = counts.priceBuckets();
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] == 0) continue;
+            prices.add(new ListingFacetsDto.PriceBucket(
+                    i == 0 ? null : fromCents(bucketBounds[i - 1]),
+                    i == bucketBounds.length ? null : fromCents(bucketBounds[i]),
+                    buckets[i]));
+        }
+
+        return Optional.of(new ListingFacetsDto(
+                counts.total(),
+                top(counts.cities(), labels::get),
+                top(counts.districts(), labels::get),
+                top(counts.types(), Enum::name),
+                top(counts.rooms(), String::valueOf),
+                prices));
+    }
+
+    private <K> List<ListingFacetsDto.Value> top(Map<K, Long> counts, Function<K, String> label) {
+        return counts.entrySet().stream()
+                .map(e -> new ListingFacetsDto.Value(
+                        Optional.ofNullable(label.apply(e.getKey())).orElse(String.valueOf(e.getKey())),
+                        e.getValue()))
+                .sorted(Comparator.comparingLong(ListingFacetsDto.Value::count).reversed()
+                        .thenComparing(ListingFacetsDto.Value::value))
+                .limit(maxValues)
+                .toList();
+    }
+
+    private void apply(FacetIndex target, ListingSnapshot s) {
+        if (!s.isPublished() || s.price() == null) {
+            target.remove(s.id());
+            return;
+        }
+        String city = normalize(s.city());
+        String district = normalize(s.district());
+        target.put(s.id(), city, district, s.type(), s.rooms(), toCents(s.price()));
+    }
+
+    private String normalize(String raw) {
+        String key = SearchKeys.normalize(raw);
+        if (key != null) labels.put(key, raw.trim());
+        return key;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return SearchKeys.cents(amount, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2).stripTrailingZeros();
+    }
+}
@@ -0,0 +1,68 @@
+package com.ditsolution.features.listing.search;
+
+import java.util.List;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Index géographique en mémoire des annonces PUBLISHED géolocalisées.
+ */
+@ApplicationScoped
+public class ListingGeoIndex implements CatalogueIndex {
+
+    @ConfigProperty(name = "app.search.geo-index.cell-degrees", defaultValue = "0.05")
+    double cellDegrees;
+
+    // null tant que le premier chargement n'est pas terminé
+    private volatile GeoGrid grid;
+
+    @Override
+    public String name() {
+        return "geo";
+    }
+
+    @Override
+    public Rebuild beginRebuild() {
+        GeoGrid fresh = new GeoGrid(cellDegrees);
+        return new Rebuild() {
+            @Override
+            public void apply(ListingSnapshot listing) {
+                ListingGeoIndex.apply(fresh, listing);
+            }
+
+            @Override
+            public void install() {
+                grid = fresh;
+            }
+        };
+    }
+
+    @Override
+    public void apply(ListingSnapshot listing) {
+        GeoGrid current = grid;
+        if (current != null) apply(current, listing);
+    }
+
+    public boolean isReady() {
+        return grid != null;
+    }
+
+    /**
+     * Annonces publiées dans le rayon, triées par distance croissante.
+     */
+    public List<GeoGrid.Hit> within(double lat, double lng, double radiusKm) {
+        GeoGrid current = grid;
+        if (current == null) throw new IllegalStateException("Index géographique non chargé");
+        return current.within(lat, lng, radiusKm);
+    }
+
+    private static void apply(GeoGrid target, ListingSnapshot s) {
+        if (s.isPublished() && s.hasLocation()) {
+            target.put(s.id(), s.latitude().doubleValue(), s.longitude().doubleValue());
+        } else {
+            target.remove(s.id());
+        }
+    }
+}
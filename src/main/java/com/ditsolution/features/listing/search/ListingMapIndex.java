@@ -0,0 +1,90 @@
+package com.ditsolution.features.listing.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.ditsolution.features.listing.dto.ListingMapDto;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Groupes d'annonces publiées pour la carte, servis depuis un {@link MapClusterIndex} en mémoire.
+ */
+@ApplicationScoped
+public class ListingMapIndex implements CatalogueIndex {
+
+    @ConfigProperty(name = "app.search.map.pin-threshold", defaultValue = "5")
+    int pinThreshold;
+
+    @ConfigProperty(name = "app.search.map.max-cells", defaultValue = "4096")
+    long maxCells;
+
+    // null tant que le premier chargement n'est pas terminé
+    private volatile MapClusterIndex index;
+
+    @Override
+    public String name() {
+        return "map";
+    }
+
+    @Override
+    public Rebuild beginRebuild() {
+        MapClusterIndex fresh = new MapClusterIndex();
+        return new Rebuild() {
+            @Override
+            public void apply(ListingSnapshot listing) {
+                ListingMapIndex.apply(fresh, listing);
+            }
+
+            @Override
+            public void install() {
+                index = fresh;
+            }
+        };
+    }
+
+    @Override
+    public void apply(ListingSnapshot listing) {
+        MapClusterIndex current = index;
+        if (current != null) apply(current, listing);
+    }
+
+    /**
+     * Groupes de l'emprise au zoom demandé ; vide tant que l'index n'est pas chargé.
+     *
+     * @throws MapClusterIndex.TooManyCellsException si l'emprise est trop large pour ce zoom
+     */
+    public Optional<ListingMapDto> map(MapClusterIndex.BBox box, int zoom) {
+        MapClusterIndex current = index;
+        if (current == null) return Optional.empty();
+
+        List<ListingMapDto.Cluster> clusters = new ArrayList<>();
+        List<ListingMapDto.Pin> pins = new ArrayList<>();
+        for (var c : current.clusters(box, zoom, pinThreshold, maxCells)) {
+            if (c.points().isEmpty()) {
+                clusters.add(new ListingMapDto.Cluster(c.lat(), c.lng(), c.count(), fromCents(c.minPrice()), fromCents(c.maxPrice())));
+            } else {
+                for (var p : c.points()) pins.add(new ListingMapDto.Pin(p.id(), p.lat(), p.lng(), fromCents(p.price())));
+            }
+        }
+        return Optional.of(new ListingMapDto(zoom, clusters, pins));
+    }
+
+    private static void apply(MapClusterIndex target, ListingSnapshot s) {
+        if (s.isPublished() && s.hasLocation() && s.price() != null) {
+            target.put(s.id(), s.latitude().doubleValue(), s.longitude().doubleValue(),
+                    SearchKeys.cents(s.price(), RoundingMode.HALF_UP));
+        } else {
+            target.remove(s.id());
+        }
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2).stripTrailingZeros();
+    }
+}
@@ -0,0 +1,207 @@
+package com.ditsolution.features.listing.search;
+
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.jboss.logging.Logger;
+
+import com.ditsolution.features.listing.enums.ListingType;
+import com.ditsolution.features.listing.repository.ListingPriceStatsRepository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.transaction.Transactional;
+
+/**
+ * Statistiques de prix du catalogue public (médiane, p25, p75) par segment ville / quartier / type / pièces,
+ * tenues par des {@link PriceSketch} mis à jour à chaque publication, modification ou retrait d'annonce.
+ *
+ * Chaque annonce mémorise son segment et son prix : une modification retire l'ancienne contribution
+ * avant d'ajouter la nouvelle. Une requête fusionne les sketches des segments concernés (une ville
+ * en compte quelques dizaines), sans jamais trier de prix.
+ *
+ * Les sketches sont écrits en base périodiquement et relus au démarrage, avant la première
+ * reconstruction : les statistiques sont servies dès le démarrage et survivent à une reconstruction
+ * en échec. Cet état restauré est en lecture seule (sans les contributions par annonce) jusqu'à la
+ * première reconstruction.
+ */
+@ApplicationScoped
+public class ListingPriceIndex implements CatalogueIndex {
+
+    private static final Logger LOG = Logger.getLogger(ListingPriceIndex.class);
+
+    /** Segment le plus fin : ville et quartier normalisés ({@link SearchKeys#normalize}), pièces null si non renseignées. */
+    public record Segment(String city, String district, ListingType type, Integer rooms) {}
+
+    /** Quantiles en centimes d'un ensemble d'annonces ({@code count} = 0 : quantiles à 0). */
+    public record Stats(long count, long p25, long median, long p75) {}
+
+    private record Placement(Segment segment, long cents) {}
+
+    private static final class State {
+        // Ville -> segments de la ville
+        final Map<String, Map<Segment, PriceSketch>> sketches = new HashMap<>();
+        // null : état restauré depuis la base, non modifiable
+        final Map<UUID, Placement> placements;
+
+        State(boolean live) {
+            placements = live ? new HashMap<>() : null;
+        }
+    }
+
+    @Inject
+    ListingPriceStatsRepository statsRepo;
+
+    // Protégés par this ; state null tant que rien n'est restauré ni reconstruit
+    private State state;
+    private boolean dirty;
+
+    @Override
+    public String name() {
+        return "price";
+    }
+
+    @Override
+    public Rebuild beginRebuild() {
+        State fresh = new State(true);
+        return new Rebuild() {
+            @Override
+            public void apply(ListingSnapshot listing) {
+                ListingPriceIndex.apply(fresh, listing);
+            }
+
+            @Override
+            public void install() {
+                synchronized (ListingPriceIndex.this) {
+                    state = fresh;
+                    dirty = true;
+                }
+            }
+        };
+    }
+
+    @Override
+    public synchronized void apply(ListingSnapshot listing) {
+        if (state == null || state.placements == null) return;
+        if (apply(state, listing)) dirty = true;
+    }
+
+    /**
+     * Statistiques des annonces publiées de {@code city}, restreintes aux critères non null ; vide tant que
+     * l'index n'est pas chargé.
+     */
+    public synchronized Optional<Stats> stats(String city, String district, ListingType type, Integer rooms) {
+        if (state == null) return Optional.empty();
+        String cityKey = SearchKeys.normalize(city);
+        String districtKey = SearchKeys.normalize(district);
+        PriceSketch merged = new PriceSketch();
+        state.sketches.getOrDefault(cityKey, Map.of()).forEach((segment, sketch) -> {
+            if (districtKey != null && !districtKey.equals(segment.district())) return;
+            if (type != null && type != segment.type()) return;
+            if (rooms != null && !rooms.equals(segment.rooms())) return;
+            merged.merge(sketch);
+        });
+        return Optional.of(stats(merged));
+    }
+
+    // ------- persistance -------
+
+    @Transactional
+    void onStart(@Observes @Priority(Interceptor.Priority.APPLICATION) StartupEvent ev) {
+        try {
+            State restored = new State(false);
+            for (var row : statsRepo.findAll()) {
+                var segment = new Segment(row.city(), row.district(), row.type(), row.rooms());
+                restored.sketches.computeIfAbsent(row.city(), k -> new HashMap<>())
+                        .put(segment, PriceSketch.fromBytes(row.sketch()));
+            }
+            synchronized (this) {
+                if (state == null) state = restored;
+            }
+            LOG.info("Statistiques de prix restaurées - " + restored.sketches.size() + " villes");
+        } catch (Exception e) {
+            LOG.warn("Restauration des statistiques de prix impossible, attente de la reconstruction", e);
+        }
+    }
+
+    @Scheduled(every = "${app.listing.price-stats.persist-every:10m}", delayed = "${app.listing.price-stats.persist-every:10m}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledPersist() {
+        persist();
+    }
+
+    void onStop(@Observes ShutdownEvent ev) {
+        persist();
+    }
+
+    /** Réécrit les sketches en base s'ils ont changé depuis la dernière écriture. */
+    void persist() {
+        List<ListingPriceStatsRepository.Row> rows = new ArrayList<>();
+        synchronized (this) {
+            if (!dirty || state == null || state.placements == null) return;
+            state.sketches.values().forEach(segments -> segments.forEach((segment, sketch) -> {
+                Stats s = stats(sketch);
+                rows.add(new ListingPriceStatsRepository.Row(segment.city(), segment.district(), segment.type(),
+                        segment.rooms(), s.count(), s.p25(), s.median(), s.p75(), sketch.toBytes()));
+            }));
+            dirty = false;
+        }
+        try {
+            QuarkusTransaction.requiringNew().run(() -> statsRepo.replaceAll(rows));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                dirty = true;
+            }
+            LOG.warn("Écriture des statistiques de prix échouée, nouvel essai au prochain passage", e);
+        }
+    }
+
+    // ------- mise à jour -------
+
+    // Appelé sous le verrou de l'indexeur (et de l'index une fois installé)
+    private static boolean apply(State target, ListingSnapshot s) {
+        Placement next = placement(s);
+        Placement previous = next == null ? target.placements.remove(s.id()) : target.placements.put(s.id(), next);
+        if (next != null && next.equals(previous)) return false;
+        if (previous != null) {
+            var segments = target.sketches.get(previous.segment().city());
+            PriceSketch sketch = segments.get(previous.segment());
+            sketch.remove(previous.cents());
+            if (sketch.isEmpty()) {
+                segments.remove(previous.segment());
+                if (segments.isEmpty()) target.sketches.remove(previous.segment().city());
+            }
+        }
+        if (next != null) {
+            target.sketches.computeIfAbsent(next.segment().city(), k -> new HashMap<>())
+                    .computeIfAbsent(next.segment(), k -> new PriceSketch())
+                    .add(next.cents());
+        }
+        return previous != null || next != null;
+    }
+
+    private static Placement placement(ListingSnapshot s) {
+        if (!s.isPublished() || s.price() == null || s.type() == null || s.price().signum() < 0) return null;
+        String city = SearchKeys.normalize(s.city());
+        if (city == null) return null;
+        var segment = new Segment(city, SearchKeys.normalize(s.district()), s.type(), s.rooms());
+        return new Placement(segment, SearchKeys.cents(s.price(), RoundingMode.HALF_UP));
+    }
+
+    private static Stats stats(PriceSketch sketch) {
+        if (sketch.isEmpty()) return new Stats(0, 0, 0, 0);
+        return new Stats(sketch.count(), sketch.quantile(0.25), sketch.quantile(0.5), sketch.quantile(0.75));
+    }
+}
@@ -0,0 +1,92 @@
+package com.ditsolution.features.listing.search;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.ditsolution.common.cache.BoundedCache;
+import com.ditsolution.features.listing.dto.FiltersDto;
+import com.ditsolution.features.listing.dto.PageRequestDto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Cache des pages de résultats de GET /listings (ids + total), indexé par les filtres normalisés.
+ * La version du catalogue fait partie de la clé : un changement visible rend les anciennes entrées
+ * inatteignables sans les parcourir, elles disparaissent ensuite par TTL/taille.
+ */
+@ApplicationScoped
+public class ListingSearchCache {
+
+    @Inject
+    CatalogueVersion catalogueVersion;
+
+    @ConfigProperty(name = "app.search.result-cache.max-size", defaultValue = "2000")
+    int maxSize;
+
+    @ConfigProperty(name = "app.search.result-cache.ttl", defaultValue = "2m")
+    Duration ttl;
+
+    private BoundedCache<Key, CachedPage> cache;
+
+    /** Ids de la page dans l'ordre de la requête et total du filtre. */
+    public record CachedPage(List<UUID> ids, long total) {}
+
+    private record Key(FiltersDto filters, ListingSort sort, int page, int size, long version) {}
+
+    @PostConstruct
+    void init() {
+        cache = new BoundedCache<>(maxSize, ttl);
+    }
+
+    /**
+     * {@code filters} doit déjà être normalisé ({@link #normalize}) pour que clé et requête coïncident ;
+     * {@code sort} est le tri effectif (null : pertinence de la recherche plein texte).
+     */
+    public CachedPage get(FiltersDto filters, ListingSort sort, PageRequestDto page, Supplier<CachedPage> loader) {
+        // Version lue avant le chargement : un commit concurrent fera changer la clé des lecteurs suivants
+        long version = filters.city() != null ? catalogueVersion.city(filters.city()) : catalogueVersion.global();
+        var key = new Key(filters, sort, page.page(), page.size(), version);
+        return cache.get(key, k -> loader.get());
+    }
+
+    public BoundedCache.Stats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Forme canonique des filtres : ville/quartier trimés en minuscules (null si vides),
+     * prix sans zéros non significatifs (100, 100.0 et 100.00 donnent la même clé),
+     * texte recherché en minuscules avec espaces réduits, centre du rayon sans zéros non significatifs.
+     */
+    public static FiltersDto normalize(FiltersDto f) {
+        return new FiltersDto(
+                lowerOrNull(f.city()),
+                lowerOrNull(f.district()),
+                f.type(),
+                canonical(f.minPrice()),
+                canonical(f.maxPrice()),
+                f.q() == null ? null : lowerOrNull(f.q().replaceAll("\\s+", " ")),
+                f.minRooms(),
+                f.maxRooms(),
+                canonical(f.latitude()),
+                canonical(f.longitude()),
+                f.radiusKm());
+    }
+
+    private static String lowerOrNull(String s) {
+        return s == null || s.isBlank() ? null : s.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static BigDecimal canonical(BigDecimal d) {
+        if (d == null) return null;
+        return d.signum() == 0 ? BigDecimal.ZERO : d.stripTrailingZeros();
+    }
+}
@@ -0,0 +1,157 @@
+package com.ditsolution.features.listing.search;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.ditsolution.features.listing.dto.FiltersDto;
+import com.ditsolution.features.listing.enums.ListingStatus;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Clause where unique de la recherche publique : tous les filtres structurés, plus le rayon s'il est fourni.
+ *
+ * Pour le rayon, le chemin d'accès est choisi selon sa sélectivité, connue exactement grâce à l'index
+ * géographique en mémoire :
+ * <ul>
+ *   <li>aucune annonce dans le rayon : résultat vide sans requête ;</li>
+ *   <li>peu d'annonces : {@code id IN (...)} (distance déjà exacte), la base n'applique que les autres filtres ;</li>
+ *   <li>sinon (ou index pas encore chargé) : bounding box sur latitude/longitude (idx_listings_location),
+ *       affinée par la distance exacte, combinée aux autres filtres (la base choisit l'index le plus sélectif).</li>
+ * </ul>
+ * Produite en HQL (ListingEntity) ou en SQL natif (table listings aliasée, recherche plein texte).
+ */
+@ApplicationScoped
+public class ListingSearchPlanner {
+
+    private static final Logger LOG = Logger.getLogger(ListingSearchPlanner.class);
+
+    private static final double KM_PER_DEGREE_LAT = Math.PI * GeoGrid.EARTH_RADIUS_KM / 180.0;
+
+    @Inject
+    ListingGeoIndex geoIndex;
+
+    @ConfigProperty(name = "app.search.planner.max-geo-ids", defaultValue = "1000")
+    int maxGeoIds;
+
+    public enum AccessPath { FILTERS, GEO_INDEX, BOUNDING_BOX, EMPTY }
+
+    /** {@code where} ne contient ni ORDER BY ni le mot-clé WHERE. */
+    public record Plan(AccessPath path, String where, Map<String, Object> params) {
+        public boolean isEmpty() {
+            return path == AccessPath.EMPTY;
+        }
+    }
+
+    /** Noms de colonnes et forme des paramètres propres au langage de requête. */
+    public enum Dialect {
+        HQL(""),
+        SQL("l.");
+
+        private final String prefix;
+
+        Dialect(String prefix) {
+            this.prefix = prefix;
+        }
+
+        String column(String hqlName, String sqlName) {
+            return this == HQL ? hqlName : prefix + sqlName;
+        }
+    }
+
+    public Plan plan(FiltersDto f, Dialect dialect) {
+        var where = new StringBuilder();
+        var params = new HashMap<String, Object>();
+
+        // Annonces publiées seulement (soft delete caché)
+        if (dialect == Dialect.HQL) {
+            where.append("status = :status");
+            params.put("status", ListingStatus.PUBLISHED);
+        } else {
+            where.append("l.status = :status");
+            params.put("status", ListingStatus.PUBLISHED.name());
+        }
+
+        if (!isBlank(f.city())) {
+            where.append(" AND LOWER(").append(dialect.column("city", "city")).append(") = :city");
+            params.put("city", f.city().toLowerCase());
+        }
+        if (!isBlank(f.district())) {
+            where.append(" AND LOWER(").append(dialect.column("district", "district")).append(") = :district");
+            params.put("district", f.district().toLowerCase());
+        }
+        if (f.type() != null) {
+            if (dialect == Dialect.HQL) {
+                where.append(" AND type = :type");
+                params.put("type", f.type());
+            } else {
+                where.append(" AND CAST(l.type AS text) = :type");
+                params.put("type", f.type().name());
+            }
+        }
+        range(where, params, dialect.column("price", "price"), "Price", f.minPrice(), f.maxPrice());
+        range(where, params, dialect.column("rooms", "rooms"), "Rooms", f.minRooms(), f.maxRooms());
+
+        if (!f.hasRadius()) return new Plan(AccessPath.FILTERS, where.toString(), params);
+
+        double lat = f.latitude().doubleValue();
+        double lng = f.longitude().doubleValue();
+        double radiusKm = f.radiusKm();
+
+        if (geoIndex.isReady()) {
+            List<GeoGrid.Hit> hits = geoIndex.within(lat, lng, radiusKm);
+            if (hits.isEmpty()) return new Plan(AccessPath.EMPTY, where.toString(), params);
+            if (hits.size() <= maxGeoIds) {
+                where.append(" AND ").append(dialect.column("id", "id")).append(" IN (:geoIds)");
+                params.put("geoIds", hits.stream().map(GeoGrid.Hit::id).toList());
+                return new Plan(AccessPath.GEO_INDEX, where.toString(), params);
+            }
+            LOG.debugf("Rayon %.1f km : %d annonces, bounding box en base", radiusKm, hits.size());
+        }
+
+        String latColumn = dialect.column("latitude", "latitude");
+        String lngColumn = dialect.column("longitude", "longitude");
+        double dLat = radiusKm / KM_PER_DEGREE_LAT;
+        where.append(" AND ").append(latColumn).append(" BETWEEN :minLat AND :maxLat");
+        params.put("minLat", Math.max(-90, lat - dLat));
+        params.put("maxLat", Math.min(90, lat + dLat));
+
+        // Près des pôles ou à cheval sur l'antiméridien, pas de borne de longitude (la distance exacte suffit)
+        double cosLat = Math.cos(Math.toRadians(lat));
+        double dLng = cosLat < 1e-6 ? 360 : dLat / cosLat;
+        if (lat + dLat < 90 && lat - dLat > -90 && lng - dLng >= -180 && lng + dLng <= 180) {
+            where.append(" AND ").append(lngColumn).append(" BETWEEN :minLng AND :maxLng");
+            params.put("minLng", lng - dLng);
+            params.put("maxLng", lng + dLng);
+        } else {
+            where.append(" AND ").append(lngColumn).append(" IS NOT NULL");
+        }
+
+        where.append(" AND ").append(ListingSort.distanceKm(latColumn, lngColumn, ":originLat", ":originLng"))
+                .append(" <= :radiusKm");
+        params.put("originLat", lat);
+        params.put("originLng", lng);
+        params.put("radiusKm", radiusKm);
+        return new Plan(AccessPath.BOUNDING_BOX, where.toString(), params);
+    }
+
+    private static void range(StringBuilder where, Map<String, Object> params, String column, String name, Object min, Object max) {
+        if (min != null) {
+            where.append(" AND ").append(column).append(" >= :min").append(name);
+            params.put("min" + name, min);
+        }
+        if (max != null) {
+            where.append(" AND ").append(column).append(" <= :max").append(name);
+            params.put("max" + name, max);
+        }
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+}
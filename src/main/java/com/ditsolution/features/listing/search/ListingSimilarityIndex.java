@@ -0,0 +1,115 @@
+package com.ditsolution.features.listing.search;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.ditsolution.features.listing.enums.ListingType;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Annonces similaires : chaque annonce publiée est encodée en un vecteur pondéré
+ * (type, prix, pièces, étage, position, équipements) et servie par un {@link KnnIndex} en mémoire.
+ *
+ * Les poids sont choisis pour qu'une unité de distance corresponde à peu près à
+ * "un écart qui se remarque" : un type différent (location/vente) pèse plus que tout le reste,
+ * un prix double ~0,6, une pièce d'écart 0,3, 10 km d'écart 1.
+ */
+@ApplicationScoped
+public class ListingSimilarityIndex implements CatalogueIndex {
+
+    static final int DIMS = 10;
+
+    private static final double KM_PER_DEGREE = 111.2;
+
+    @ConfigProperty(name = "app.search.similar.location-scale-km", defaultValue = "10")
+    double locationScaleKm;
+
+    // null tant que le premier chargement n'est pas terminé
+    private volatile KnnIndex index;
+
+    @Override
+    public String name() {
+        return "similar";
+    }
+
+    @Override
+    public Rebuild beginRebuild() {
+        KnnIndex fresh = newIndex();
+        return new Rebuild() {
+            @Override
+            public void apply(ListingSnapshot listing) {
+                ListingSimilarityIndex.this.apply(fresh, listing);
+            }
+
+            @Override
+            public void install() {
+                index = fresh;
+            }
+        };
+    }
+
+    @Override
+    public void apply(ListingSnapshot listing) {
+        KnnIndex current = index;
+        if (current != null) apply(current, listing);
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * Ids des {@code k} annonces publiées les plus proches de {@code listingId}, la plus proche d'abord.
+     * Vide si l'annonce n'est pas indexée (non publiée).
+     */
+    public Optional<List<UUID>> similarTo(UUID listingId, int k) {
+        KnnIndex current = index;
+        if (current == null) throw new IllegalStateException("Index de similarité non chargé");
+        float[] query = current.vectorOf(listingId);
+        if (query == null) return Optional.empty();
+        return Optional.of(current.nearest(query, k, listingId).stream().map(KnnIndex.Neighbor::id).toList());
+    }
+
+    private KnnIndex newIndex() {
+        // Donnée manquante : pénalité d'une unité (ni voisin parfait, ni écarté)
+        return new KnnIndex(DIMS, 1.0);
+    }
+
+    private void apply(KnnIndex target, ListingSnapshot s) {
+        if (s.isPublished() && s.price() != null && s.price().signum() > 0) {
+            target.put(s.id(), encode(s));
+        } else {
+            target.remove(s.id());
+        }
+    }
+
+    float[] encode(ListingSnapshot s) {
+        float[] v = new float[DIMS];
+        v[0] = s.type() == null ? KnnIndex.MISSING : (s.type() == ListingType.SALE ? 3f : 0f);
+        v[1] = (float) (2.0 * Math.log10(s.price().doubleValue()));
+        v[2] = s.rooms() == null ? KnnIndex.MISSING : 0.3f * s.rooms();
+        v[3] = s.floor() == null ? KnnIndex.MISSING : 0.1f * Math.min(s.floor(), 30);
+        if (s.hasLocation()) {
+            double lat = s.latitude().doubleValue();
+            double lng = s.longitude().doubleValue();
+            v[4] = (float) (lat * KM_PER_DEGREE / locationScaleKm);
+            v[5] = (float) (lng * KM_PER_DEGREE * Math.cos(Math.toRadians(lat)) / locationScaleKm);
+        } else {
+            v[4] = KnnIndex.MISSING;
+            v[5] = KnnIndex.MISSING;
+        }
+        v[6] = amenity(s.hasElevator());
+        v[7] = amenity(s.hasParking());
+        v[8] = amenity(s.hasBalcony());
+        v[9] = amenity(s.hasTerrace());
+        return v;
+    }
+
+    private static float amenity(Boolean present) {
+        return Boolean.TRUE.equals(present) ? 0.25f : 0f;
+    }
+}
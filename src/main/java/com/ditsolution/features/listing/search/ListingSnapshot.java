@@ -0,0 +1,67 @@
+package com.ditsolution.features.listing.search;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import com.ditsolution.features.listing.entity.ListingEntity;
+import com.ditsolution.features.listing.enums.ListingStatus;
+import com.ditsolution.features.listing.enums.ListingType;
+
+/**
+ * Copie immuable des colonnes scalaires d'une annonce, utilisée par les index en mémoire.
+ * Ne touche jamais aux relations LAZY (owner, photos) : peut être lue hors transaction.
+ */
+public record ListingSnapshot(
+    UUID id,
+    ListingStatus status,
+    ListingType type,
+    String city,
+    String district,
+    BigDecimal price,
+
+    // Géolocalisation
+    BigDecimal latitude,
+    BigDecimal longitude,
+
+    // Champs enrichis
+    Integer rooms,
+    Integer floor,
+    Boolean hasElevator,
+    Boolean hasParking,
+    Boolean hasBalcony,
+    Boolean hasTerrace,
+
+    Instant createdAt,
+    Instant updatedAt
+) {
+
+    public static ListingSnapshot of(ListingEntity e) {
+        return new ListingSnapshot(
+                e.getId(),
+                e.getStatus(),
+                e.getType(),
+                e.getCity(),
+                e.getDistrict(),
+                e.getPrice(),
+                e.getLatitude(),
+                e.getLongitude(),
+                e.getRooms(),
+                e.getFloor(),
+                e.getHasElevator(),
+                e.getHasParking(),
+                e.getHasBalcony(),
+                e.getHasTerrace(),
+                e.getCreatedAt(),
+                e.getUpdatedAt()
+        );
+    }
+
+    public boolean isPublished() {
+        return status == ListingStatus.PUBLISHED;
+    }
+
+    public boolean hasLocation() {
+        return latitude != null && longitude != null;
+    }
+}
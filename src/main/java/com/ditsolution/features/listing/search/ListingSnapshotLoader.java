@@ -0,0 +1,40 @@
+package com.ditsolution.features.listing.search;
+
+import java.util.function.Consumer;
+
+import com.ditsolution.features.listing.enums.ListingStatus;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Charge les annonces publiées sous forme de {@link ListingSnapshot} pour (re)construire les index en mémoire.
+ * Projection par constructeur : aucune entité hydratée, aucune photo chargée.
+ */
+@ApplicationScoped
+public class ListingSnapshotLoader {
+
+    private static final String PUBLISHED_SNAPSHOTS = """
+        SELECT new com.ditsolution.features.listing.search.ListingSnapshot(
+            l.id, l.status, l.type, l.city, l.district, l.price,
+            l.latitude, l.longitude,
+            l.rooms, l.floor, l.hasElevator, l.hasParking, l.hasBalcony, l.hasTerrace,
+            l.createdAt, l.updatedAt)
+        FROM ListingEntity l
+        WHERE l.status = :status
+        """;
+
+    @Inject
+    EntityManager entityManager;
+
+    /**
+     * Parcourt toutes les annonces publiées. Doit être appelé dans une transaction.
+     */
+    public void forEachPublished(Consumer<ListingSnapshot> consumer) {
+        entityManager.createQuery(PUBLISHED_SNAPSHOTS, ListingSnapshot.class)
+                .setParameter("status", ListingStatus.PUBLISHED)
+                .getResultStream()
+                .forEach(consumer);
+    }
+}
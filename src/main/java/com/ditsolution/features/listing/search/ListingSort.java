@@ -0,0 +1,98 @@
+package com.ditsolution.features.listing.search;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import com.ditsolution.common.utils.HttpErrors;
+
+/**
+ * Tri explicite de GET /listings ({@code sort=price|-price|createdAt|-createdAt|distance}).
+ * Chaque tri est départagé par l'id dans le même sens, pour un ordre total (pages sans doublons ni trous)
+ * parcouru tel quel par les index composites (V33, V38).
+ * {@code latitude}/{@code longitude} : origine du tri par distance, null sinon.
+ */
+public record ListingSort(Order order, BigDecimal latitude, BigDecimal longitude) {
+
+    public enum Order {
+        NEWEST("-createdAt", true),
+        OLDEST("createdAt", false),
+        PRICE_ASC("price", false),
+        PRICE_DESC("-price", true),
+        DISTANCE("distance", false);
+
+        private final String param;
+        private final boolean descending;
+
+        Order(String param, boolean descending) {
+            this.param = param;
+            this.descending = descending;
+        }
+
+        public String param() {
+            return param;
+        }
+
+        public boolean descending() {
+            return descending;
+        }
+    }
+
+    /** Ordre par défaut de la liste publique (et seul ordre des anciens curseurs). */
+    public static final ListingSort NEWEST = new ListingSort(Order.NEWEST, null, null);
+
+    /**
+     * null si {@code sort} est absent (le service choisit alors : pertinence avec {@code q}, sinon les plus récentes).
+     */
+    public static ListingSort parse(String sort, BigDecimal latitude, BigDecimal longitude) {
+        if (sort == null || sort.isBlank()) return null;
+        for (Order order : Order.values()) {
+            if (!order.param.equals(sort.trim())) continue;
+            if (order != Order.DISTANCE) return new ListingSort(order, null, null);
+            if (latitude == null || longitude == null) {
+                throw HttpErrors.badRequest("INVALID_SORT", "sort=distance nécessite lat et lng");
+            }
+            if (latitude.abs().compareTo(BigDecimal.valueOf(90)) > 0 || longitude.abs().compareTo(BigDecimal.valueOf(180)) > 0) {
+                throw HttpErrors.badRequest("INVALID_SORT", "lat/lng hors limites");
+            }
+            return new ListingSort(order, latitude.stripTrailingZeros(), longitude.stripTrailingZeros());
+        }
+        throw HttpErrors.badRequest("INVALID_SORT", "sort doit valoir price, -price, createdAt, -createdAt ou distance");
+    }
+
+    public boolean isDistance() {
+        return order == Order.DISTANCE;
+    }
+
+    /** Clause ORDER BY en HQL sur ListingEntity ; l'origine du tri par distance est ajoutée à {@code params}. */
+    public String hqlOrderBy(Map<String, Object> params) {
+        return orderBy("createdAt", "price", "id", "latitude", "longitude", params);
+    }
+
+    /** Même clause en SQL natif sur la table listings aliasée {@code alias}. */
+    public String sqlOrderBy(String alias, Map<String, Object> params) {
+        return orderBy(alias + ".created_at", alias + ".price", alias + ".id",
+                alias + ".latitude", alias + ".longitude", params);
+    }
+
+    private String orderBy(String createdAt, String price, String id, String lat, String lng, Map<String, Object> params) {
+        String direction = order.descending ? " DESC" : " ASC";
+        String key = switch (order) {
+            case NEWEST, OLDEST -> createdAt + direction;
+            case PRICE_ASC, PRICE_DESC -> price + direction;
+            case DISTANCE -> {
+                params.put("originLat", latitude.doubleValue());
+                params.put("originLng", longitude.doubleValue());
+                // Annonces sans coordonnées en fin de liste
+                yield distanceKm(lat, lng, ":originLat", ":originLng") + " ASC NULLS LAST";
+            }
+        };
+        return " ORDER BY " + key + ", " + id + direction;
+    }
+
+    /** Distance en km (loi des cosinus sphérique), valable en HQL comme en SQL ; least() évite acos(1.0000001) = NaN. */
+    static String distanceKm(String lat, String lng, String originLat, String originLng) {
+        return "6371 * acos(least(1.0, cos(radians(" + originLat + ")) * cos(radians(" + lat + "))"
+                + " * cos(radians(" + lng + ") - radians(" + originLng + "))"
+                + " + sin(radians(" + originLat + ")) * sin(radians(" + lat + "))))";
+    }
+}
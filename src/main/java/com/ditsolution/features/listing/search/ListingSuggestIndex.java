@@ -0,0 +1,79 @@
+package com.ditsolution.features.listing.search;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Autocomplétion des villes et quartiers du catalogue public, comptés par annonce publiée.
+ *
+ * Chaque annonce mémorise sa dernière position (ville, quartier) : une modification retire
+ * l'ancienne contribution avant d'ajouter la nouvelle, un retrait de publication la retire seulement.
+ */
+@ApplicationScoped
+public class ListingSuggestIndex implements CatalogueIndex {
+
+    private record Placement(String city, String district) {}
+
+    private static final class State {
+        final SuggestionTrie trie = new SuggestionTrie();
+        final Map<UUID, Placement> placements = new ConcurrentHashMap<>();
+    }
+
+    // null tant que le premier chargement n'est pas terminé
+    private volatile State state;
+
+    @Override
+    public String name() {
+        return "suggest";
+    }
+
+    @Override
+    public Rebuild beginRebuild() {
+        State fresh = new State();
+        return new Rebuild() {
+            @Override
+            public void apply(ListingSnapshot listing) {
+                ListingSuggestIndex.apply(fresh, listing);
+            }
+
+            @Override
+            public void install() {
+                state = fresh;
+            }
+        };
+    }
+
+    @Override
+    public void apply(ListingSnapshot listing) {
+        State current = state;
+        if (current != null) apply(current, listing);
+    }
+
+    /** Vide tant que l'index n'est pas chargé. */
+    public Optional<List<SuggestionTrie.Suggestion>> suggest(String prefix, int limit) {
+        State current = state;
+        if (current == null) return Optional.empty();
+        return Optional.of(current.trie.suggest(prefix, limit));
+    }
+
+    // Appelé sous le verrou de l'indexeur : pas de mise à jour concurrente d'une même annonce
+    private static void apply(State target, ListingSnapshot s) {
+        Placement next = s.isPublished() && s.city() != null && !s.city().isBlank()
+                ? new Placement(s.city(), s.district())
+                : null;
+        Placement previous = next == null ? target.placements.remove(s.id()) : target.placements.put(s.id(), next);
+        if (next != null && next.equals(previous)) return;
+        if (previous != null) count(target.trie, previous, -1);
+        if (next != null) count(target.trie, next, 1);
+    }
+
+    private static void count(SuggestionTrie trie, Placement p, long delta) {
+        trie.addCity(p.city(), delta);
+        if (p.district() != null && !p.district().isBlank()) trie.addDistrict(p.city(), p.district(), delta);
+    }
+}
@@ -0,0 +1,194 @@
+package com.ditsolution.features.listing.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Agrégats géographiques hiérarchiques pour la carte.
+ *
+ * Le niveau L découpe le monde en tuiles Web Mercator de zoom {@code L + CELL_SHIFT} : une tuile
+ * affichée au zoom L contient 8×8 cellules. Chaque cellule tient à jour nombre, somme des positions
+ * (barycentre) et prix min/max. Un retrait qui touche le min ou le max marque la cellule "à recalculer" :
+ * elle est recalculée à la lecture depuis ses enfants, seul le niveau le plus fin garde les membres.
+ *
+ * Prix en centimes. Méthodes synchronisées : écritures rares, lectures de l'ordre de la milliseconde.
+ */
+public class MapClusterIndex {
+
+    public static final int MAX_LEVEL = 16;
+    static final int CELL_SHIFT = 3;
+    private static final double MAX_LAT = 85.05112878;
+
+    public record Point(UUID id, double lat, double lng, long price) {}
+
+    /** Groupe d'annonces d'une cellule. */
+    public record Cluster(long count, double lat, double lng, long minPrice, long maxPrice, List<Point> points) {}
+
+    /** Emprise géographique ; minLng > maxLng quand elle traverse l'antiméridien. */
+    public record BBox(double minLng, double minLat, double maxLng, double maxLat) {}
+
+    /** Trop de cellules à parcourir pour l'emprise demandée à ce niveau. */
+    public static class TooManyCellsException extends RuntimeException {
+        public TooManyCellsException(long cells) {
+            super("Emprise trop large pour ce zoom (" + cells + " cellules)");
+        }
+    }
+
+    private static final class Cell {
+        long count;
+        double sumLat, sumLng;
+        long minPrice = Long.MAX_VALUE, maxPrice = Long.MIN_VALUE;
+        boolean dirty;
+        Set<UUID> members; // niveau le plus fin uniquement
+    }
+
+    @SuppressWarnings("unchecked")
+    private final Map<Long, Cell>[] levels = new Map[MAX_LEVEL + 1];
+    private final Map<UUID, Point> points = new HashMap<>();
+
+    public MapClusterIndex() {
+        for (int l = 0; l <= MAX_LEVEL; l++) levels[l] = new HashMap<>();
+    }
+
+    public synchronized void put(UUID id, double lat, double lng, long price) {
+        remove(id);
+        var p = new Point(id, lat, lng, price);
+        points.put(id, p);
+        long x = tileX(lng, MAX_LEVEL), y = tileY(lat, MAX_LEVEL);
+        for (int l = MAX_LEVEL; l >= 0; l--, x >>= 1, y >>= 1) {
+            Cell c = levels[l].computeIfAbsent(key(x, y), k -> new Cell());
+            c.count++;
+            c.sumLat += lat;
+            c.sumLng += lng;
+            if (!c.dirty) {
+                c.minPrice = Math.min(c.minPrice, price);
+                c.maxPrice = Math.max(c.maxPrice, price);
+            }
+            if (l == MAX_LEVEL) {
+                if (c.members == null) c.members = new HashSet<>();
+                c.members.add(id);
+            }
+        }
+    }
+
+    public synchronized void remove(UUID id) {
+        Point p = points.remove(id);
+        if (p == null) return;
+        long x = tileX(p.lng(), MAX_LEVEL), y = tileY(p.lat(), MAX_LEVEL);
+        for (int l = MAX_LEVEL; l >= 0; l--, x >>= 1, y >>= 1) {
+            long k = key(x, y);
+            Cell c = levels[l].get(k);
+            if (c == null) continue;
+            if (--c.count == 0) {
+                levels[l].remove(k);
+                continue;
+            }
+            c.sumLat -= p.lat();
+            c.sumLng -= p.lng();
+            if (p.price() == c.minPrice || p.price() == c.maxPrice) c.dirty = true;
+            if (c.members != null) c.members.remove(id);
+        }
+    }
+
+    public synchronized int size() {
+        return points.size();
+    }
+
+    /**
+     * Cellules du niveau {@code level} intersectant l'emprise. Les groupes d'au plus {@code pinThreshold}
+     * annonces sont accompagnés de leurs points.
+     *
+     * @throws TooManyCellsException si l'emprise couvre plus de {@code maxCells} cellules à ce niveau
+     */
+    public synchronized List<Cluster> clusters(BBox box, int level, int pinThreshold, long maxCells) {
+        int l = Math.max(0, Math.min(MAX_LEVEL, level));
+        long yFrom = tileY(box.maxLat(), l), yTo = tileY(box.minLat(), l);
+        long xFrom = tileX(box.minLng(), l), xTo = tileX(box.maxLng(), l);
+        long width = xFrom <= xTo ? xTo - xFrom + 1 : (tiles(l) - xFrom) + xTo + 1;
+        long cells = width * (yTo - yFrom + 1);
+        if (cells > maxCells) throw new TooManyCellsException(cells);
+
+        List<Cluster> out = new ArrayList<>();
+        for (long i = 0; i < width; i++) {
+            long x = (xFrom + i) % tiles(l);
+            for (long y = yFrom; y <= yTo; y++) {
+                Cell c = levels[l].get(key(x, y));
+                if (c == null) continue;
+                if (c.dirty) refresh(c, l, x, y);
+                List<Point> pins = c.count <= pinThreshold ? members(l, x, y) : List.of();
+                out.add(new Cluster(c.count, c.sumLat / c.count, c.sumLng / c.count, c.minPrice, c.maxPrice, pins));
+            }
+        }
+        return out;
+    }
+
+    /** Recalcule min/max d'une cellule depuis ses enfants (ou ses membres au niveau le plus fin). */
+    private void refresh(Cell c, int l, long x, long y) {
+        long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+        if (l == MAX_LEVEL) {
+            for (UUID id : c.members) {
+                long price = points.get(id).price();
+                min = Math.min(min, price);
+                max = Math.max(max, price);
+            }
+        } else {
+            for (int dx = 0; dx < 2; dx++) {
+                for (int dy = 0; dy < 2; dy++) {
+                    long cx = 2 * x + dx, cy = 2 * y + dy;
+                    Cell child = levels[l + 1].get(key(cx, cy));
+                    if (child == null) continue;
+                    if (child.dirty) refresh(child, l + 1, cx, cy);
+                    min = Math.min(min, child.minPrice);
+                    max = Math.max(max, child.maxPrice);
+                }
+            }
+        }
+        c.minPrice = min;
+        c.maxPrice = max;
+        c.dirty = false;
+    }
+
+    private List<Point> members(int l, long x, long y) {
+        List<Point> out = new ArrayList<>();
+        collectMembers(l, x, y, out);
+        return out;
+    }
+
+    private void collectMembers(int l, long x, long y, List<Point> out) {
+        Cell c = levels[l].get(key(x, y));
+        if (c == null) return;
+        if (l == MAX_LEVEL) {
+            for (UUID id : c.members) out.add(points.get(id));
+            return;
+        }
+        for (int dx = 0; dx < 2; dx++) {
+            for (int dy = 0; dy < 2; dy++) collectMembers(l + 1, 2 * x + dx, 2 * y + dy, out);
+        }
+    }
+
+    private static long tiles(int level) {
+        return 1L << (level + CELL_SHIFT);
+    }
+
+    static long tileX(double lng, int level) {
+        long n = tiles(level);
+        long x = (long) Math.floor((lng + 180.0) / 360.0 * n);
+        return Math.max(0, Math.min(n - 1, x));
+    }
+
+    static long tileY(double lat, int level) {
+        long n = tiles(level);
+        double rad = Math.toRadians(Math.max(-MAX_LAT, Math.min(MAX_LAT, lat)));
+        long y = (long) Math.floor((1 - Math.log(Math.tan(rad) + 1 / Math.cos(rad)) / Math.PI) / 2 * n);
+        return Math.max(0, Math.min(n - 1, y));
+    }
+
+    private static long key(long x, long y) {
+        return (x << 32) | y;
+    }
+}
@@ -0,0 +1,153 @@
+package com.ditsolution.features.listing.search;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sketch de quantiles de prix à erreur relative bornée (principe de DDSketch) : un prix x > 0 tombe
+ * dans le seau ceil(log_γ x) avec γ = (1+α)/(1-α), et le représentant du seau est à moins de α de x.
+ *
+ * Contrairement à t-digest ou KLL, un seau n'est qu'un compteur : retirer le prix d'une annonce
+ * archivée ou modifiée est exact, et deux sketches se fusionnent en additionnant leurs seaux.
+ * La taille ne dépend que de l'étendue des prix (quelques dizaines de seaux par segment), pas du nombre d'annonces.
+ *
+ * Non thread-safe.
+ */
+public final class PriceSketch {
+
+    /** Erreur relative par défaut : 1 %. */
+    public static final double DEFAULT_ACCURACY = 0.01;
+
+    private final double accuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final TreeMap<Integer, Long> buckets = new TreeMap<>();
+    private long zeros; // prix à 0
+    private long count;
+
+    public PriceSketch() {
+        this(DEFAULT_ACCURACY);
+    }
+
+    public PriceSketch(double accuracy) {
+        if (!(accuracy > 0 && accuracy < 1)) throw new IllegalArgumentException("accuracy doit être dans ]0, 1[");
+        this.accuracy = accuracy;
+        this.gamma = (1 + accuracy) / (1 - accuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    public double accuracy() {
+        return accuracy;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /** Ajoute un prix en centimes (≥ 0). */
+    public void add(long cents) {
+        update(cents, 1);
+    }
+
+    /** Retire un prix précédemment ajouté. */
+    public void remove(long cents) {
+        update(cents, -1);
+    }
+
+    private void update(long cents, long delta) {
+        if (cents < 0) throw new IllegalArgumentException("prix négatif : " + cents);
+        if (cents == 0) {
+            if (zeros + delta < 0) throw new IllegalStateException("retrait d'un prix absent : 0");
+            zeros += delta;
+        } else {
+            int index = index(cents);
+            long n = buckets.getOrDefault(index, 0L) + delta;
+            if (n < 0) throw new IllegalStateException("retrait d'un prix absent : " + cents);
+            if (n == 0) buckets.remove(index);
+            else buckets.put(index, n);
+        }
+        count += delta;
+    }
+
+    /** Ajoute les seaux de {@code other} (même précision). */
+    public void merge(PriceSketch other) {
+        if (other.accuracy != accuracy) throw new IllegalArgumentException("précisions différentes");
+        other.buckets.forEach((index, n) -> buckets.merge(index, n, Long::sum));
+        zeros += other.zeros;
+        count += other.count;
+    }
+
+    /**
+     * Quantile {@code q} ∈ [0, 1] en centimes : valeur de rang floor(q·(n-1)) à {@link #accuracy()} près.
+     *
+     * @throws IllegalStateException si le sketch est vide
+     */
+    public long quantile(double q) {
+        if (q < 0 || q > 1) throw new IllegalArgumentException("q doit être dans [0, 1]");
+        if (count == 0) throw new IllegalStateException("sketch vide");
+        long rank = (long) Math.floor(q * (count - 1));
+        if (rank < zeros) return 0;
+        long seen = zeros;
+        for (Map.Entry<Integer, Long> e : buckets.entrySet()) {
+            seen += e.getValue();
+            if (seen > rank) return value(e.getKey());
+        }
+        return value(buckets.lastKey());
+    }
+
+    private int index(long cents) {
+        return (int) Math.ceil(Math.log(cents) / logGamma);
+    }
+
+    // Représentant du seau ]γ^(i-1), γ^i] : erreur relative ≤ α de part et d'autre
+    private long value(int index) {
+        return Math.round(2 * Math.pow(gamma, index) / (gamma + 1));
+    }
+
+    // ------- sérialisation (persistance des statistiques) -------
+
+    public byte[] toBytes() {
+        var bytes = new ByteArrayOutputStream(20 + 12 * buckets.size());
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeDouble(accuracy);
+            out.writeLong(zeros);
+            out.writeInt(buckets.size());
+            for (Map.Entry<Integer, Long> e : buckets.entrySet()) {
+                out.writeInt(e.getKey());
+                out.writeLong(e.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static PriceSketch fromBytes(byte[] data) {
+        try (var in = new DataInputStream(new ByteArrayInputStream(data))) {
+            var sketch = new PriceSketch(in.readDouble());
+            sketch.zeros = in.readLong();
+            sketch.count = sketch.zeros;
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                int index = in.readInt();
+                long c = in.readLong();
+                if (c <= 0) throw new IllegalArgumentException("seau invalide");
+                sketch.buckets.put(index, c);
+                sketch.count += c;
+            }
+            return sketch;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("sketch illisible", e);
+        }
+    }
+}
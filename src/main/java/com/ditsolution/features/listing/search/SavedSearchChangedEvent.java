@@ -0,0 +1,22 @@
+package com.ditsolution.features.listing.search;
+
+import java.util.UUID;
+
+import com.ditsolution.features.listing.entity.SavedSearchEntity;
+
+/**
+ * Émis à l'enregistrement ou à la suppression d'une recherche sauvegardée. {@link SavedSearchMatcher}
+ * l'observe en {@code TransactionPhase.AFTER_SUCCESS} : l'index des alertes ne reflète jamais un rollback.
+ *
+ * {@code criteria} est calculé dans la transaction (null pour une suppression).
+ */
+public record SavedSearchChangedEvent(UUID searchId, SavedSearchIndex.Criteria criteria) {
+
+    public static SavedSearchChangedEvent saved(SavedSearchEntity search) {
+        return new SavedSearchChangedEvent(search.getId(), SavedSearchMatcher.criteriaOf(search));
+    }
+
+    public static SavedSearchChangedEvent deleted(UUID searchId) {
+        return new SavedSearchChangedEvent(searchId, null);
+    }
+}
@@ -0,0 +1,120 @@
+package com.ditsolution.features.listing.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.ditsolution.features.listing.enums.ListingType;
+
+/**
+ * Index inversé des recherches sauvegardées, interrogé avec une annonce pour retrouver les
+ * recherches qu'elle satisfait sans parcourir tous les utilisateurs.
+ *
+ * Les recherches sont rangées par (ville, type), une valeur null signifiant "toutes" : une annonce
+ * ne consulte que quatre seaux. Dans chaque seau elles sont triées par prix minimum, seul le préfixe
+ * dont le minimum est inférieur ou égal au prix de l'annonce est vérifié.
+ *
+ * Les seaux sont en copie sur écriture : lectures sans verrou, écritures (rares) sérialisées.
+ * Ville et quartier doivent être fournis normalisés ; les prix sont en centimes.
+ */
+public class SavedSearchIndex {
+
+    /**
+     * Critères d'une recherche ; {@code minPrice}/{@code maxPrice} valent Long.MIN_VALUE/MAX_VALUE
+     * quand ils ne sont pas bornés, les autres critères null ne filtrent pas.
+     */
+    public record Criteria(UUID id, UUID userId, String city, String district, ListingType type,
+                           long minPrice, long maxPrice, Integer minRooms,
+                           Double latitude, Double longitude, Double radiusKm) {}
+
+    /** Annonce à confronter aux recherches. */
+    public record Candidate(String city, String district, ListingType type, long price, Integer rooms,
+                            Double latitude, Double longitude) {}
+
+    private record BucketKey(String city, ListingType type) {}
+
+    private static final Criteria[] EMPTY = new Criteria[0];
+
+    private final Map<BucketKey, Criteria[]> buckets = new ConcurrentHashMap<>();
+    private final Map<UUID, Criteria> byId = new ConcurrentHashMap<>();
+
+    public synchronized void put(Criteria criteria) {
+        remove(criteria.id());
+        byId.put(criteria.id(), criteria);
+        buckets.compute(keyOf(criteria), (k, current) -> {
+            Criteria[] base = current == null ? EMPTY : current;
+            int at = upperBound(base, criteria.minPrice());
+            Criteria[] next = new Criteria[base.length + 1];
+            System.arraycopy(base, 0, next, 0, at);
+            next[at] = criteria;
+            System.arraycopy(base, at, next, at + 1, base.length - at);
+            return next;
+        });
+    }
+
+    public synchronized void remove(UUID id) {
+        Criteria previous = byId.remove(id);
+        if (previous == null) return;
+        buckets.computeIfPresent(keyOf(previous), (k, current) -> {
+            Criteria[] next = Arrays.stream(current).filter(c -> !c.id().equals(id)).toArray(Criteria[]::new);
+            return next.length == 0 ? null : next;
+        });
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Recherches satisfaites par l'annonce.
+     */
+    public List<Criteria> match(Candidate listing) {
+        List<Criteria> out = new ArrayList<>();
+        collect(new BucketKey(null, null), listing, out);
+        if (listing.type() != null) collect(new BucketKey(null, listing.type()), listing, out);
+        if (listing.city() != null) {
+            collect(new BucketKey(listing.city(), null), listing, out);
+            if (listing.type() != null) collect(new BucketKey(listing.city(), listing.type()), listing, out);
+        }
+        return out;
+    }
+
+    private void collect(BucketKey key, Candidate listing, List<Criteria> out) {
+        Criteria[] bucket = buckets.get(key);
+        if (bucket == null) return;
+        int end = upperBound(bucket, listing.price());
+        for (int i = 0; i < end; i++) {
+            if (matches(bucket[i], listing)) out.add(bucket[i]);
+        }
+    }
+
+    private static boolean matches(Criteria c, Candidate l) {
+        if (l.price() > c.maxPrice()) return false;
+        if (c.district() != null && !Objects.equals(c.district(), l.district())) return false;
+        if (c.minRooms() != null && (l.rooms() == null || l.rooms() < c.minRooms())) return false;
+        if (c.radiusKm() != null) {
+            if (l.latitude() == null || l.longitude() == null) return false;
+            return GeoGrid.distanceKm(c.latitude(), c.longitude(), l.latitude(), l.longitude()) <= c.radiusKm();
+        }
+        return true;
+    }
+
+    /** Premier indice dont le prix minimum est > price. */
+    private static int upperBound(Criteria[] sorted, long price) {
+        int low = 0, high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].minPrice() <= price) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static BucketKey keyOf(Criteria c) {
+        return new BucketKey(c.city(), c.type());
+    }
+}
@@ -0,0 +1,136 @@
+package com.ditsolution.features.listing.search;
+
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jboss.logging.Logger;
+
+import com.ditsolution.features.listing.entity.ListingEntity;
+import com.ditsolution.features.listing.entity.SavedSearchEntity;
+import com.ditsolution.features.listing.repository.SavedSearchRepository;
+
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Retrouve les utilisateurs dont une recherche sauvegardée correspond à une annonce.
+ * L'index est chargé au démarrage, tenu à jour après commit ({@link SavedSearchChangedEvent}) et
+ * rechargé périodiquement pour rattraper les écritures des autres instances.
+ *
+ * Comme {@link CatalogueIndexer}, les événements reçus pendant un rechargement sont aussi mis de côté
+ * et rejoués sur le nouvel index avant son installation, pour qu'aucun ne soit perdu par la substitution.
+ */
+@ApplicationScoped
+public class SavedSearchMatcher {
+
+    private static final Logger LOG = Logger.getLogger(SavedSearchMatcher.class);
+
+    @Inject
+    SavedSearchRepository savedSearchRepo;
+
+    private volatile SavedSearchIndex index = new SavedSearchIndex();
+
+    private final Object lock = new Object();
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    // Non null pendant un rechargement (protégé par lock)
+    private List<SavedSearchChangedEvent> pending;
+
+    @Transactional
+    void onStart(@Observes StartupEvent ev) {
+        reload();
+    }
+
+    @Scheduled(every = "${app.saved-search.reload-every:5m}", delayed = "${app.saved-search.reload-every:5m}")
+    @Transactional
+    void scheduledReload() {
+        reload();
+    }
+
+    /**
+     * Recharge toutes les recherches depuis la base. Doit être appelé dans une transaction.
+     */
+    public void reload() {
+        if (!reloading.compareAndSet(false, true)) {
+            LOG.debug("Rechargement des recherches sauvegardées déjà en cours");
+            return;
+        }
+        try {
+            var fresh = new SavedSearchIndex();
+            synchronized (lock) {
+                pending = new ArrayList<>();
+            }
+            savedSearchRepo.forEach(s -> fresh.put(criteriaOf(s)));
+
+            synchronized (lock) {
+                for (SavedSearchChangedEvent event : pending) apply(fresh, event);
+                index = fresh;
+            }
+            LOG.info("Index des recherches sauvegardées chargé - " + fresh.size() + " recherches");
+        } catch (Exception e) {
+            LOG.error("Erreur lors du chargement des recherches sauvegardées", e);
+        } finally {
+            synchronized (lock) {
+                pending = null;
+            }
+            reloading.set(false);
+        }
+    }
+
+    void onSavedSearchChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) SavedSearchChangedEvent event) {
+        synchronized (lock) {
+            if (pending != null) pending.add(event);
+            apply(index, event);
+        }
+    }
+
+    private static void apply(SavedSearchIndex target, SavedSearchChangedEvent event) {
+        if (event.criteria() != null) target.put(event.criteria());
+        else target.remove(event.searchId());
+    }
+
+    /**
+     * Utilisateurs (sans doublon, hors propriétaire) ayant au moins une recherche satisfaite par l'annonce.
+     */
+    public Set<UUID> matchUsers(ListingEntity listing) {
+        Set<UUID> users = new LinkedHashSet<>();
+        if (listing.getPrice() == null) return users;
+        var candidate = new SavedSearchIndex.Candidate(
+                SearchKeys.normalize(listing.getCity()),
+                SearchKeys.normalize(listing.getDistrict()),
+                listing.getType(),
+                SearchKeys.cents(listing.getPrice(), RoundingMode.HALF_UP),
+                listing.getRooms(),
+                listing.getLatitude() != null ? listing.getLatitude().doubleValue() : null,
+                listing.getLongitude() != null ? listing.getLongitude().doubleValue() : null);
+        for (var c : index.match(candidate)) users.add(c.userId());
+        if (listing.getOwner() != null) users.remove(listing.getOwner().getId());
+        return users;
+    }
+
+    static SavedSearchIndex.Criteria criteriaOf(SavedSearchEntity s) {
+        boolean radius = s.getRadiusKm() != null && s.getLatitude() != null && s.getLongitude() != null;
+        return new SavedSearchIndex.Criteria(
+                s.getId(),
+                s.getUser().getId(),
+                SearchKeys.normalize(s.getCity()),
+                SearchKeys.normalize(s.getDistrict()),
+                s.getType(),
+                s.getMinPrice() != null ? SearchKeys.cents(s.getMinPrice(), RoundingMode.CEILING) : Long.MIN_VALUE,
+                s.getMaxPrice() != null ? SearchKeys.cents(s.getMaxPrice(), RoundingMode.FLOOR) : Long.MAX_VALUE,
+                s.getMinRooms(),
+                radius ? s.getLatitude().doubleValue() : null,
+                radius ? s.getLongitude().doubleValue() : null,
+                radius ? s.getRadiusKm() : null);
+    }
+}
@@ -0,0 +1,34 @@
+package com.ditsolution.features.listing.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Formes canoniques partagées par les index en mémoire.
+ */
+public final class SearchKeys {
+    private SearchKeys() {}
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    /** Ville / quartier : trim + minuscules, null si vide (même forme que les filtres normalisés). */
+    public static String normalize(String raw) {
+        return raw == null || raw.isBlank() ? null : raw.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Montant en centimes, arrondi selon {@code mode}. */
+    public static long cents(BigDecimal amount, RoundingMode mode) {
+        return amount.movePointRight(2).setScale(0, mode).longValue();
+    }
+
+    /** Forme de saisie : sans accents, minuscules, espaces réduits ("Abobo  Gare" et "abobo gare"). */
+    public static String fold(String raw) {
+        if (raw == null) return "";
+        String stripped = MARKS.matcher(Normalizer.normalize(raw, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(stripped.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+}
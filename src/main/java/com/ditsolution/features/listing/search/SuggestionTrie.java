@@ -0,0 +1,244 @@
+package com.ditsolution.features.listing.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trie des villes et quartiers avec leur nombre d'annonces, pour l'autocomplétion.
+ *
+ * Les clés sont repliées ({@link SearchKeys#fold}) et chaque valeur est aussi indexée à chaque début
+ * de mot ("bassam" trouve "Grand-Bassam"). Chaque nœud garde le plus grand compteur de son sous-arbre :
+ * les k meilleures suggestions sont obtenues par un parcours best-first qui n'ouvre que les branches
+ * pouvant encore battre les résultats déjà trouvés.
+ */
+public class SuggestionTrie {
+
+    public enum Kind { CITY, DISTRICT }
+
+    /** {@code city} est la ville du quartier (null pour une ville). */
+    public record Suggestion(Kind kind, String label, String city, long count) {}
+
+    private static final class Entry {
+        final Kind kind;
+        final String identity;
+        final List<String> keys;
+        String label;
+        String city;
+        long count;
+
+        Entry(Kind kind, String identity, List<String> keys) {
+            this.kind = kind;
+            this.identity = identity;
+            this.keys = keys;
+        }
+    }
+
+    private static final class Node {
+        private static final char[] NO_CHARS = new char[0];
+        private static final Node[] NO_NODES = new Node[0];
+
+        // Enfants triés par caractère (tableaux compacts plutôt qu'une map par nœud)
+        char[] chars = NO_CHARS;
+        Node[] children = NO_NODES;
+        List<Entry> entries;
+        long max;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(chars, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int i = Arrays.binarySearch(chars, c);
+            if (i >= 0) return children[i];
+            int at = -i - 1;
+            char[] nc = new char[chars.length + 1];
+            Node[] nn = new Node[children.length + 1];
+            System.arraycopy(chars, 0, nc, 0, at);
+            System.arraycopy(children, 0, nn, 0, at);
+            nc[at] = c;
+            nn[at] = new Node();
+            System.arraycopy(chars, at, nc, at + 1, chars.length - at);
+            System.arraycopy(children, at, nn, at + 1, children.length - at);
+            chars = nc;
+            children = nn;
+            return nn[at];
+        }
+
+        void removeChild(char c) {
+            int i = Arrays.binarySearch(chars, c);
+            if (i < 0) return;
+            char[] nc = new char[chars.length - 1];
+            Node[] nn = new Node[children.length - 1];
+            System.arraycopy(chars, 0, nc, 0, i);
+            System.arraycopy(children, 0, nn, 0, i);
+            System.arraycopy(chars, i + 1, nc, i, chars.length - i - 1);
+            System.arraycopy(children, i + 1, nn, i, children.length - i - 1);
+            chars = nc;
+            children = nn;
+        }
+
+        boolean isEmpty() {
+            return chars.length == 0 && (entries == null || entries.isEmpty());
+        }
+
+        void recomputeMax() {
+            long m = 0;
+            if (entries != null) for (Entry e : entries) m = Math.max(m, e.count);
+            for (Node n : children) m = Math.max(m, n.max);
+            max = m;
+        }
+    }
+
+    private static final Comparator<Suggestion> ORDER =
+            Comparator.comparingLong(Suggestion::count).reversed().thenComparing(Suggestion::label);
+
+    private final Node root = new Node();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Ajoute {@code delta} annonces à la ville. */
+    public void addCity(String city, long delta) {
+        String key = SearchKeys.fold(city);
+        if (key.isEmpty()) return;
+        add(Kind.CITY, "c|" + key, key, city.trim(), null, delta);
+    }
+
+    /** Ajoute {@code delta} annonces au quartier (les homonymes de villes différentes restent distincts). */
+    public void addDistrict(String city, String district, long delta) {
+        String key = SearchKeys.fold(district);
+        if (key.isEmpty()) return;
+        String cityLabel = city == null ? null : city.trim();
+        add(Kind.DISTRICT, "d|" + SearchKeys.fold(city) + "|" + key, key, district.trim(), cityLabel, delta);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Les {@code limit} suggestions commençant par {@code prefix} (ou dont un mot commence par lui),
+     * par nombre d'annonces décroissant puis libellé.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = SearchKeys.fold(prefix);
+        lock.readLock().lock();
+        try {
+            Node start = root;
+            for (int i = 0; i < key.length() && start != null; i++) start = start.child(key.charAt(i));
+            if (start == null || limit < 1) return List.of();
+
+            // File max : nœuds (borne = max du sous-arbre) et entrées (valeur exacte)
+            PriorityQueue<Object[]> queue = new PriorityQueue<>((a, b) -> Long.compare((long) b[0], (long) a[0]));
+            queue.add(new Object[] { start.max, start });
+            List<Suggestion> out = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            while (!queue.isEmpty()) {
+                Object[] top = queue.poll();
+                // Tout ce qui reste est strictement moins bon que la dernière suggestion retenue
+                if (out.size() >= limit && (long) top[0] < out.get(out.size() - 1).count()) break;
+                if (top[1] instanceof Entry e) {
+                    if (seen.add(e.identity)) out.add(new Suggestion(e.kind, e.label, e.city, e.count));
+                } else {
+                    Node n = (Node) top[1];
+                    if (n.entries != null) for (Entry e : n.entries) queue.add(new Object[] { e.count, e });
+                    for (Node c : n.children) queue.add(new Object[] { c.max, c });
+                }
+            }
+            out.sort(ORDER);
+            return out.size() > limit ? List.copyOf(out.subList(0, limit)) : out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Kind kind, String identity, String key, String label, String city, long delta) {
+        lock.writeLock().lock();
+        try {
+            Entry e = entries.get(identity);
+            if (e == null) {
+                if (delta <= 0) return;
+                e = new Entry(kind, identity, wordStarts(key));
+                entries.put(identity, e);
+                for (String k : e.keys) path(k, true).entries().add(e);
+            }
+            // Libellé affiché : la graphie de la dernière annonce ajoutée
+            if (delta > 0) {
+                e.label = label;
+                e.city = city;
+            }
+            e.count += delta;
+            if (e.count <= 0) {
+                entries.remove(identity);
+                for (String k : e.keys) detach(k, e);
+            } else {
+                for (String k : e.keys) refresh(k);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private record Path(Node[] nodes) {
+        List<Entry> entries() {
+            Node last = nodes[nodes.length - 1];
+            if (last.entries == null) last.entries = new ArrayList<>(1);
+            return last.entries;
+        }
+    }
+
+    private Path path(String key, boolean create) {
+        Node[] nodes = new Node[key.length() + 1];
+        nodes[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            Node next = create ? nodes[i].childOrCreate(key.charAt(i)) : nodes[i].child(key.charAt(i));
+            if (next == null) return null;
+            nodes[i + 1] = next;
+        }
+        return new Path(nodes);
+    }
+
+    /** Recalcule les maxima du nœud terminal jusqu'à la racine. */
+    private void refresh(String key) {
+        Path p = path(key, false);
+        if (p == null) return;
+        for (int i = p.nodes().length - 1; i >= 0; i--) p.nodes()[i].recomputeMax();
+    }
+
+    private void detach(String key, Entry e) {
+        Path p = path(key, false);
+        if (p == null) return;
+        Node[] nodes = p.nodes();
+        Node last = nodes[nodes.length - 1];
+        if (last.entries != null) last.entries.remove(e);
+        for (int i = nodes.length - 1; i >= 0; i--) {
+            if (i > 0 && nodes[i].isEmpty()) nodes[i - 1].removeChild(key.charAt(i - 1));
+            nodes[i].recomputeMax();
+        }
+    }
+
+    /** Clé complète puis chaque suffixe commençant après un espace, un tiret ou une apostrophe. */
+    static List<String> wordStarts(String key) {
+        List<String> keys = new ArrayList<>();
+        keys.add(key);
+        for (int i = 1; i < key.length(); i++) {
+            char prev = key.charAt(i - 1);
+            if ((prev == ' ' || prev == '-' || prev == '\'') && key.charAt(i) != ' ') keys.add(key.substring(i));
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,117 @@
+package com.ditsolution.features.listing.service;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.ditsolution.common.utils.HttpErrors;
+import com.ditsolution.features.auth.entity.UserEntity;
+import com.ditsolution.features.listing.dto.SavedSearchCreateDto;
+import com.ditsolution.features.listing.dto.SavedSearchDto;
+import com.ditsolution.features.listing.entity.SavedSearchEntity;
+import com.ditsolution.features.listing.repository.SavedSearchRepository;
+import com.ditsolution.features.listing.search.SavedSearchChangedEvent;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+@ApplicationScoped
+public class SavedSearchService {
+
+    @Inject
+    SavedSearchRepository savedSearchRepo;
+
+    // Appliqué à l'index des alertes après commit
+    @Inject
+    Event<SavedSearchChangedEvent> savedSearchChanged;
+
+    // Taille des colonnes name, city, district (V36)
+    static final int MAX_TEXT_LENGTH = 100;
+
+    @ConfigProperty(name = "app.saved-search.max-per-user", defaultValue = "20")
+    int maxPerUser;
+
+    @ConfigProperty(name = "app.saved-search.max-radius-km", defaultValue = "100")
+    double maxRadiusKm;
+
+    public List<SavedSearchDto> getUserSearches(UUID userId) {
+        return savedSearchRepo.findByUserId(userId).stream().map(SavedSearchDto::of).toList();
+    }
+
+    /**
+     * Enregistre une recherche et l'ajoute à l'index des alertes.
+     */
+    @Transactional
+    public SavedSearchDto createSearch(UUID userId, SavedSearchCreateDto dto) {
+        validate(dto);
+        if (savedSearchRepo.countByUserId(userId) >= maxPerUser) {
+            throw HttpErrors.badRequest("SAVED_SEARCH_LIMIT", "Nombre maximum de recherches sauvegardées atteint (" + maxPerUser + ")");
+        }
+        UserEntity user = UserEntity.findById(userId);
+        if (user == null) throw HttpErrors.notFound("USER_NOT_FOUND", "Utilisateur non trouvé");
+
+        var search = new SavedSearchEntity();
+        search.setUser(user);
+        search.setName(dto.name());
+        search.setCity(trimOrNull(dto.city()));
+        search.setDistrict(trimOrNull(dto.district()));
+        search.setType(dto.type());
+        search.setMinPrice(dto.minPrice());
+        search.setMaxPrice(dto.maxPrice());
+        search.setMinRooms(dto.minRooms());
+        if (dto.radiusKm() != null) {
+            search.setLatitude(dto.latitude());
+            search.setLongitude(dto.longitude());
+            search.setRadiusKm(dto.radiusKm());
+        }
+        savedSearchRepo.persist(search);
+
+        savedSearchChanged.fire(SavedSearchChangedEvent.saved(search));
+        return SavedSearchDto.of(search);
+    }
+
+    @Transactional
+    public void deleteSearch(UUID userId, UUID searchId) {
+        var search = savedSearchRepo.findByIdAndUserId(searchId, userId);
+        if (search == null) throw HttpErrors.notFound("SAVED_SEARCH_NOT_FOUND", "Recherche sauvegardée non trouvée");
+        savedSearchRepo.delete(search);
+        savedSearchChanged.fire(SavedSearchChangedEvent.deleted(searchId));
+    }
+
+    private void validate(SavedSearchCreateDto dto) {
+        if (dto == null) throw HttpErrors.badRequest("VALIDATION_ERROR", "Corps de requête manquant");
+        boolean hasCriteria = trimOrNull(dto.city()) != null || trimOrNull(dto.district()) != null
+                || dto.type() != null || dto.minPrice() != null || dto.maxPrice() != null
+                || dto.minRooms() != null || dto.radiusKm() != null;
+        if (!hasCriteria) {
+            throw HttpErrors.badRequest("VALIDATION_ERROR", "Au moins un critère est requis");
+        }
+        checkLength("name", dto.name());
+        checkLength("city", trimOrNull(dto.city()));
+        checkLength("district", trimOrNull(dto.district()));
+        if (dto.minPrice() != null && dto.maxPrice() != null && dto.minPrice().compareTo(dto.maxPrice()) > 0) {
+            throw HttpErrors.badRequest("VALIDATION_ERROR", "minPrice doit être ≤ maxPrice");
+        }
+        if (dto.radiusKm() != null) {
+            if (dto.latitude() == null || dto.longitude() == null) {
+                throw HttpErrors.badRequest("VALIDATION_ERROR", "latitude et longitude sont requises avec radiusKm");
+            }
+            if (dto.radiusKm() <= 0 || dto.radiusKm() > maxRadiusKm) {
+                throw HttpErrors.badRequest("VALIDATION_ERROR", "radiusKm doit être dans ]0, " + maxRadiusKm + "]");
+            }
+        }
+    }
+
+    private static void checkLength(String field, String value) {
+        if (value != null && value.codePointCount(0, value.length()) > MAX_TEXT_LENGTH) {
+            throw HttpErrors.badRequest("VALIDATION_ERROR", field + " : " + MAX_TEXT_LENGTH + " caractères maximum");
+        }
+    }
+
+    private static String trimOrNull(String s) {
+        return s == null || s.isBlank() ? null : s.trim();
+    }
+}
@@ -0,0 +1,154 @@
+package com.ditsolution.features.listing.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.logging.Logger;
+
+import com.ditsolution.features.listing.dto.ListingStatsDto;
+import com.ditsolution.features.listing.repository.ListingCounterRepository;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Compteurs de vues et de contacts par annonce, tenus en mémoire et écrits par lots.
+ *
+ * Un incrément est un {@link LongAdder#increment()} sur la ligne de l'annonce : pas de verrou ni
+ * d'écriture en base sur le chemin de lecture. Toutes les quelques secondes, les deltas sont relevés
+ * ({@code sumThenReset}) et ajoutés en base par un seul upsert. Les incréments non encore écrits
+ * sont perdus en cas d'arrêt brutal (accepté) ; un échec d'écriture les remet en attente.
+ *
+ * Une ligne inactive est retirée de la map : l'incrément d'un thread qui la tenait déjà est repris
+ * soit par le dernier relevé du flush, soit par le thread lui-même (voir {@link #add}).
+ */
+@ApplicationScoped
+public class ListingCounters {
+
+    private static final Logger LOG = Logger.getLogger(ListingCounters.class);
+
+    // Une ligne sans activité pendant ce nombre de flushs est retirée de la map
+    private static final int IDLE_FLUSHES_BEFORE_EVICT = 3;
+
+    @Inject
+    ListingCounterRepository counterRepo;
+
+    private final Map<UUID, Counter> counters = new ConcurrentHashMap<>();
+
+    private static final class Counter {
+        final LongAdder views = new LongAdder();
+        final LongAdder contacts = new LongAdder();
+        int idleFlushes; // lu/écrit uniquement par le flush (sérialisé)
+    }
+
+    private record Delta(UUID id, long views, long contacts) {}
+
+    public void recordView(UUID listingId) {
+        add(listingId, 1, 0);
+    }
+
+    public void recordContact(UUID listingId) {
+        add(listingId, 0, 1);
+    }
+
+    /**
+     * Compteurs du propriétaire : valeurs persistées plus les deltas pas encore écrits.
+     */
+    public List<ListingStatsDto> ownerStats(UUID ownerId) {
+        return counterRepo.findOwnerStats(ownerId).stream().map(s -> {
+            Counter c = counters.get(s.listingId());
+            if (c == null) return s;
+            return new ListingStatsDto(s.listingId(), s.title(), s.status(),
+                    s.views() + c.views.sum(), s.contacts() + c.contacts.sum());
+        }).toList();
+    }
+
+    @Scheduled(every = "${app.listing.counters.flush-every:5s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @Transactional
+    void scheduledFlush() {
+        flush();
+    }
+
+    @Transactional
+    void onStop(@Observes ShutdownEvent ev) {
+        flush();
+    }
+
+    /**
+     * Écrit les deltas accumulés. Doit être appelé dans une transaction.
+     */
+    synchronized void flush() {
+        List<Delta> deltas = drain();
+        if (deltas.isEmpty()) return;
+
+        int n = deltas.size();
+        UUID[] ids = new UUID[n];
+        long[] views = new long[n];
+        long[] contacts = new long[n];
+        for (int i = 0; i < n; i++) {
+            Delta d = deltas.get(i);
+            ids[i] = d.id();
+            views[i] = d.views();
+            contacts[i] = d.contacts();
+        }
+        try {
+            counterRepo.addAll(ids, views, contacts);
+        } catch (RuntimeException e) {
+            LOG.warn("Écriture des compteurs d'annonces échouée, " + n + " lignes remises en attente", e);
+            deltas.forEach(d -> add(d.id(), d.views(), d.contacts()));
+            throw e;
+        }
+    }
+
+    private List<Delta> drain() {
+        List<Delta> deltas = new ArrayList<>();
+        counters.forEach((id, c) -> {
+            long v = c.views.sumThenReset();
+            long k = c.contacts.sumThenReset();
+            if (v != 0 || k != 0) {
+                c.idleFlushes = 0;
+                deltas.add(new Delta(id, v, k));
+            } else if (++c.idleFlushes >= IDLE_FLUSHES_BEFORE_EVICT && counters.remove(id, c)) {
+                // Incréments arrivés sur la ligne depuis le relevé ci-dessus : dernier relevé
+                long lateViews = c.views.sumThenReset();
+                long lateContacts = c.contacts.sumThenReset();
+                if (lateViews != 0 || lateContacts != 0) deltas.add(new Delta(id, lateViews, lateContacts));
+            }
+        });
+        // Ordre stable des verrous de lignes entre instances
+        deltas.sort(Comparator.comparing(Delta::id));
+        return deltas;
+    }
+
+    /** Nombre d'annonces suivies en mémoire (retirées après quelques flushs sans activité). */
+    int trackedListings() {
+        return counters.size();
+    }
+
+    private void add(UUID listingId, long views, long contacts) {
+        Counter c = counter(listingId);
+        if (views != 0) c.views.add(views);
+        if (contacts != 0) c.contacts.add(contacts);
+        // Ligne retirée par le flush entre sa lecture et l'ajout, après son dernier relevé :
+        // le reliquat passe sur la ligne courante (chaque unité n'est relevée qu'une fois)
+        if (counters.get(listingId) != c) {
+            long lateViews = c.views.sumThenReset();
+            long lateContacts = c.contacts.sumThenReset();
+            if (lateViews != 0 || lateContacts != 0) add(listingId, lateViews, lateContacts);
+        }
+    }
+
+    private Counter counter(UUID listingId) {
+        Counter c = counters.get(listingId);
+        return c != null ? c : counters.computeIfAbsent(listingId, k -> new Counter());
+    }
+}
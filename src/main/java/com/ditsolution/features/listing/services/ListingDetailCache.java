@@ -0,0 +1,59 @@
+package com.ditsolution.features.listing.services;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.ditsolution.common.cache.BoundedCache;
+import com.ditsolution.features.listing.dto.ListingDto;
+import com.ditsolution.features.listing.search.ListingChangedEvent;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+/**
+ * Cache des {@link ListingDto} complets (photos incluses) servis par GET /listings/{id}.
+ * Invalidé après commit de toute modification d'annonce ({@link ListingChangedEvent}),
+ * y compris la modération admin.
+ */
+@ApplicationScoped
+public class ListingDetailCache {
+
+    @ConfigProperty(name = "app.listing.detail-cache.max-size", defaultValue = "10000")
+    int maxSize;
+
+    @ConfigProperty(name = "app.listing.detail-cache.ttl", defaultValue = "5m")
+    Duration ttl;
+
+    private BoundedCache<UUID, ListingDto> cache;
+
+    @PostConstruct
+    void init() {
+        cache = new BoundedCache<>(maxSize, ttl);
+    }
+
+    public ListingDto get(UUID id, Function<UUID, ListingDto> loader) {
+        return cache.get(id, loader);
+    }
+
+    /** DTO en cache ou null, sans chargement. */
+    public ListingDto peek(UUID id) {
+        return cache.getIfPresent(id);
+    }
+
+    public void invalidate(UUID id) {
+        cache.invalidate(id);
+    }
+
+    public BoundedCache.Stats stats() {
+        return cache.stats();
+    }
+
+    void onListingChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) ListingChangedEvent event) {
+        cache.invalidate(event.listing().id());
+    }
+}
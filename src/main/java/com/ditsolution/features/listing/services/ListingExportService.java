@@ -0,0 +1,109 @@
+package com.ditsolution.features.listing.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.ditsolution.common.utils.HttpErrors;
+import com.ditsolution.features.listing.dto.ListingExportDto;
+import com.ditsolution.features.listing.repository.ListingRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.StreamingOutput;
+
+/**
+ * Export NDJSON du catalogue public (une annonce JSON par ligne), écrit au fil du curseur base :
+ * ni la liste complète ni la réponse ne sont gardées en mémoire.
+ *
+ * Chaque export tient une connexion du pool, une transaction et un curseur jusqu'à la fin du flux :
+ * leur nombre simultané est borné ({@code max-concurrent}), au-delà la demande est refusée (429).
+ */
+@ApplicationScoped
+public class ListingExportService {
+
+    private static final Logger LOG = Logger.getLogger(ListingExportService.class);
+
+    @Inject ListingRepository listingRepo;
+    @Inject ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "app.listing.export.fetch-size", defaultValue = "500")
+    int fetchSize;
+
+    // Un export complet peut dépasser le timeout de transaction par défaut
+    @ConfigProperty(name = "app.listing.export.timeout-seconds", defaultValue = "1800")
+    int timeoutSeconds;
+
+    @ConfigProperty(name = "app.listing.export.max-concurrent", defaultValue = "2")
+    int maxConcurrent;
+
+    private Semaphore slots;
+
+    @PostConstruct
+    void init() {
+        slots = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Réserve une place d'export (429 sinon) et renvoie le corps de réponse, qui la libère en fin de flux.
+     * Le conteneur écrit toujours le corps d'une réponse 200 : la place ne peut pas rester prise.
+     */
+    public StreamingOutput open(Instant updatedSince, UUID afterId) {
+        if (!slots.tryAcquire()) {
+            throw HttpErrors.tooManyRequests("EXPORT_BUSY", "Trop d'exports en cours, réessayez plus tard");
+        }
+        return out -> {
+            try {
+                export(updatedSince, afterId, out);
+            } finally {
+                slots.release();
+            }
+        };
+    }
+
+    /**
+     * Écrit les annonces publiées (modifiées depuis {@code updatedSince} si fourni, après {@code afterId}
+     * à cette date exacte : reprise sans trou ni doublon sur la clé (updated_at, id)) dans {@code out}.
+     * Le flux est vidé à chaque lot de {@code fetch-size} lignes pour que le client reçoive au fil de l'eau.
+     */
+    void export(Instant updatedSince, UUID afterId, OutputStream out) throws IOException {
+        // Vidage par lot seulement, pas après chaque ligne
+        ObjectWriter writer = objectMapper.writerFor(ListingExportDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long started = System.nanoTime();
+        long[] written = { 0 };
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            // Le flux de la réponse appartient au conteneur : ne pas le fermer avec le générateur
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            QuarkusTransaction.requiringNew().timeout(timeoutSeconds).run(() ->
+                    listingRepo.scrollForExport(updatedSince, afterId, fetchSize, row -> {
+                        try {
+                            writer.writeValue(json, row);
+                            json.writeRaw('\n');
+                            if (++written[0] % fetchSize == 0) json.flush();
+                        } catch (IOException e) {
+                            // Client parti : on arrête le parcours (la transaction, en lecture seule, est annulée)
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+            json.flush();
+        } catch (UncheckedIOException e) {
+            LOG.debugf("Export interrompu après %d annonces : %s", written[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+        LOG.infof("Export catalogue : %d annonces en %d ms (updatedSince=%s, afterId=%s)",
+                written[0], (System.nanoTime() - started) / 1_000_000, updatedSince, afterId);
+    }
+}
@@ -0,0 +1,221 @@
+package com.ditsolution.features.listing.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.ditsolution.common.services.BaseService;
+import com.ditsolution.common.utils.CsvReader;
+import com.ditsolution.features.auth.entity.UserEntity;
+import com.ditsolution.features.listing.dto.ListingCreateDto;
+import com.ditsolution.features.listing.dto.ListingImportResultDto;
+import com.ditsolution.features.listing.dto.ListingImportResultDto.Created;
+import com.ditsolution.features.listing.dto.ListingImportResultDto.RowError;
+import com.ditsolution.features.listing.enums.ListingType;
+import com.ditsolution.features.listing.repository.ListingImportRepository;
+import com.ditsolution.features.listing.repository.ListingImportRepository.NewListing;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Import en masse d'annonces (agences) : tout est validé avant la moindre écriture, les lignes valides
+ * sont insérées en brouillon par lots JDBC, les lignes invalides sont rapportées une par une.
+ *
+ * Contrairement à la création unitaire, pas d'e-mail par annonce ni d'événement catalogue :
+ * des brouillons ne changent rien au catalogue public.
+ */
+@ApplicationScoped
+public class ListingImportService extends BaseService {
+
+    private static final Logger LOG = Logger.getLogger(ListingImportService.class);
+
+    /** Colonnes reconnues de l'import CSV (photos : URLs séparées par '|'). */
+    static final List<String> CSV_COLUMNS = List.of(
+            "type", "city", "district", "price", "title", "description", "latitude", "longitude",
+            "rooms", "floor", "buildingYear", "energyClass",
+            "hasElevator", "hasParking", "hasBalcony", "hasTerrace", "photos");
+
+    @Inject ListingService listingService;
+    @Inject ListingImportRepository importRepo;
+
+    @ConfigProperty(name = "app.listing.import.max-rows", defaultValue = "5000")
+    int maxRows;
+
+    /** Ligne à importer : annonce lue, ou erreur de lecture (CSV). */
+    private record Row(int row, ListingCreateDto dto, RowError error) {}
+
+    @Transactional
+    public ListingImportResultDto importJson(UserEntity owner, List<ListingCreateDto> listings) {
+        if (listings == null || listings.isEmpty()) throw badRequest("VALIDATION_ERROR", "Aucune annonce à importer");
+        checkSize(listings.size());
+        List<Row> rows = new ArrayList<>(listings.size());
+        for (int i = 0; i < listings.size(); i++) rows.add(new Row(i + 1, listings.get(i), null));
+        return importRows(owner, rows);
+    }
+
+    @Transactional
+    public ListingImportResultDto importCsv(UserEntity owner, Reader body) {
+        List<Row> rows;
+        try {
+            rows = parseCsv(body);
+        } catch (IOException e) {
+            throw badRequest("INVALID_CSV", e.getMessage());
+        }
+        if (rows.isEmpty()) throw badRequest("VALIDATION_ERROR", "Aucune annonce à importer");
+        return importRows(owner, rows);
+    }
+
+    private ListingImportResultDto importRows(UserEntity owner, List<Row> rows) {
+        long started = System.nanoTime();
+        List<NewListing> accepted = new ArrayList<>(rows.size());
+        List<Created> created = new ArrayList<>(rows.size());
+        List<RowError> errors = new ArrayList<>();
+        Set<String> urls = new LinkedHashSet<>();
+
+        // 1. Validation complète avant toute écriture
+        for (Row r : rows) {
+            if (r.error() != null) {
+                errors.add(r.error());
+                continue;
+            }
+            var violation = listingService.creationViolation(r.dto());
+            if (violation != null) {
+                errors.add(new RowError(r.row(), violation.code(), violation.message()));
+                continue;
+            }
+            var listing = toNewListing(r.dto());
+            accepted.add(listing);
+            created.add(new Created(r.row(), listing.id()));
+            urls.addAll(listing.photos());
+        }
+
+        // 2. Insertion par lots, puis images marquées utilisées en une requête
+        importRepo.insertAll(owner.getId(), accepted, Instant.now());
+        importRepo.markPhotosUsed(owner.getId(), urls);
+
+        LOG.infof("Import de %d annonces pour %s : %d créées, %d rejetées en %d ms",
+                rows.size(), owner.getId(), accepted.size(), errors.size(), (System.nanoTime() - started) / 1_000_000);
+        return new ListingImportResultDto(rows.size(), accepted.size(), created, errors);
+    }
+
+    private NewListing toNewListing(ListingCreateDto dto) {
+        return new NewListing(
+                UUID.randomUUID(), dto.type(), trim(dto.city()), trim(dto.district()), dto.price(),
+                trim(dto.title()), dto.description(), dto.latitude(), dto.longitude(),
+                dto.rooms(), dto.floor(), dto.buildingYear(), dto.energyClass(),
+                Boolean.TRUE.equals(dto.hasElevator()), Boolean.TRUE.equals(dto.hasParking()),
+                Boolean.TRUE.equals(dto.hasBalcony()), Boolean.TRUE.equals(dto.hasTerrace()),
+                ListingService.photoUrls(dto));
+    }
+
+    private void checkSize(int size) {
+        if (size > maxRows) throw badRequest("IMPORT_TOO_LARGE", "Maximum " + maxRows + " annonces par import");
+    }
+
+    // ------- CSV -------
+
+    /**
+     * Première ligne : en-tête (noms de {@link #CSV_COLUMNS}, dans n'importe quel ordre, colonnes absentes = vides).
+     * Séparateur ',' ou ';' (détecté sur l'en-tête). Les erreurs de valeur sont rapportées par ligne.
+     */
+    private List<Row> parseCsv(Reader body) throws IOException {
+        var in = body instanceof BufferedReader b ? b : new BufferedReader(body);
+        in.mark(8192);
+        var firstLine = new StringBuilder();
+        for (int c = in.read(); c != -1 && c != '\n' && firstLine.length() < 8192; c = in.read()) firstLine.append((char) c);
+        in.reset();
+        char separator = firstLine.indexOf(";") >= 0 && firstLine.indexOf(",") < 0 ? ';' : ',';
+
+        var csv = new CsvReader(in, separator);
+        List<String> header = csv.next();
+        if (header == null) return List.of();
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).strip().replace("\uFEFF", "");
+            if (name.isEmpty()) continue;
+            if (!CSV_COLUMNS.contains(name)) throw new IOException("Colonne inconnue : " + name);
+            index.put(name, i);
+        }
+
+        List<Row> rows = new ArrayList<>();
+        for (List<String> record = csv.next(); record != null; record = csv.next()) {
+            if (record.size() == 1 && record.get(0).isBlank()) continue; // ligne vide
+            checkSize(rows.size() + 1);
+            int row = rows.size() + 1;
+            try {
+                rows.add(new Row(row, toDto(record, index), null));
+            } catch (IllegalArgumentException e) {
+                rows.add(new Row(row, null, new RowError(row, "VALIDATION_ERROR", e.getMessage())));
+            }
+        }
+        return rows;
+    }
+
+    private static ListingCreateDto toDto(List<String> record, Map<String, Integer> index) {
+        Map<String, String> v = new HashMap<>();
+        index.forEach((name, i) -> {
+            String value = i < record.size() ? record.get(i).trim() : "";
+            if (!value.isEmpty()) v.put(name, value);
+        });
+        return new ListingCreateDto(
+                v.containsKey("type") ? parse("type", v.get("type"), s -> ListingType.valueOf(s.toUpperCase(Locale.ROOT))) : null,
+                v.get("city"),
+                v.get("district"),
+                decimal("price", v.get("price")),
+                v.get("title"),
+                v.get("description"),
+                decimal("latitude", v.get("latitude")),
+                decimal("longitude", v.get("longitude")),
+                integer("rooms", v.get("rooms")),
+                integer("floor", v.get("floor")),
+                integer("buildingYear", v.get("buildingYear")),
+                v.get("energyClass"),
+                bool("hasElevator", v.get("hasElevator")),
+                bool("hasParking", v.get("hasParking")),
+                bool("hasBalcony", v.get("hasBalcony")),
+                bool("hasTerrace", v.get("hasTerrace")),
+                v.containsKey("photos") ? Arrays.stream(v.get("photos").split("\\|")).map(String::trim).toList() : null);
+    }
+
+    private static BigDecimal decimal(String column, String value) {
+        return value == null ? null : parse(column, value, BigDecimal::new);
+    }
+
+    private static Integer integer(String column, String value) {
+        return value == null ? null : parse(column, value, Integer::valueOf);
+    }
+
+    private static Boolean bool(String column, String value) {
+        if (value == null) return null;
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "oui", "yes" -> true;
+            case "false", "0", "non", "no" -> false;
+            default -> throw new IllegalArgumentException(column + " : booléen attendu (true/false), reçu '" + value + "'");
+        };
+    }
+
+    private static <T> T parse(String column, String value, Function<String, T> parser) {
+        try {
+            return parser.apply(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(column + " : valeur invalide '" + value + "'");
+        }
+    }
+}
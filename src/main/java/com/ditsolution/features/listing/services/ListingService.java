@@ -1,29 +1,62 @@
 package com.ditsolution.features.listing.services;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
 import com.ditsolution.common.services.BaseService;
 import com.ditsolution.common.services.EmailService;
+import com.ditsolution.common.utils.ETags;
 import com.ditsolution.common.utils.HttpErrors;
 import com.ditsolution.features.auth.entity.UserEntity;
+import com.ditsolution.features.listing.dto.CursorPagedDto;
 import com.ditsolution.features.listing.dto.FiltersDto;
 import com.ditsolution.features.listing.dto.ListingCreateDto;
+import com.ditsolution.features.listing.dto.ListingDto;
+import com.ditsolution.features.listing.dto.ListingFacetsDto;
+import com.ditsolution.features.listing.dto.ListingMapDto;
+import com.ditsolution.features.listing.dto.ListingPriceStatsDto;
+import com.ditsolution.features.listing.dto.ListingStatsDto;
+import com.ditsolution.features.listing.dto.ListingSummaryDto;
+import com.ditsolution.features.listing.dto.ListingSuggestionDto;
 import com.ditsolution.features.listing.dto.ListingUpdateDto;
 import com.ditsolution.features.listing.dto.PageRequestDto;
 import com.ditsolution.features.listing.dto.PagedDto;
 import com.ditsolution.features.listing.entity.ListingEntity;
 import com.ditsolution.features.listing.entity.ListingPhotoEntity;
 import com.ditsolution.features.listing.enums.ListingStatus;
+import com.ditsolution.features.listing.enums.ListingType;
+import com.ditsolution.features.listing.mapper.ListingMapper;
 import com.ditsolution.features.listing.repository.ListingPhotoRepository;
 import com.ditsolution.features.listing.repository.ListingRepository;
+import com.ditsolution.features.listing.search.ListingChangedEvent;
+import com.ditsolution.features.listing.search.ListingColumnarIndex;
+import com.ditsolution.features.listing.search.ListingCursor;
+import com.ditsolution.features.listing.search.ListingFacetIndex;
+import com.ditsolution.features.listing.search.ListingMapIndex;
+import com.ditsolution.features.listing.search.ListingPriceIndex;
+import com.ditsolution.features.listing.search.ListingSearchCache;
+import com.ditsolution.features.listing.search.ListingSuggestIndex;
+import com.ditsolution.features.listing.search.ListingSimilarityIndex;
+import com.ditsolution.features.listing.search.ListingSearchPlanner;
+import com.ditsolution.features.listing.search.ListingSnapshot;
+import com.ditsolution.features.listing.search.ListingSort;
+import com.ditsolution.features.listing.search.MapClusterIndex;
 import com.ditsolution.features.storage.service.FileValidationService;
 import com.ditsolution.features.storage.entity.UploadedImageEntity;
 import com.ditsolution.features.notification.service.NotificationTriggerService;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.NotFoundException;
@@ -33,12 +66,32 @@ import jakarta.ws.rs.NotFoundException;
 public class ListingService extends BaseService{
 
     private static final int MAX_PHOTOS = 5;
+    // Tailles des colonnes de listings (V4, V10) et listing_photos (V8)
+    static final int MAX_TITLE_LENGTH = 255;
+    static final int MAX_CITY_LENGTH = 100;
+    static final int MAX_ENERGY_CLASS_LENGTH = 10;
+    static final int MAX_PHOTO_URL_LENGTH = 1000;
 
     @Inject ListingRepository listingRepo;
     @Inject ListingPhotoRepository photoRepo;
     @Inject FileValidationService fileValidationService;
     @Inject EmailService emailService;
     @Inject NotificationTriggerService notificationTriggerService;
+    @Inject Event<ListingChangedEvent> listingChanged;
+    @Inject ListingMapper mapper;
+    @Inject ListingDetailCache detailCache;
+    @Inject ListingSearchCache searchCache;
+    @Inject ListingFacetIndex facetIndex;
+    @Inject ListingSimilarityIndex similarityIndex;
+    @Inject ListingMapIndex mapIndex;
+    @Inject ListingSuggestIndex suggestIndex;
+    @Inject ListingPriceIndex priceIndex;
+    @Inject ListingSearchPlanner planner;
+    @Inject ListingColumnarIndex columnarIndex;
+    @Inject ListingCounters counters;
+
+    @ConfigProperty(name = "app.search.max-radius-km", defaultValue = "100")
+    double maxRadiusKm;
 
     // =========================
     // Méthodes métier
@@ -82,40 +135,33 @@ public class ListingService extends BaseService{
 
         listingRepo.persist(listing);
 
-        // Photos (1-5) avec validation obligatoire
-        var photos = safeList(dto.photos());
-        if (photos.isEmpty()) {
-            throw HttpErrors.badRequest("PHOTOS_REQUIRED", "Au moins " + fileValidationService.getMinPhotosPerListing() + " photo est obligatoire");
-        }
-        if (!fileValidationService.isValidPhotoCount(photos.size())) {
-            throw HttpErrors.badRequest("PHOTOS_LIMIT", "Entre " + fileValidationService.getMinPhotosPerListing() + " et " + fileValidationService.getMaxPhotosPerListing() + " photos requises");
-        }
-        
+        // Photos (1-5), déjà validées par validateCreate
+        var urls = photoUrls(dto);
         int ordering = 0;
-        for (String url : photos) {
-            if (isBlank(url)) continue;
-            
-            // Validation basique de l'URL (doit être une URL S3 publique)
-            if (!isValidS3Url(url.trim())) {
-                throw HttpErrors.badRequest("INVALID_PHOTO_URL", "URL de photo invalide");
-            }
-            
-            // Marquer l'image comme utilisée si elle appartient à l'utilisateur
-            markImageAsUsed(url.trim(), owner.getId());
-            
+        for (String url : urls) {
             var p = new ListingPhotoEntity();
             p.setListing(listing);
-            p.setUrl(url.trim());
+            p.setUrl(url);
             p.setOrdering(ordering++);
             photoRepo.persist(p);
         }
 
+        // Marquer les images de l'utilisateur comme utilisées (une seule requête)
+        UploadedImageEntity.markUsed(owner.getId(), urls);
+
         emailService.sendListingPublishedEmail(owner.getEmail(), listing.getTitle());
 
+        notifyListingChanged(null, listing);
         return listing;
     }
 
-    private boolean isValidS3Url(String url) {
+    /** URLs de photos non vides, trimées, dans l'ordre d'affichage. */
+    static List<String> photoUrls(ListingCreateDto dto) {
+        if (dto.photos() == null) return List.of();
+        return dto.photos().stream().filter(u -> u != null && !u.isBlank()).map(String::trim).toList();
+    }
+
+    private static boolean isValidS3Url(String url) {
         if (url == null || url.isEmpty()) {
             return false;
         }
@@ -126,62 +172,233 @@ public class ListingService extends BaseService{
                (url.contains("s3.amazonaws.com") || url.contains("s3.") || url.contains("example.com"));
     }
 
-    private void markImageAsUsed(String publicUrl, UUID userId) {
-        // Trouver l'image par URL publique et ID utilisateur
-        var image = UploadedImageEntity.find("publicUrl = ?1 and userId = ?2", publicUrl, userId).firstResult();
-        if (image != null) {
-            ((UploadedImageEntity) image).setIsUsed(true);
-            image.persist();
+    public PagedDto<ListingEntity> listListings(FiltersDto f, ListingSort sort, PageRequestDto page) {
+        var cached = searchPage(f, sort, page);
+        var items = listingRepo.findPublishedByIdsInOrder(cached.ids());
+        return new PagedDto<>(items, cached.total(), page.page(), page.size());
+    }
+
+    /**
+     * Même recherche que {@link #listListings} en vue résumé : une requête de projection, sans photos N+1.
+     */
+    public PagedDto<ListingSummaryDto> listListingSummaries(FiltersDto f, ListingSort sort, PageRequestDto page) {
+        var cached = searchPage(f, sort, page);
+        var items = listingRepo.findSummariesByIdsInOrder(cached.ids());
+        return new PagedDto<>(items, cached.total(), page.page(), page.size());
+    }
+
+    /**
+     * Compteurs par ville, quartier, type, pièces et tranche de prix pour les filtres courants.
+     */
+    public ListingFacetsDto getFacets(FiltersDto f) {
+        return facetIndex.facets(ListingSearchCache.normalize(f))
+                .orElseThrow(() -> HttpErrors.serviceUnavailable("FACETS_NOT_READY", "Index des facettes en cours de chargement"));
+    }
+
+    /**
+     * Vue carte : groupes pré-agrégés de l'emprise {@code bbox} ("minLng,minLat,maxLng,maxLat") au zoom donné.
+     */
+    public ListingMapDto getMap(String bbox, int zoom) {
+        if (zoom < 0 || zoom > 22) throw badRequest("VALIDATION_ERROR", "zoom doit être compris entre 0 et 22");
+        var box = parseBBox(bbox);
+        try {
+            return mapIndex.map(box, zoom)
+                    .orElseThrow(() -> HttpErrors.serviceUnavailable("MAP_NOT_READY", "Index de la carte en cours de chargement"));
+        } catch (MapClusterIndex.TooManyCellsException e) {
+            throw badRequest("BBOX_TOO_LARGE", e.getMessage());
         }
     }
 
-    public PagedDto<ListingEntity> listListings(FiltersDto f, PageRequestDto page) {
-        // Filtre uniquement les ACTIVE (soft delete caché)
-        var where = new StringBuilder("status = :active");
-        var params = new HashMap<String, Object>();
-        params.put("active", ListingStatus.PUBLISHED);
+    private static MapClusterIndex.BBox parseBBox(String bbox) {
+        if (bbox == null || bbox.isBlank()) throw HttpErrors.badRequest("INVALID_BBOX", "bbox est requis (minLng,minLat,maxLng,maxLat)");
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) throw HttpErrors.badRequest("INVALID_BBOX", "bbox doit contenir 4 valeurs (minLng,minLat,maxLng,maxLat)");
+        double[] v = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) v[i] = Double.parseDouble(parts[i].trim());
+        } catch (NumberFormatException e) {
+            throw HttpErrors.badRequest("INVALID_BBOX", "bbox contient une valeur non numérique");
+        }
+        if (Math.abs(v[0]) > 180 || Math.abs(v[2]) > 180 || Math.abs(v[1]) > 90 || Math.abs(v[3]) > 90 || v[1] > v[3]) {
+            throw HttpErrors.badRequest("INVALID_BBOX", "bbox hors limites");
+        }
+        return new MapClusterIndex.BBox(v[0], v[1], v[2], v[3]);
+    }
+
+    /**
+     * Autocomplétion des villes et quartiers (sans accents ni casse), les plus fournis d'abord.
+     * Un préfixe vide renvoie les plus fournis du catalogue.
+     */
+    public List<ListingSuggestionDto> suggest(String prefix, int limit) {
+        if (limit < 1 || limit > 20) throw badRequest("VALIDATION_ERROR", "limit doit être compris entre 1 et 20");
+        if (prefix != null && prefix.length() > 100) throw badRequest("VALIDATION_ERROR", "prefix trop long (100 caractères max)");
+        return suggestIndex.suggest(prefix, limit)
+                .orElseThrow(() -> HttpErrors.serviceUnavailable("SUGGEST_NOT_READY", "Index d'autocomplétion en cours de chargement"))
+                .stream()
+                .map(s -> new ListingSuggestionDto(s.kind().name(), s.label(), s.city(), s.count()))
+                .toList();
+    }
+
+    /**
+     * Prix du marché (quartiles, médiane) des annonces publiées d'une ville, affinés par quartier, type
+     * et nombre de pièces ; calculés en mémoire à partir des sketches de {@link ListingPriceIndex}.
+     */
+    public ListingPriceStatsDto priceStats(String city, String district, ListingType type, Integer rooms) {
+        if (city == null || city.isBlank()) throw badRequest("VALIDATION_ERROR", "city est requis");
+        if (rooms != null && rooms < 0) throw badRequest("VALIDATION_ERROR", "rooms doit être ≥ 0");
+        var stats = priceIndex.stats(city, district, type, rooms)
+                .orElseThrow(() -> HttpErrors.serviceUnavailable("PRICE_STATS_NOT_READY", "Statistiques de prix en cours de chargement"));
+        boolean empty = stats.count() == 0;
+        return new ListingPriceStatsDto(city.trim(), trim(district), type, rooms, stats.count(),
+                empty ? null : BigDecimal.valueOf(stats.p25(), 2),
+                empty ? null : BigDecimal.valueOf(stats.median(), 2),
+                empty ? null : BigDecimal.valueOf(stats.p75(), 2));
+    }
+
+    /**
+     * Annonces publiées les plus proches de {@code id} (type, prix, pièces, position, équipements),
+     * calculées en mémoire ; seule l'hydratation des résumés interroge la base.
+     */
+    public List<ListingSummaryDto> getSimilarListings(UUID id, int k) {
+        if (k < 1 || k > 50) throw badRequest("VALIDATION_ERROR", "k doit être compris entre 1 et 50");
+        if (!similarityIndex.isReady()) {
+            throw HttpErrors.serviceUnavailable("SIMILAR_NOT_READY", "Index de similarité en cours de chargement");
+        }
+        var ids = similarityIndex.similarTo(id, k)
+                .orElseThrow(() -> HttpErrors.notFound("LISTING_NOT_FOUND", "Annonce publiée introuvable"));
+        return listingRepo.findSummariesByIdsInOrder(ids);
+    }
+
+    /**
+     * {@code sort} null : pertinence pour une recherche plein texte, distance avec un rayon, plus récentes sinon.
+     * Toujours un ordre total (départage par id) : l'OFFSET ne fait ni doublons ni trous entre pages.
+     */
+    private ListingSearchCache.CachedPage searchPage(FiltersDto f, ListingSort sort, PageRequestDto page) {
+        var normalized = ListingSearchCache.normalize(checkRadius(f));
+        var effective = sort != null || normalized.q() != null ? sort
+                : normalized.hasRadius()
+                        ? new ListingSort(ListingSort.Order.DISTANCE, normalized.latitude(), normalized.longitude())
+                        : ListingSort.NEWEST;
+
+        // Moteur en colonnes si activé : aucune requête avant l'hydratation de la page
+        var inMemory = columnarIndex.search(normalized, effective, page);
+        if (inMemory.isPresent()) return inMemory.get();
+
+        // Ids + total mis en cache par filtres normalisés et tri ; seule la page est rechargée
+        return searchCache.get(normalized, effective, page, () -> {
+            if (normalized.q() != null) {
+                var filter = planner.plan(normalized, ListingSearchPlanner.Dialect.SQL);
+                if (filter.isEmpty()) return new ListingSearchCache.CachedPage(List.of(), 0);
+                var ids = listingRepo.findIdsByText(normalized.q(), filter, effective, page.page(), page.size());
+                return new ListingSearchCache.CachedPage(ids, listingRepo.countByText(normalized.q(), filter));
+            }
+            var filter = planner.plan(normalized, ListingSearchPlanner.Dialect.HQL);
+            if (filter.isEmpty()) return new ListingSearchCache.CachedPage(List.of(), 0);
+            var params = new HashMap<>(filter.params());
+            var ids = listingRepo.findIds(filter.where() + effective.hqlOrderBy(params), params, page.page(), page.size());
+            long total = listingRepo.count(filter.where(), filter.params());
+            return new ListingSearchCache.CachedPage(ids, total);
+        });
+    }
 
-        if (!isBlank(f.city())) {
-            where.append(" AND LOWER(city) = :city");
-            params.put("city", f.city().toLowerCase());
+    /** Le rayon exige un centre valide et reste borné (le plan par bounding box en dépend). */
+    private FiltersDto checkRadius(FiltersDto f) {
+        if (f.radiusKm() == null) return f;
+        if (f.latitude() == null || f.longitude() == null) {
+            throw badRequest("VALIDATION_ERROR", "lat et lng sont requises avec radiusKm");
+        }
+        if (f.latitude().abs().doubleValue() > 90 || f.longitude().abs().doubleValue() > 180) {
+            throw badRequest("VALIDATION_ERROR", "lat/lng hors limites");
         }
-        if (!isBlank(f.district())) {
-            where.append(" AND LOWER(district) = :district");
-            params.put("district", f.district().toLowerCase());
+        if (!(f.radiusKm() > 0) || f.radiusKm() > maxRadiusKm) {
+            throw badRequest("VALIDATION_ERROR", "radiusKm doit être dans ]0, " + maxRadiusKm + "]");
         }
-        if (f.type() != null) {
-            where.append(" AND type = :type");
-            params.put("type", f.type());
+        return f;
+    }
+
+    /**
+     * Pagination par curseur (scroll infini) : tri par date ou par prix (plus récentes d'abord par défaut)
+     * et seek après {@code after}, sans OFFSET. Le total n'est calculé que si {@code withTotal}.
+     */
+    public CursorPagedDto<ListingEntity> listListingsAfter(FiltersDto f, ListingSort sort, ListingCursor after, int size, boolean withTotal) {
+        var slice = keysetSlice(f, sort, after, size, withTotal);
+        return new CursorPagedDto<>(listingRepo.findPublishedByIdsInOrder(slice.ids()), slice.nextCursor(), slice.total(), size);
+    }
+
+    public CursorPagedDto<ListingSummaryDto> listListingSummariesAfter(FiltersDto f, ListingSort sort, ListingCursor after, int size, boolean withTotal) {
+        var slice = keysetSlice(f, sort, after, size, withTotal);
+        return new CursorPagedDto<>(listingRepo.findSummariesByIdsInOrder(slice.ids()), slice.nextCursor(), slice.total(), size);
+    }
+
+    private record KeysetSlice(List<UUID> ids, String nextCursor, Long total) {}
+
+    private KeysetSlice keysetSlice(FiltersDto f, ListingSort sort, ListingCursor after, int size, boolean withTotal) {
+        if (size < 1) throw badRequest("VALIDATION_ERROR", "size doit être ≥ 1");
+        // Le classement par pertinence n'a pas de clé de seek stable
+        if (f.q() != null && !f.q().isBlank()) {
+            throw badRequest("VALIDATION_ERROR", "q n'est pas supporté avec la pagination par curseur (after)");
         }
-        if (f.minPrice() != null) {
-            where.append(" AND price >= :minPrice");
-            params.put("minPrice", f.minPrice());
+        if (sort == null) sort = ListingSort.NEWEST;
+        if (sort.isDistance()) {
+            throw badRequest("VALIDATION_ERROR", "sort=distance n'est pas supporté avec la pagination par curseur (after)");
         }
-        if (f.maxPrice() != null) {
-            where.append(" AND price <= :maxPrice");
-            params.put("maxPrice", f.maxPrice());
+        var filter = planner.plan(checkRadius(f), ListingSearchPlanner.Dialect.HQL);
+        if (filter.isEmpty()) return new KeysetSlice(List.of(), null, withTotal ? 0L : null);
+        var where = new StringBuilder(filter.where());
+        var params = new HashMap<>(filter.params());
+
+        if (after != null) {
+            boolean byPrice = sort.order() == ListingSort.Order.PRICE_ASC || sort.order() == ListingSort.Order.PRICE_DESC;
+            if (byPrice && after.price() == null) throw badRequest("INVALID_CURSOR", "Curseur émis pour un autre tri");
+            String column = byPrice ? "price" : "createdAt";
+            String op = sort.order().descending() ? "<" : ">";
+            // Même sens pour la clé et l'id : le seek reste un parcours de plage de l'index (V33/V38)
+            where.append(" AND (").append(column).append(' ').append(op).append(" :afterKey OR (")
+                    .append(column).append(" = :afterKey AND id ").append(op).append(" :afterId))");
+            params.put("afterKey", byPrice ? after.price() : after.createdAt());
+            params.put("afterId", after.id());
         }
+        where.append(sort.hqlOrderBy(params));
 
-        var q = listingRepo.find(where.toString(), params).page(page.page(), page.size());
-        var items = q.list();
-        long total = listingRepo.count(where.toString(), params);
+        // Une ligne de plus pour savoir s'il existe une page suivante
+        var keys = listingRepo.findCursorKeys(where.toString(), params, size + 1);
+        boolean hasNext = keys.size() > size;
+        if (hasNext) keys = keys.subList(0, size);
+        String nextCursor = hasNext ? keys.get(keys.size() - 1).encode() : null;
+        Long total = withTotal ? listingRepo.count(filter.where(), filter.params()) : null;
 
-        return new PagedDto<>(items, total, page.page(), page.size());
+        return new KeysetSlice(keys.stream().map(ListingCursor::id).toList(), nextCursor, total);
     }
 
+    private record Filter(String where, Map<String, Object> params) {}
+
     public PagedDto<ListingEntity> getUserListings(UUID userId, int page, int size) {
+        var filter = userFilter(userId);
+
+        var q = listingRepo.find(filter.where(), filter.params()).page(page, size);
+        var items = q.list();
+        long total = listingRepo.count(filter.where(), filter.params());
+
+        return new PagedDto<>(items, total, page, size);
+    }
+
+    public PagedDto<ListingSummaryDto> getUserListingSummaries(UUID userId, int page, int size) {
+        var filter = userFilter(userId);
+
+        var ids = listingRepo.findIds(filter.where(), filter.params(), page, size);
+        var items = listingRepo.findSummariesByIdsInOrder(ids);
+        long total = listingRepo.count(filter.where(), filter.params());
+
+        return new PagedDto<>(items, total, page, size);
+    }
+
+    private Filter userFilter(UUID userId) {
         // Récupérer toutes les annonces de l'utilisateur (y compris DRAFT, PUBLISHED, ARCHIVED)
         // Exclure seulement les REMOVED (soft delete)
-        var where = "owner.id = :userId AND status != :removed";
         var params = new HashMap<String, Object>();
         params.put("userId", userId);
         params.put("removed", ListingStatus.REMOVED);
-
-        var q = listingRepo.find(where, params).page(page, size);
-        var items = q.list();
-        long total = listingRepo.count(where, params);
-
-        return new PagedDto<>(items, total, page, size);
+        return new Filter("owner.id = :userId AND status != :removed", params);
     }
 
     public ListingEntity getListing(UUID id) {
@@ -194,11 +411,77 @@ public class ListingService extends BaseService{
         return l;
     }
 
+    /**
+     * Détail d'une annonce déjà mappé (photos comprises), servi depuis {@link ListingDetailCache}.
+     */
+    public ListingDto getListingDto(UUID id) {
+        return detailCache.get(id, key -> mapper.toDto(getListing(key)));
+    }
+
+    /** Vue de la page détail (compteur en mémoire, écrit par lots). */
+    public void recordView(UUID id) {
+        counters.recordView(id);
+    }
+
+    /** Clic sur "contacter le propriétaire". */
+    public void recordContact(UUID id) {
+        counters.recordContact(id);
+    }
+
+    /** Vues et contacts des annonces d'un propriétaire. */
+    public List<ListingStatsDto> getOwnerStats(UUID ownerId) {
+        return counters.ownerStats(ownerId);
+    }
+
+    /**
+     * ETag du détail, sans passer par le mapper : lu dans le cache s'il est chaud, sinon par une
+     * requête sur la seule colonne updated_at.
+     */
+    public String getListingETag(UUID id) {
+        var cached = detailCache.peek(id);
+        if (cached != null) return listingETag(cached);
+        var updatedAt = listingRepo.findUpdatedAt(id).orElseThrow(() -> new NotFoundException("Listing not found"));
+        return listingETag(id, updatedAt);
+    }
+
+    public static String listingETag(ListingDto dto) {
+        return listingETag(dto.id(), dto.updatedAt());
+    }
+
+    private static String listingETag(UUID id, Instant updatedAt) {
+        return ETags.weak(id + "-" + (updatedAt == null ? 0 : updatedAt.toEpochMilli()));
+    }
+
+    /**
+     * ETag d'une page de GET /listings : ids de la page (issus du cache versionné par le catalogue),
+     * total et dernière modification des annonces de la page. Identique d'une instance à l'autre.
+     * Pour évaluer If-None-Match avant hydratation : une requête MAX(updated_at) sur les ids de la page.
+     */
+    public String getListingsETag(FiltersDto f, ListingSort sort, PageRequestDto page, String view) {
+        var cached = searchPage(f, sort, page);
+        return listingsETag(cached, sort, page, view, listingRepo.findMaxUpdatedAt(cached.ids()));
+    }
+
+    /**
+     * Même ETag pour une page déjà hydratée : dernière modification lue sur la page, sans requête.
+     */
+    public String getListingsETag(FiltersDto f, ListingSort sort, PageRequestDto page, String view, List<Instant> updatedAts) {
+        var lastModified = updatedAts.stream().filter(Objects::nonNull).max(Comparator.naturalOrder()).orElse(null);
+        return listingsETag(searchPage(f, sort, page), sort, page, view, lastModified);
+    }
+
+    private static String listingsETag(ListingSearchCache.CachedPage cached, ListingSort sort, PageRequestDto page,
+                                       String view, Instant lastModified) {
+        return ETags.weak(ETags.digest("listings", view, sort == null ? "" : sort, page.page(), page.size(),
+                cached.total(), cached.ids(), lastModified));
+    }
+
     @Transactional
     public ListingEntity updateListing(UUID id, UserEntity actor, ListingUpdateDto dto) {
         var l = listingRepo.findById(id);
         if (l == null) throw new NotFoundException("Listing not found");
         ensureOwnerOrAdmin(l, actor);
+        var before = ListingSnapshot.of(l);
 
         if (dto.title().isPresent() && !isBlank(dto.title().get())) {
             l.setTitle(dto.title().get().trim());
@@ -233,24 +516,15 @@ public class ListingService extends BaseService{
         dto.hasBalcony().ifPresent(l::setHasBalcony);
         dto.hasTerrace().ifPresent(l::setHasTerrace);
 
-        // Remplacement complet des photos si fourni
+        // Photos si fournies : diff avec l'existant
         if (dto.photos().isPresent()) {
             var photos = safeList(dto.photos().get());
             if (photos.size() > MAX_PHOTOS) throw HttpErrors.badRequest("PHOTOS_LIMIT", "Maximum 5 photos");
-
-            photoRepo.delete("listing", l);
-            int ordering = 0;
-            for (String url : photos) {
-                if (isBlank(url)) continue;
-                var p = new ListingPhotoEntity();
-                p.setListing(l);
-                p.setUrl(url.trim());
-                p.setOrdering(ordering++);
-                photoRepo.persist(p);
-            }
+            replacePhotos(l, photos.stream().filter(u -> !isBlank(u)).map(String::trim).distinct().toList());
         }
 
         l.setUpdatedAt(OffsetDateTime.now().toInstant());
+        notifyListingChanged(before, l);
         
         // Déclencher les notifications pour les utilisateurs qui ont cette annonce en favori
         if (l.getStatus() == ListingStatus.PUBLISHED) {
@@ -260,6 +534,49 @@ public class ListingService extends BaseService{
         return l;
     }
 
+    /**
+     * Aligne les photos de {@code l} sur {@code urls} (ordre d'affichage) : les photos conservées sont
+     * réordonnées sur place, seules les nouvelles URLs sont insérées et seules les retirées supprimées.
+     * Avec le batching JDBC, le coût est d'un SELECT et d'au plus un lot par type d'écriture, quel que soit N.
+     */
+    void replacePhotos(ListingEntity l, List<String> urls) {
+        var photos = l.getPhotos();
+        var kept = new HashMap<String, ListingPhotoEntity>();
+        for (var p : photos) {
+            if (urls.contains(p.getUrl())) kept.putIfAbsent(p.getUrl(), p);
+        }
+        for (String url : urls) {
+            if (kept.containsKey(url)) continue;
+            if (!isValidS3Url(url)) throw HttpErrors.badRequest("INVALID_PHOTO_URL", "URL de photo invalide");
+            if (tooLong(url, MAX_PHOTO_URL_LENGTH))
+                throw HttpErrors.badRequest("INVALID_PHOTO_URL", "URL de photo : " + MAX_PHOTO_URL_LENGTH + " caractères maximum");
+        }
+
+        // Retirées (et doublons) : orphelines, supprimées au flush
+        List<String> removed = new ArrayList<>();
+        photos.removeIf(p -> {
+            if (kept.get(p.getUrl()) == p) return false;
+            removed.add(p.getUrl());
+            return true;
+        });
+        List<String> added = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            var p = kept.get(urls.get(i));
+            if (p == null) {
+                p = new ListingPhotoEntity();
+                p.setListing(l);
+                p.setUrl(urls.get(i));
+                photos.add(p);
+                added.add(urls.get(i));
+            }
+            if (p.getOrdering() == null || p.getOrdering() != i) p.setOrdering(i);
+        }
+        if (added.isEmpty() && removed.isEmpty()) return;
+
+        // Drapeaux des images du propriétaire : une requête pour les nouvelles, une pour les retirées
+        photoRepo.updateImageFlags(l.getOwner().getId(), added, removed);
+    }
+
     /**
      * Publier une annonce (DRAFT → PUBLISHED)
      */
@@ -274,11 +591,11 @@ public class ListingService extends BaseService{
         }
         
         String oldStatus = listing.getStatus().toString();
+        var before = ListingSnapshot.of(listing);
         listing.setStatus(ListingStatus.PUBLISHED);
         listing.setUpdatedAt(OffsetDateTime.now().toInstant());
-        
-        // Déclencher les notifications pour les utilisateurs intéressés
-        notificationTriggerService.triggerNewListingMatchNotification(listing);
+        // Les alertes des recherches sauvegardées partent après commit (NotificationTriggerService)
+        notifyListingChanged(before, listing);
         
         return listing;
     }
@@ -296,8 +613,10 @@ public class ListingService extends BaseService{
             throw HttpErrors.badRequest("INVALID_STATUS", "Seules les annonces publiées peuvent être archivées");
         }
         
+        var before = ListingSnapshot.of(listing);
         listing.setStatus(ListingStatus.ARCHIVED);
         listing.setUpdatedAt(OffsetDateTime.now().toInstant());
+        notifyListingChanged(before, listing);
         return listing;
     }
 
@@ -306,22 +625,71 @@ public class ListingService extends BaseService{
         var l = listingRepo.findById(id);
         if (l == null) throw new NotFoundException("Listing not found");
         ensureOwnerOrAdmin(l, actor);
+        var before = ListingSnapshot.of(l);
         l.setStatus(ListingStatus.REMOVED); // soft delete
         l.setUpdatedAt(OffsetDateTime.now().toInstant());
+        notifyListingChanged(before, l);
+    }
+
+    /**
+     * Propage l'état courant de l'annonce aux index en mémoire (appliqué après commit).
+     */
+    private void notifyListingChanged(ListingSnapshot before, ListingEntity l) {
+        listingChanged.fire(new ListingChangedEvent(before, ListingSnapshot.of(l)));
     }
 
     private void validateCreate(ListingCreateDto dto) {
-        if (dto == null) throw badRequest("VALIDATION_ERROR", "payload requis");
+        var violation = creationViolation(dto);
+        if (violation != null) throw badRequest(violation.code(), violation.message());
+    }
+
+    /** Règle de création non respectée (code d'erreur + message). */
+    record Violation(String code, String message) {}
+
+    /**
+     * Première règle de création violée par {@code dto}, null s'il est valide.
+     * Partagée par la création unitaire et l'import en masse (erreurs par ligne).
+     */
+    Violation creationViolation(ListingCreateDto dto) {
+        if (dto == null) return new Violation("VALIDATION_ERROR", "payload requis");
         if (dto.title() == null || dto.title().isBlank())
-            throw badRequest("VALIDATION_ERROR", "title est requis");
+            return new Violation("VALIDATION_ERROR", "title est requis");
         if (dto.city() == null || dto.city().isBlank())
-            throw badRequest("VALIDATION_ERROR", "city est requis");
+            return new Violation("VALIDATION_ERROR", "city est requis");
         if (dto.type() == null)
-            throw badRequest("VALIDATION_ERROR", "type est requis");
+            return new Violation("VALIDATION_ERROR", "type est requis");
+        // Valeurs telles qu'enregistrées : un dépassement ferait échouer l'insertion (et tout un import)
+        if (tooLong(trim(dto.title()), MAX_TITLE_LENGTH))
+            return new Violation("VALIDATION_ERROR", "title : " + MAX_TITLE_LENGTH + " caractères maximum");
+        if (tooLong(trim(dto.city()), MAX_CITY_LENGTH))
+            return new Violation("VALIDATION_ERROR", "city : " + MAX_CITY_LENGTH + " caractères maximum");
+        if (tooLong(trim(dto.district()), MAX_CITY_LENGTH))
+            return new Violation("VALIDATION_ERROR", "district : " + MAX_CITY_LENGTH + " caractères maximum");
+        if (tooLong(dto.energyClass(), MAX_ENERGY_CLASS_LENGTH))
+            return new Violation("VALIDATION_ERROR", "energyClass : " + MAX_ENERGY_CLASS_LENGTH + " caractères maximum");
         if (dto.price() == null || dto.price().compareTo(BigDecimal.ZERO) < 0)
-            throw badRequest("VALIDATION_ERROR", "price doit être ≥ 0");
+            return new Violation("VALIDATION_ERROR", "price doit être ≥ 0");
         if (dto.photos() != null && dto.photos().size() > 5)
-            throw badRequest("PHOTOS_LIMIT", "Maximum 5 photos");
+            return new Violation("PHOTOS_LIMIT", "Maximum 5 photos");
+
+        // Photos (1-5) avec validation obligatoire
+        var urls = photoUrls(dto);
+        if (safeList(dto.photos()).isEmpty())
+            return new Violation("PHOTOS_REQUIRED", "Au moins " + fileValidationService.getMinPhotosPerListing() + " photo est obligatoire");
+        if (!fileValidationService.isValidPhotoCount(dto.photos().size()))
+            return new Violation("PHOTOS_LIMIT", "Entre " + fileValidationService.getMinPhotosPerListing() + " et " + fileValidationService.getMaxPhotosPerListing() + " photos requises");
+        // Validation basique de l'URL (doit être une URL S3 publique)
+        for (String url : urls) {
+            if (!isValidS3Url(url)) return new Violation("INVALID_PHOTO_URL", "URL de photo invalide");
+            if (tooLong(url, MAX_PHOTO_URL_LENGTH))
+                return new Violation("INVALID_PHOTO_URL", "URL de photo : " + MAX_PHOTO_URL_LENGTH + " caractères maximum");
+        }
+        return null;
+    }
+
+    /** VARCHAR(n) compte des caractères (points de code), pas des unités UTF-16. */
+    private static boolean tooLong(String value, int max) {
+        return value != null && value.codePointCount(0, value.length()) > max;
     }
 
      // ------- règles d’accès -------
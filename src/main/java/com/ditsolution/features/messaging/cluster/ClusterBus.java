@@ -0,0 +1,34 @@
+package com.ditsolution.features.messaging.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Bus entre les nœuds de l'API : les sessions WebSocket vivent dans la mémoire d'un seul nœud, chaque
+ * événement livré localement est aussi publié ici pour les sessions ouvertes sur les autres.
+ *
+ * Implémentation par défaut : {@link PgNotifyClusterBus}. Une autre implémentation se branche comme
+ * bean {@code @Alternative} prioritaire.
+ *
+ * Au mieux : un événement publié pendant une panne du bus est perdu pour les autres nœuds, leurs
+ * clients se resynchronisent via /conversations.
+ */
+public interface ClusterBus {
+    
+    /**
+     * Publie un événement vers les autres nœuds, sans bloquer l'appelant
+     */
+    void publish(ClusterEvent event);
+    
+    /**
+     * Reçoit les événements publiés par les autres nœuds (jamais ceux de ce nœud)
+     */
+    void subscribe(Consumer<ClusterEvent> handler);
+    
+    Stats stats();
+    
+    /**
+     * Vue exposée au monitoring. {@code notifications} : messages envoyés au bus, chacun regroupant
+     * plusieurs événements.
+     */
+    record Stats(boolean enabled, boolean connected, long published, long notifications, long received, long dropped) {}
+}
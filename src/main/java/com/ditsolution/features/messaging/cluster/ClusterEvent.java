@@ -0,0 +1,11 @@
+package com.ditsolution.features.messaging.cluster;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Événement WebSocket à livrer aux sessions des autres nœuds : trame déjà sérialisée (voir
+ * {@code OutboundFrame}) et destinataires, résolus par le nœud émetteur.
+ */
+public record ClusterEvent(List<UUID> recipients, UUID excludeUserId, String text, String coalesceKey) {
+}
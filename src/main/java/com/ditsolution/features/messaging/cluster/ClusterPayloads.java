@@ -0,0 +1,95 @@
+package com.ditsolution.features.messaging.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Regroupement des événements du bus en notifications : une notification porte l'identifiant du nœud
+ * émetteur et autant d'événements que la limite de taille le permet.
+ *
+ * Un événement qui dépasse à lui seul la limite (message très long) n'est pas publié.
+ */
+final class ClusterPayloads {
+    
+    /** Postgres refuse les notifications de 8000 octets et plus */
+    static final int MAX_PAYLOAD_BYTES = 7900;
+    
+    record Envelope(String node, List<ClusterEvent> events) {}
+    
+    /** Notifications prêtes à l'envoi et nombre d'événements trop gros, écartés */
+    record Packed(List<String> payloads, int oversized) {}
+    
+    private final ObjectMapper mapper;
+    private final int maxBytes;
+    // {"node":"…","events":[ … ]}
+    private final String prefix;
+    private final int overheadBytes;
+    
+    ClusterPayloads(ObjectMapper mapper, String nodeId) {
+        this(mapper, nodeId, MAX_PAYLOAD_BYTES);
+    }
+    
+    ClusterPayloads(ObjectMapper mapper, String nodeId, int maxBytes) {
+        this.mapper = mapper;
+        this.maxBytes = maxBytes;
+        this.prefix = "{\"node\":" + write(nodeId) + ",\"events\":[";
+        this.overheadBytes = utf8Length(prefix) + 2;
+    }
+    
+    /**
+     * Répartit les événements, dans l'ordre, sur le moins de notifications possible
+     */
+    Packed pack(List<ClusterEvent> events) {
+        List<String> payloads = new ArrayList<>();
+        int oversized = 0;
+        StringBuilder current = null;
+        int currentBytes = 0;
+        for (ClusterEvent event : events) {
+            String json = write(event);
+            int bytes = utf8Length(json);
+            if (overheadBytes + bytes > maxBytes) {
+                oversized++;
+                continue;
+            }
+            if (current != null && currentBytes + 1 + bytes > maxBytes) {
+                payloads.add(current.append("]}").toString());
+                current = null;
+            }
+            if (current == null) {
+                current = new StringBuilder(prefix);
+                currentBytes = overheadBytes;
+            } else {
+                current.append(',');
+                currentBytes++;
+            }
+            current.append(json);
+            currentBytes += bytes;
+        }
+        if (current != null) payloads.add(current.append("]}").toString());
+        return new Packed(payloads, oversized);
+    }
+    
+    Envelope decode(String payload) {
+        try {
+            return mapper.readValue(payload, Envelope.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Notification du bus illisible", e);
+        }
+    }
+    
+    private String write(Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Événement du bus non sérialisable", e);
+        }
+    }
+    
+    private static int utf8Length(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,288 @@
+package com.ditsolution.features.messaging.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.postgresql.Driver;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Bus inter-nœuds sur Postgres {@code LISTEN/NOTIFY} : chaque nœud écoute le canal et livre aux sessions
+ * qu'il détient les événements publiés par les autres, en ignorant les siens.
+ *
+ * Deux connexions dédiées, hors du pool (une connexion en écoute ne doit pas être rendue au pool) :
+ * <ul>
+ *   <li>publication : un thread vide la file des événements et les envoie par lots, toutes les
+ *       notifications d'un lot en un seul aller-retour ({@code pg_notify} sur un tableau). Le lot est ce
+ *       qui s'est accumulé pendant l'envoi précédent : aucune attente ajoutée quand le trafic est faible ;</li>
+ *   <li>écoute : un thread attend les notifications ({@code getNotifications} bloquant) et vérifie
+ *       périodiquement que la connexion répond.</li>
+ * </ul>
+ *
+ * Bus en panne : les événements sont abandonnés (livraison locale seulement) et la connexion est
+ * rétablie avec un délai croissant, plafonné.
+ */
+@ApplicationScoped
+public class PgNotifyClusterBus implements ClusterBus {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PgNotifyClusterBus.class);
+    
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+    private static final int MAX_BATCH_EVENTS = 500;
+    private static final int POLL_MILLIS = 500;
+    private static final long HEALTH_CHECK_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final Duration MIN_BACKOFF = Duration.ofMillis(500);
+    
+    @ConfigProperty(name = "app.messaging.cluster.enabled", defaultValue = "true")
+    boolean enabled;
+    
+    @ConfigProperty(name = "app.messaging.cluster.channel", defaultValue = "ws_events")
+    String channel;
+    
+    @ConfigProperty(name = "app.messaging.cluster.queue-capacity", defaultValue = "10000")
+    int queueCapacity;
+    
+    @ConfigProperty(name = "app.messaging.cluster.max-backoff", defaultValue = "30s")
+    Duration maxBackoff;
+    
+    @ConfigProperty(name = "quarkus.datasource.jdbc.url")
+    String jdbcUrl;
+    
+    @ConfigProperty(name = "quarkus.datasource.username")
+    String username;
+    
+    @ConfigProperty(name = "quarkus.datasource.password")
+    String password;
+    
+    @Inject
+    ObjectMapper objectMapper;
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder notifications = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    
+    private ClusterPayloads payloads;
+    private BlockingQueue<ClusterEvent> outgoing;
+    private volatile Consumer<ClusterEvent> handler;
+    private volatile boolean running;
+    private volatile boolean listening;
+    private volatile boolean publishing;
+    private Thread listener;
+    private Thread publisher;
+    
+    void onStart(@Observes StartupEvent ev) {
+        if (!enabled) {
+            logger.info("Bus inter-nœuds WebSocket désactivé : livraison locale uniquement");
+            return;
+        }
+        if (!CHANNEL.matcher(channel).matches()) {
+            throw new IllegalStateException("Canal du bus inter-nœuds invalide: " + channel);
+        }
+        payloads = new ClusterPayloads(objectMapper, nodeId);
+        outgoing = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        listener = Thread.ofPlatform().daemon().name("ws-cluster-listener").start(this::listenLoop);
+        publisher = Thread.ofPlatform().daemon().name("ws-cluster-publisher").start(this::publishLoop);
+        logger.info("Bus inter-nœuds WebSocket démarré (nœud {}, canal {})", nodeId, channel);
+    }
+    
+    void onStop(@Observes ShutdownEvent ev) {
+        running = false;
+        if (listener != null) listener.interrupt();
+        if (publisher != null) publisher.interrupt();
+    }
+    
+    @Override
+    public void publish(ClusterEvent event) {
+        if (!running || event.recipients().isEmpty()) return;
+        // Bus en panne : inutile d'accumuler des événements qui seraient livrés en retard
+        if (!publishing || !outgoing.offer(event)) {
+            dropped.increment();
+        }
+    }
+    
+    @Override
+    public void subscribe(Consumer<ClusterEvent> handler) {
+        this.handler = handler;
+    }
+    
+    @Override
+    public Stats stats() {
+        return new Stats(enabled, listening && publishing,
+                published.sum(), notifications.sum(), received.sum(), dropped.sum());
+    }
+    
+    private void publishLoop() {
+        List<ClusterEvent> batch = new ArrayList<>();
+        int pending = 0; // événements du lot en cours pas encore publiés ni comptés comme abandonnés
+        Connection connection = null;
+        Duration backoff = MIN_BACKOFF;
+        while (running) {
+            try {
+                if (connection == null) {
+                    connection = connect();
+                    publishing = true;
+                    backoff = MIN_BACKOFF;
+                }
+                ClusterEvent first = outgoing.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                outgoing.drainTo(batch, MAX_BATCH_EVENTS - 1);
+                pending = batch.size();
+                
+                ClusterPayloads.Packed packed = payloads.pack(batch);
+                if (packed.oversized() > 0) {
+                    pending -= packed.oversized();
+                    dropped.add(packed.oversized());
+                    logger.warn("{} événement(s) WebSocket trop volumineux pour le bus, livrés localement seulement", packed.oversized());
+                }
+                try {
+                    sendNotifications(connection, packed.payloads());
+                } catch (SQLException e) {
+                    // Connexion coupée pendant l'inactivité : une nouvelle tentative immédiate
+                    close(connection);
+                    connection = null;
+                    connection = connect();
+                    sendNotifications(connection, packed.payloads());
+                }
+                published.add(pending);
+                notifications.add(packed.payloads().size());
+            } catch (SQLException e) {
+                if (!running) break;
+                publishing = false;
+                dropped.add(pending + outgoing.size());
+                outgoing.clear();
+                close(connection);
+                connection = null;
+                logger.warn("Bus inter-nœuds indisponible en publication, nouvelle tentative dans {}", backoff, e);
+                if (!sleep(backoff)) break;
+                backoff = next(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                dropped.add(pending);
+                logger.error("Erreur lors de la publication sur le bus inter-nœuds", e);
+            } finally {
+                batch.clear();
+                pending = 0;
+            }
+        }
+        publishing = false;
+        close(connection);
+    }
+    
+    private void sendNotifications(Connection connection, List<String> batch) throws SQLException {
+        if (batch.isEmpty()) return;
+        try (PreparedStatement ps = connection.prepareStatement("SELECT pg_notify(?, p) FROM unnest(?) AS p")) {
+            ps.setString(1, channel);
+            ps.setArray(2, connection.createArrayOf("text", batch.toArray()));
+            ps.execute();
+        }
+    }
+    
+    private void listenLoop() {
+        Duration backoff = MIN_BACKOFF;
+        while (running) {
+            try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + channel);
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                listening = true;
+                backoff = MIN_BACKOFF;
+                long lastCheck = System.nanoTime();
+                while (running) {
+                    PGNotification[] batch = pg.getNotifications(POLL_MILLIS);
+                    if (batch != null) {
+                        for (PGNotification notification : batch) dispatch(notification.getParameter());
+                    }
+                    if (System.nanoTime() - lastCheck > HEALTH_CHECK_NANOS) {
+                        // Détecte une connexion à moitié ouverte, que l'attente seule ne signale pas
+                        if (!connection.isValid(5)) throw new SQLException("Connexion d'écoute invalide");
+                        lastCheck = System.nanoTime();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) break;
+                listening = false;
+                logger.warn("Bus inter-nœuds indisponible en écoute, nouvelle tentative dans {}", backoff, e);
+                if (!sleep(backoff)) break;
+                backoff = next(backoff);
+            }
+        }
+        listening = false;
+    }
+    
+    private void dispatch(String payload) {
+        try {
+            ClusterPayloads.Envelope envelope = payloads.decode(payload);
+            if (nodeId.equals(envelope.node())) return;
+            Consumer<ClusterEvent> target = handler;
+            for (ClusterEvent event : envelope.events()) {
+                received.increment();
+                if (target != null) target.accept(event);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Notification du bus inter-nœuds ignorée", e);
+        }
+    }
+    
+    private Connection connect() throws SQLException {
+        Properties props = new Properties();
+        props.setProperty("user", username);
+        props.setProperty("password", password);
+        props.setProperty("ApplicationName", "ws-cluster-bus");
+        Connection connection = new Driver().connect(jdbcUrl, props);
+        if (connection == null) throw new SQLException("URL JDBC non PostgreSQL: " + jdbcUrl);
+        connection.setAutoCommit(true);
+        return connection;
+    }
+    
+    private Duration next(Duration backoff) {
+        Duration doubled = backoff.multipliedBy(2);
+        return doubled.compareTo(maxBackoff) > 0 ? maxBackoff : doubled;
+    }
+    
+    private static boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private static void close(Connection connection) {
+        if (connection == null) return;
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.debug("Fermeture de la connexion du bus inter-nœuds impossible", e);
+        }
+    }
+}
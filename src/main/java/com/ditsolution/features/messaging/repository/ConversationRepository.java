@@ -6,8 +6,11 @@ import com.ditsolution.features.messaging.entity.ConversationEntity;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 @ApplicationScoped
 public class ConversationRepository implements PanacheRepository<ConversationEntity> {
@@ -57,6 +60,22 @@ public class ConversationRepository implements PanacheRepository<ConversationEnt
         return find("id = ?1 AND (tenant = ?2 OR owner = ?2) AND isActive = true", conversationId, user).firstResultOptional();
     }
     
+    /**
+     * Ids du locataire et du propriétaire d'une conversation (vide si elle n'existe pas), sans charger les entités
+     */
+    public Set<UUID> findParticipantIds(Long conversationId) {
+        List<Object[]> rows = getEntityManager()
+            .createQuery("SELECT c.tenant.id, c.owner.id FROM ConversationEntity c WHERE c.id = ?1", Object[].class)
+            .setParameter(1, conversationId)
+            .getResultList();
+        Set<UUID> ids = new HashSet<>();
+        for (Object[] row : rows) {
+            ids.add((UUID) row[0]);
+            ids.add((UUID) row[1]);
+        }
+        return Set.copyOf(ids);
+    }
+    
     /**
      * Récupère les conversations récentes (dernières 30 jours)
      */
@@ -1,7 +1,9 @@
 package com.ditsolution.features.messaging.resource;
 
+import com.ditsolution.features.messaging.cluster.ClusterBus;
 import com.ditsolution.features.messaging.dto.ConversationDto;
 import com.ditsolution.features.messaging.service.ConversationService;
+import com.ditsolution.features.messaging.websocket.MessageWebSocket;
 import com.ditsolution.shared.dto.PagedResponse;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
@@ -21,6 +23,9 @@ public class AdminConversationResource {
     @Inject
     ConversationService conversationService;
     
+    @Inject
+    ClusterBus clusterBus;
+    
     /**
      * Récupère toutes les conversations (pour les administrateurs)
      */
@@ -143,4 +148,24 @@ public class AdminConversationResource {
                 .build();
         }
     }
+    
+    /**
+     * Statistiques des envois WebSocket (sessions, files d'envoi, latence)
+     */
+    @GET
+    @Path("/websocket-stats")
+    @Operation(summary = "Statistiques WebSocket", description = "Profondeur des files d'envoi, messages envoyés, fusionnés, abandonnés et latence d'envoi")
+    public Response getWebSocketStats() {
+        return Response.ok(MessageWebSocket.outboundStats()).build();
+    }
+    
+    /**
+     * État du bus inter-nœuds WebSocket (connexion, événements publiés, reçus, abandonnés)
+     */
+    @GET
+    @Path("/websocket-cluster-stats")
+    @Operation(summary = "Statistiques du bus inter-nœuds", description = "Connexion au bus, événements publiés, notifications envoyées, événements reçus des autres nœuds et abandonnés")
+    public Response getWebSocketClusterStats() {
+        return Response.ok(clusterBus.stats()).build();
+    }
 }
@@ -0,0 +1,61 @@
+package com.ditsolution.features.messaging.service;
+
+import com.ditsolution.common.cache.BoundedCache;
+import com.ditsolution.features.messaging.repository.ConversationRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Registre des participants (locataire et propriétaire) de chaque conversation, pour ne diffuser
+ * les événements WebSocket qu'à eux.
+ *
+ * Chargés à la demande puis gardés dans un cache borné : les participants d'une conversation ne
+ * changent jamais, l'expiration ne sert qu'à libérer la mémoire des conversations inactives.
+ */
+@ApplicationScoped
+public class ConversationParticipants {
+    
+    @ConfigProperty(name = "app.messaging.participants-cache.max-size", defaultValue = "20000")
+    int maxSize;
+    
+    @ConfigProperty(name = "app.messaging.participants-cache.ttl", defaultValue = "30m")
+    Duration ttl;
+    
+    @Inject
+    ConversationRepository conversationRepository;
+    
+    private BoundedCache<Long, Set<UUID>> cache;
+    
+    @PostConstruct
+    void init() {
+        cache = new BoundedCache<>(maxSize, ttl);
+    }
+    
+    /**
+     * Participants de la conversation, vide si elle n'existe pas
+     */
+    public Set<UUID> of(Long conversationId) {
+        if (conversationId == null) return Set.of();
+        // Conversation inconnue : rien en cache (null), elle peut être créée plus tard
+        Set<UUID> participants = cache.get(conversationId, id -> {
+            Set<UUID> ids = QuarkusTransaction.joiningExisting().call(() -> conversationRepository.findParticipantIds(id));
+            return ids.isEmpty() ? null : ids;
+        });
+        return participants != null ? participants : Set.of();
+    }
+    
+    public boolean isParticipant(Long conversationId, UUID userId) {
+        return userId != null && of(conversationId).contains(userId);
+    }
+    
+    public BoundedCache.Stats stats() {
+        return cache.stats();
+    }
+}
@@ -1,13 +1,23 @@
 package com.ditsolution.features.messaging.service;
 
 import com.ditsolution.features.auth.entity.UserEntity;
+import com.ditsolution.features.messaging.cluster.ClusterBus;
+import com.ditsolution.features.messaging.cluster.ClusterEvent;
 import com.ditsolution.features.messaging.dto.MessageDto;
 import com.ditsolution.features.messaging.websocket.MessageWebSocket;
+import com.ditsolution.features.messaging.websocket.OutboundFrame;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
 @ApplicationScoped
 public class WebSocketService {
     
@@ -19,6 +29,25 @@ public class WebSocketService {
     @Inject
     ConversationService conversationService;
     
+    @Inject
+    ConversationParticipants conversationParticipants;
+    
+    // Mapper configuré de l'application : chaque événement est sérialisé une fois pour tous ses destinataires
+    @Inject
+    ObjectMapper objectMapper;
+    
+    // Les sessions d'un utilisateur peuvent être ouvertes sur un autre nœud de l'API
+    @Inject
+    ClusterBus clusterBus;
+    
+    /**
+     * Livre aux sessions de ce nœud les événements publiés par les autres
+     */
+    void onStart(@Observes StartupEvent ev) {
+        clusterBus.subscribe(event -> MessageWebSocket.sendMessageToParticipants(
+            event.recipients(), new OutboundFrame(event.text(), event.coalesceKey()), event.excludeUserId()));
+    }
+    
     /**
      * Notifie l'envoi d'un nouveau message via WebSocket
      */
@@ -34,8 +63,8 @@ public class WebSocketService {
             wsMessage.getData().put("messageType", message.getMessageType());
             wsMessage.getData().put("timestamp", message.getCreatedAt().toString());
             
-            // Envoyer à tous les participants de la conversation
-            MessageWebSocket.sendMessageToConversation(conversationId, wsMessage, null);
+            // Envoyer aux participants de la conversation
+            deliver(conversationParticipants.of(conversationId), OutboundFrame.of(objectMapper, wsMessage), null);
             
             logger.info("Message WebSocket envoyé pour la conversation: {}", conversationId);
         } catch (Exception e) {
@@ -46,7 +75,7 @@ public class WebSocketService {
     /**
      * Notifie qu'un utilisateur est en train de taper
      */
-    public void notifyTyping(Long conversationId, Long userId, Boolean isTyping) {
+    public void notifyTyping(Long conversationId, UUID userId, Boolean isTyping) {
         try {
             MessageWebSocket.WebSocketMessage wsMessage = new MessageWebSocket.WebSocketMessage();
             wsMessage.setType("typing");
@@ -54,8 +83,8 @@ public class WebSocketService {
             wsMessage.getData().put("userId", userId.toString());
             wsMessage.getData().put("isTyping", isTyping);
             
-            // Envoyer à tous les autres participants de la conversation
-            MessageWebSocket.sendMessageToConversation(conversationId, wsMessage, null);
+            // Envoyer aux autres participants de la conversation
+            deliver(conversationParticipants.of(conversationId), OutboundFrame.of(objectMapper, wsMessage), userId);
             
             logger.debug("Notification de frappe envoyée pour la conversation: {}", conversationId);
         } catch (Exception e) {
@@ -74,8 +103,8 @@ public class WebSocketService {
             wsMessage.getData().put("userId", userId.toString());
             wsMessage.getData().put("messageId", messageId);
             
-            // Envoyer à tous les autres participants de la conversation
-            MessageWebSocket.sendMessageToConversation(conversationId, wsMessage, null);
+            // Envoyer aux participants de la conversation
+            deliver(conversationParticipants.of(conversationId), OutboundFrame.of(objectMapper, wsMessage), null);
             
             logger.debug("Notification de lecture envoyée pour la conversation: {}", conversationId);
         } catch (Exception e) {
@@ -94,7 +123,7 @@ public class WebSocketService {
             wsMessage.getData().put("isOnline", true);
             
             // Envoyer à tous les utilisateurs connectés
-            MessageWebSocket.sendMessageToUser(userId, wsMessage);
+            deliver(List.of(userId), OutboundFrame.of(objectMapper, wsMessage), null);
             
             logger.debug("Notification de présence en ligne envoyée pour l'utilisateur: {}", userId);
         } catch (Exception e) {
@@ -113,7 +142,7 @@ public class WebSocketService {
             wsMessage.getData().put("isOnline", false);
             
             // Envoyer à tous les utilisateurs connectés
-            MessageWebSocket.sendMessageToUser(userId, wsMessage);
+            deliver(List.of(userId), OutboundFrame.of(objectMapper, wsMessage), null);
             
             logger.debug("Notification de présence hors ligne envoyée pour l'utilisateur: {}", userId);
         } catch (Exception e) {
@@ -130,11 +159,21 @@ public class WebSocketService {
             wsMessage.setType("error");
             wsMessage.getData().put("message", errorMessage);
             
-            MessageWebSocket.sendMessageToUser(userId, wsMessage);
+            deliver(List.of(userId), OutboundFrame.of(objectMapper, wsMessage), null);
             
             logger.debug("Notification d'erreur envoyée à l'utilisateur: {}", userId);
         } catch (Exception e) {
             logger.error("Erreur lors de l'envoi de la notification d'erreur", e);
         }
     }
+    
+    /**
+     * Livre une trame aux sessions de ce nœud et la publie pour celles des autres nœuds
+     */
+    private void deliver(Collection<UUID> recipients, OutboundFrame frame, UUID excludeUserId) {
+        MessageWebSocket.sendMessageToParticipants(recipients, frame, excludeUserId);
+        if (recipients.stream().anyMatch(id -> !id.equals(excludeUserId))) {
+            clusterBus.publish(new ClusterEvent(List.copyOf(recipients), excludeUserId, frame.text(), frame.coalesceKey()));
+        }
+    }
 }
@@ -1,7 +1,9 @@
 package com.ditsolution.features.messaging.websocket;
 
 import com.ditsolution.features.messaging.service.MessageService;
+import com.ditsolution.features.messaging.service.ConversationParticipants;
 import com.ditsolution.features.messaging.service.ConversationService;
+import com.ditsolution.features.messaging.service.WebSocketService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.smallrye.jwt.auth.principal.JWTParser;
 import io.smallrye.jwt.auth.principal.ParseException;
@@ -10,6 +12,7 @@ import jakarta.inject.Inject;
 import jakarta.websocket.*;
 import jakarta.websocket.server.PathParam;
 import jakarta.websocket.server.ServerEndpoint;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.jwt.JsonWebToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,8 +20,12 @@ import org.slf4j.LoggerFactory;
 import java.util.UUID;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @ServerEndpoint("/ws/messages/{token}")
 @ApplicationScoped
@@ -32,14 +39,33 @@ public class MessageWebSocket {
     @Inject
     ConversationService conversationService;
     
+    @Inject
+    ConversationParticipants conversationParticipants;
+    
+    @Inject
+    WebSocketService webSocketService;
+    
     @Inject
     ObjectMapper objectMapper;
     
     @Inject
     JWTParser jwtParser;
     
-    // Map pour stocker les sessions WebSocket par utilisateur
-    private static final Map<UUID, Session> userSessions = new ConcurrentHashMap<>();
+    // Files d'envoi par session (voir SessionOutbox)
+    @ConfigProperty(name = "app.messaging.ws.queue-capacity", defaultValue = "256")
+    int queueCapacity;
+    
+    @ConfigProperty(name = "app.messaging.ws.slow-consumer-grace", defaultValue = "10s")
+    Duration slowConsumerGrace;
+    
+    @ConfigProperty(name = "app.messaging.ws.send-timeout", defaultValue = "10s")
+    Duration sendTimeout;
+    
+    private static final String OUTBOX = SessionOutbox.class.getName();
+    private static final OutboundStats outboundStats = new OutboundStats();
+    
+    // Sessions WebSocket par utilisateur (un utilisateur peut être connecté depuis plusieurs appareils)
+    private static final Map<UUID, Set<Session>> userSessions = new ConcurrentHashMap<>();
     
     // Map pour stocker les sessions par ID de session
     private static final Map<String, UUID> sessionUsers = new ConcurrentHashMap<>();
@@ -51,7 +77,10 @@ public class MessageWebSocket {
             UUID userId = extractUserIdFromToken(token);
             
             if (userId != null) {
-                userSessions.put(userId, session);
+                session.getAsyncRemote().setSendTimeout(sendTimeout.toMillis());
+                session.getUserProperties().put(OUTBOX,
+                    new SessionOutbox(transport(session), queueCapacity, slowConsumerGrace, outboundStats));
+                addSession(userId, session);
                 sessionUsers.put(session.getId(), userId);
                 
                 logger.info("WebSocket connecté pour l'utilisateur: {}", userId);
@@ -76,7 +105,7 @@ public class MessageWebSocket {
     public void onClose(Session session) {
         UUID userId = sessionUsers.remove(session.getId());
         if (userId != null) {
-            userSessions.remove(userId);
+            removeSession(userId, session);
             logger.info("WebSocket fermé pour l'utilisateur: {}", userId);
         }
     }
@@ -86,9 +115,9 @@ public class MessageWebSocket {
         UUID userId = sessionUsers.get(session.getId());
         logger.error("Erreur WebSocket pour l'utilisateur: {}", userId, throwable);
         
-        // Nettoyer la session en cas d'erreur
+        // Nettoyer la session en cas d'erreur (les autres sessions de l'utilisateur restent actives)
         if (userId != null) {
-            userSessions.remove(userId);
+            removeSession(userId, session);
             sessionUsers.remove(session.getId());
         }
     }
@@ -121,43 +150,109 @@ public class MessageWebSocket {
     }
     
     /**
-     * Envoie un message à un utilisateur spécifique
+     * Envoie un message à toutes les sessions ouvertes d'un utilisateur
      */
-    public static void sendMessageToUser(UUID userId, Object message) {
-        Session session = userSessions.get(userId);
-        if (session != null && session.isOpen()) {
-            sendMessage(session, message);
+    public static void sendMessageToUser(UUID userId, OutboundFrame frame) {
+        Set<Session> sessions = userSessions.get(userId);
+        if (sessions == null) return;
+        for (Session session : sessions) {
+            send(session, frame);
         }
     }
     
+    private static void addSession(UUID userId, Session session) {
+        // compute : l'ajout ne peut pas tomber dans un ensemble en cours de retrait par removeSession
+        userSessions.compute(userId, (id, sessions) -> {
+            Set<Session> target = sessions != null ? sessions : ConcurrentHashMap.newKeySet();
+            target.add(session);
+            return target;
+        });
+    }
+    
+    private static void removeSession(UUID userId, Session session) {
+        // Retire l'entrée de l'utilisateur avec sa dernière session
+        userSessions.computeIfPresent(userId, (id, sessions) -> {
+            sessions.remove(session);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+    
     /**
-     * Envoie un message à tous les utilisateurs d'une conversation
+     * Envoie un message aux participants connectés d'une conversation (voir {@link ConversationParticipants}),
+     * sauf {@code excludeUserId} : coût proportionnel aux participants, pas aux utilisateurs en ligne
      */
-    public static void sendMessageToConversation(Long conversationId, Object message, UUID excludeUserId) {
-        // TODO: Implémenter la logique pour envoyer à tous les participants d'une conversation
-        // Pour l'instant, on envoie à tous les utilisateurs connectés
-        userSessions.forEach((userId, session) -> {
+    public static void sendMessageToParticipants(Collection<UUID> participants, OutboundFrame frame, UUID excludeUserId) {
+        for (UUID userId : participants) {
             if (!userId.equals(excludeUserId)) {
-                sendMessage(session, message);
+                sendMessageToUser(userId, frame);
             }
-        });
+        }
+    }
+    
+    /**
+     * Dépose une trame dans la file de la session : l'envoi réseau se fait hors du thread appelant
+     */
+    private static void send(Session session, OutboundFrame frame) {
+        SessionOutbox outbox = (SessionOutbox) session.getUserProperties().get(OUTBOX);
+        if (outbox != null && session.isOpen()) {
+            outbox.offer(frame.text(), frame.coalesceKey());
+        }
     }
     
     /**
-     * Envoie un message via une session
+     * Envoie un message à une session, sérialisé avec le mapper configuré
      */
-    private static void sendMessage(Session session, Object message) {
+    private void sendMessage(Session session, WebSocketMessage message) {
         try {
-            if (session.isOpen()) {
-                ObjectMapper mapper = new ObjectMapper();
-                String jsonMessage = mapper.writeValueAsString(message);
-                session.getBasicRemote().sendText(jsonMessage);
-            }
+            send(session, OutboundFrame.of(objectMapper, message));
         } catch (Exception e) {
             logger.error("Erreur lors de l'envoi du message WebSocket", e);
         }
     }
     
+    private static SessionOutbox.Transport transport(Session session) {
+        return new SessionOutbox.Transport() {
+            @Override
+            public boolean isOpen() {
+                return session.isOpen();
+            }
+            
+            @Override
+            public void send(String text, Consumer<Throwable> done) {
+                session.getAsyncRemote().sendText(text, result -> done.accept(result.isOK() ? null : result.getException()));
+            }
+            
+            @Override
+            public void close(String reason) {
+                try {
+                    session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, reason));
+                } catch (IOException e) {
+                    logger.debug("Fermeture de la session WebSocket {} impossible", session.getId(), e);
+                }
+            }
+        };
+    }
+    
+    /**
+     * Sessions ouvertes, profondeur des files d'envoi et compteurs (envois, fusions, abandons, latence)
+     */
+    public static OutboundStats.Snapshot outboundStats() {
+        int sessions = 0;
+        long queued = 0;
+        long maxDepth = 0;
+        for (Set<Session> userSet : userSessions.values()) {
+            for (Session session : userSet) {
+                SessionOutbox outbox = (SessionOutbox) session.getUserProperties().get(OUTBOX);
+                if (outbox == null) continue;
+                int depth = outbox.depth();
+                sessions++;
+                queued += depth;
+                maxDepth = Math.max(maxDepth, depth);
+            }
+        }
+        return outboundStats.snapshot(sessions, queued, maxDepth);
+    }
+    
     /**
      * Gère les messages de frappe
      */
@@ -166,15 +261,12 @@ public class MessageWebSocket {
             Long conversationId = Long.valueOf(wsMessage.getData().get("conversationId").toString());
             Boolean isTyping = Boolean.valueOf(wsMessage.getData().get("isTyping").toString());
             
-            // Créer un message de frappe
-            WebSocketMessage typingMessage = new WebSocketMessage();
-            typingMessage.setType("typing");
-            typingMessage.getData().put("conversationId", conversationId);
-            typingMessage.getData().put("userId", userId);
-            typingMessage.getData().put("isTyping", isTyping);
-            
-            // Envoyer à tous les autres participants de la conversation
-            sendMessageToConversation(conversationId, typingMessage, userId);
+            // Diffuser aux autres participants de la conversation (tous nœuds), si l'émetteur en fait partie
+            if (!conversationParticipants.isParticipant(conversationId, userId)) {
+                logger.warn("Frappe ignorée : l'utilisateur {} ne participe pas à la conversation {}", userId, conversationId);
+                return;
+            }
+            webSocketService.notifyTyping(conversationId, userId, isTyping);
         } catch (Exception e) {
             logger.error("Erreur lors du traitement du message de frappe", e);
         }
@@ -0,0 +1,32 @@
+package com.ditsolution.features.messaging.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Message WebSocket sérialisé une seule fois, puis déposé tel quel dans la file de chaque session
+ * destinataire : le coût de sérialisation ne dépend plus du nombre de destinataires.
+ *
+ * {@code coalesceKey} non null : message remplaçable dans la file (voir {@link SessionOutbox}).
+ */
+public record OutboundFrame(String text, String coalesceKey) {
+
+    public static OutboundFrame of(ObjectMapper mapper, MessageWebSocket.WebSocketMessage message) {
+        try {
+            return new OutboundFrame(mapper.writeValueAsString(message), coalesceKey(message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Message WebSocket non sérialisable: " + message.getType(), e);
+        }
+    }
+
+    /**
+     * Frappe : seul le dernier état d'un utilisateur dans une conversation compte, les précédents
+     * encore en attente sont remplacés
+     */
+    static String coalesceKey(MessageWebSocket.WebSocketMessage message) {
+        if ("typing".equals(message.getType())) {
+            return "typing:" + message.getData().get("conversationId") + ":" + message.getData().get("userId");
+        }
+        return null;
+    }
+}
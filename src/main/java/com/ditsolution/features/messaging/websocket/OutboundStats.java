@@ -0,0 +1,56 @@
+package com.ditsolution.features.messaging.websocket;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs des files d'envoi WebSocket ({@link SessionOutbox}), partagés par toutes les sessions.
+ */
+public final class OutboundStats {
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sendErrors = new LongAdder();
+    private final LongAdder slowConsumersClosed = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Vue exposée au monitoring. Latence : du dépôt dans la file à l'acquittement de l'envoi.
+     * Profondeur : messages en attente, toutes sessions confondues, et pire session.
+     */
+    public record Snapshot(int sessions, long queued, long maxQueueDepth,
+                           long sent, long coalesced, long dropped, long sendErrors, long slowConsumersClosed,
+                           double avgLatencyMs, double maxLatencyMs) {}
+
+    void sent(long latency) {
+        sent.increment();
+        latencyNanos.add(latency);
+        maxLatencyNanos.accumulate(latency);
+    }
+
+    void coalesced() {
+        coalesced.increment();
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+
+    void sendError() {
+        sendErrors.increment();
+    }
+
+    void slowConsumerClosed() {
+        slowConsumersClosed.increment();
+    }
+
+    Snapshot snapshot(int sessions, long queued, long maxQueueDepth) {
+        long n = sent.sum();
+        return new Snapshot(sessions, queued, maxQueueDepth,
+                n, coalesced.sum(), dropped.sum(), sendErrors.sum(), slowConsumersClosed.sum(),
+                n == 0 ? 0.0 : latencyNanos.sum() / (double) n / 1_000_000,
+                maxLatencyNanos.get() / 1_000_000.0);
+    }
+}
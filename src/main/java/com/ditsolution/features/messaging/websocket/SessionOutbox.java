@@ -0,0 +1,203 @@
+package com.ditsolution.features.messaging.websocket;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * File d'envoi d'une session WebSocket : l'appelant dépose le message et repart aussitôt, un seul
+ * envoi asynchrone à la fois vide la file dans l'ordre de dépôt.
+ *
+ * Bornée à {@code capacity} messages. Les messages avec une clé de fusion (frappe) remplacent celui de
+ * même clé encore en attente, et sont abandonnés si la file est pleine. Tout autre message refusé
+ * (message, accusé de lecture) condamne la session : plus rien n'est accepté, la file déjà remplie est
+ * envoyée puis la session est fermée, et le client se reconnecte et se resynchronise via /conversations.
+ * Si la file reste pleine plus de {@code slowConsumerGrace} (sans redescendre à moitié), la session est
+ * fermée sans attendre. Un envoi en échec ferme aussi la session.
+ */
+final class SessionOutbox {
+
+    /** Transport sous-jacent (session WebSocket). {@code send} appelle {@code done} à l'acquittement, avec l'erreur éventuelle. */
+    interface Transport {
+        boolean isOpen();
+
+        void send(String text, Consumer<Throwable> done);
+
+        void close(String reason);
+    }
+
+    private static final long NOT_FULL = Long.MIN_VALUE;
+
+    private static final class Entry {
+        String text;
+        final String coalesceKey;
+        final long enqueuedAt;
+
+        Entry(String text, String coalesceKey, long enqueuedAt) {
+            this.text = text;
+            this.coalesceKey = coalesceKey;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    private final Transport transport;
+    private final int capacity;
+    private final long graceNanos;
+    private final OutboundStats stats;
+
+    // Protégés par this
+    private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+    private final Map<String, Entry> coalescable = new HashMap<>();
+    private boolean sending;
+    private boolean closed;
+    private boolean closing; // message perdu : fermeture une fois la file vidée
+    private long fullSince = NOT_FULL;
+
+    SessionOutbox(Transport transport, int capacity, Duration slowConsumerGrace, OutboundStats stats) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity doit être ≥ 1");
+        this.transport = transport;
+        this.capacity = capacity;
+        this.graceNanos = slowConsumerGrace.toNanos();
+        this.stats = stats;
+    }
+
+    /**
+     * Dépose un message. {@code coalesceKey} non null : message remplaçable et abandonnable.
+     *
+     * @return false si le message a été abandonné
+     */
+    boolean offer(String text, String coalesceKey) {
+        Entry toSend = null;
+        boolean slowConsumer = false;
+        synchronized (this) {
+            if (closed) return false;
+            long now = System.nanoTime();
+            if (closing) {
+                // Un message a déjà été perdu : la session sera fermée, inutile d'en accepter d'autres
+                stats.dropped();
+                if (fullSince == NOT_FULL || now - fullSince <= graceNanos) return false;
+                closed = true;
+                slowConsumer = true;
+            } else {
+                if (coalesceKey != null) {
+                    Entry queued = coalescable.get(coalesceKey);
+                    if (queued != null) {
+                        queued.text = text;
+                        stats.coalesced();
+                        return true;
+                    }
+                }
+                if (queue.size() >= capacity) {
+                    stats.dropped();
+                    if (coalesceKey != null) return false;
+                    if (fullSince == NOT_FULL) {
+                        fullSince = now;
+                    } else if (now - fullSince > graceNanos) {
+                        closed = true;
+                        slowConsumer = true;
+                    }
+                    if (!slowConsumer) {
+                        closing = true;
+                        return false;
+                    }
+                } else {
+                    Entry entry = new Entry(text, coalesceKey, now);
+                    queue.add(entry);
+                    if (coalesceKey != null) coalescable.put(coalesceKey, entry);
+                    if (!sending) {
+                        sending = true;
+                        toSend = poll();
+                    }
+                }
+            }
+        }
+        if (slowConsumer) {
+            stats.slowConsumerClosed();
+            close("Client trop lent");
+            return false;
+        }
+        if (toSend != null) send(toSend);
+        return true;
+    }
+
+    /** Messages en attente (hors envoi en cours). */
+    synchronized int depth() {
+        return queue.size();
+    }
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    // Sous verrou
+    private Entry poll() {
+        Entry entry = queue.poll();
+        if (entry.coalesceKey != null) coalescable.remove(entry.coalesceKey, entry);
+        if (queue.size() <= capacity / 2) fullSince = NOT_FULL;
+        return entry;
+    }
+
+    private void send(Entry entry) {
+        if (!transport.isOpen()) {
+            synchronized (this) {
+                closed = true;
+                sending = false;
+                queue.clear();
+                coalescable.clear();
+            }
+            return;
+        }
+        try {
+            transport.send(entry.text, error -> done(entry, error));
+        } catch (RuntimeException e) {
+            done(entry, e);
+        }
+    }
+
+    private void done(Entry entry, Throwable error) {
+        if (error != null) {
+            stats.sendError();
+            synchronized (this) {
+                closed = true;
+            }
+            close("Erreur d'envoi");
+        } else {
+            stats.sent(System.nanoTime() - entry.enqueuedAt);
+        }
+        Entry next;
+        boolean drainedAfterLoss = false;
+        synchronized (this) {
+            if (closed || queue.isEmpty()) {
+                sending = false;
+                if (!closed && closing) {
+                    closed = true;
+                    drainedAfterLoss = true;
+                }
+                if (closed) {
+                    queue.clear();
+                    coalescable.clear();
+                }
+                if (!drainedAfterLoss) return;
+                next = null;
+            } else {
+                next = poll();
+            }
+        }
+        if (drainedAfterLoss) {
+            stats.slowConsumerClosed();
+            close("Messages perdus, resynchronisation requise");
+            return;
+        }
+        send(next);
+    }
+
+    private void close(String reason) {
+        try {
+            transport.close(reason);
+        } catch (RuntimeException ignored) {
+            // Session déjà fermée
+        }
+    }
+}
@@ -2,17 +2,24 @@ package com.ditsolution.features.notification.service;
 
 import com.ditsolution.features.auth.entity.UserEntity;
 import com.ditsolution.features.listing.entity.ListingEntity;
+import com.ditsolution.features.listing.search.ListingChangedEvent;
+import com.ditsolution.features.listing.search.SavedSearchMatcher;
 import com.ditsolution.features.messaging.entity.ConversationEntity;
 import com.ditsolution.features.messaging.entity.MessageEntity;
 import com.ditsolution.features.notification.dto.SendNotificationRequest;
 import com.ditsolution.features.notification.entity.NotificationEntity;
 import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,35 +34,65 @@ public class NotificationTriggerService {
     @Inject
     EntityManager entityManager;
 
+    @Inject
+    SavedSearchMatcher savedSearchMatcher;
+
+    @ConfigProperty(name = "app.notification.batch-size", defaultValue = "500")
+    int newListingBatchSize;
+
     /**
-     * Déclenche une notification pour une nouvelle annonce correspondant aux critères d'un utilisateur
+     * Alertes "nouvelle annonce" dès qu'une annonce devient visible (publication, validation admin),
+     * après commit pour ne jamais alerter sur une publication annulée.
+     */
+    void onListingChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) ListingChangedEvent event) {
+        if (!event.becamePublished()) return;
+        try {
+            ListingEntity listing = QuarkusTransaction.requiringNew()
+                .call(() -> entityManager.find(ListingEntity.class, event.listing().id()));
+            if (listing != null) {
+                triggerNewListingMatchNotification(listing);
+            }
+        } catch (Exception e) {
+            Log.error("Erreur lors du déclenchement des alertes de nouvelle annonce: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Déclenche une notification pour une nouvelle annonce correspondant aux critères d'un utilisateur.
+     * Les destinataires sont envoyés par lots, chacun dans sa propre transaction.
      */
-    @Transactional
     public void triggerNewListingMatchNotification(ListingEntity listing) {
         try {
-            // Récupérer les utilisateurs qui pourraient être intéressés par cette annonce
-            List<UserEntity> interestedUsers = findInterestedUsers(listing);
+            // Utilisateurs dont une recherche sauvegardée correspond à l'annonce
+            List<UUID> interestedUsers = new ArrayList<>(savedSearchMatcher.matchUsers(listing));
+            if (interestedUsers.isEmpty()) {
+                return;
+            }
 
-            for (UserEntity user : interestedUsers) {
-                SendNotificationRequest request = new SendNotificationRequest();
-                request.setUserId(user.getId());
-                request.setType(NotificationEntity.NotificationType.NEW_LISTING_MATCH);
-                request.setTitle("Nouvelle annonce correspondant à vos critères");
-                request.setBody(String.format("Un nouveau %s à %s pour %s€", 
-                    getListingTypeText(listing.getType().toString()),
-                    listing.getCity(),
-                    listing.getPrice()));
+            SendNotificationRequest request = new SendNotificationRequest();
+            request.setType(NotificationEntity.NotificationType.NEW_LISTING_MATCH);
+            request.setTitle("Nouvelle annonce correspondant à vos critères");
+            request.setBody(String.format("Un nouveau %s à %s pour %s€", 
+                getListingTypeText(listing.getType().toString()),
+                listing.getCity(),
+                listing.getPrice()));
 
-                Map<String, String> data = new HashMap<>();
-                data.put("listingId", listing.getId().toString());
-                data.put("listingTitle", listing.getTitle());
-                data.put("listingPrice", listing.getPrice().toString());
-                data.put("listingCity", listing.getCity());
-                request.setData(data);
-                request.setRelatedEntityType("listing");
-                request.setRelatedEntityId(listing.getId().toString());
+            Map<String, String> data = new HashMap<>();
+            data.put("listingId", listing.getId().toString());
+            data.put("listingTitle", listing.getTitle());
+            data.put("listingPrice", listing.getPrice().toString());
+            data.put("listingCity", listing.getCity());
+            request.setData(data);
+            request.setRelatedEntityType("listing");
+            request.setRelatedEntityId(listing.getId().toString());
 
-                notificationService.sendNotificationToUser(request);
+            for (int from = 0; from < interestedUsers.size(); from += newListingBatchSize) {
+                List<UUID> batch = interestedUsers.subList(from, Math.min(from + newListingBatchSize, interestedUsers.size()));
+                try {
+                    QuarkusTransaction.requiringNew().run(() -> notificationService.sendNotificationToUsers(batch, request));
+                } catch (Exception e) {
+                    Log.error("Erreur lors de l'envoi d'un lot d'alertes de nouvelle annonce: " + e.getMessage(), e);
+                }
             }
 
             Log.info("Notifications de nouvelle annonce envoyées à " + interestedUsers.size() + " utilisateurs");
@@ -190,19 +227,6 @@ public class NotificationTriggerService {
 
     // Méthodes privées utilitaires
 
-    private List<UserEntity> findInterestedUsers(ListingEntity listing) {
-        // Logique simplifiée : récupérer les utilisateurs actifs
-        // Dans une vraie implémentation, vous pourriez filtrer par préférences, localisation, etc.
-        TypedQuery<UserEntity> query = entityManager.createQuery(
-            "SELECT u FROM UserEntity u WHERE u.status = 'ACTIVE' AND u.id != :ownerId",
-            UserEntity.class
-        );
-        query.setParameter("ownerId", listing.getOwner().getId());
-        query.setMaxResults(100); // Limiter pour éviter de spammer tous les utilisateurs
-        
-        return query.getResultList();
-    }
-
     private List<UserEntity> findUsersWithFavorite(UUID listingId) {
         TypedQuery<UserEntity> query = entityManager.createQuery(
             "SELECT f.user FROM FavoriteEntity f WHERE f.listing.id = :listingId",
@@ -2,11 +2,13 @@ package com.ditsolution.features.storage.entity;
 
 import com.ditsolution.features.auth.entity.UserEntity;
 import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import org.hibernate.Session;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.UUID;
 
 @Entity
@@ -101,4 +103,43 @@ public class UploadedImageEntity extends PanacheEntity {
         Instant cutoffDate = Instant.now().minusSeconds(daysOld * 24 * 60 * 60);
         return find("isUsed = ?1 and createdAt < ?2", false, cutoffDate).list();
     }
+
+    /**
+     * Marque comme utilisées, en une seule requête, les images de {@code userId} dont l'URL publique est fournie.
+     * Les URLs sont passées en un tableau (pas de limite de paramètres) ; les URLs inconnues sont ignorées.
+     */
+    public static int markUsed(UUID userId, Collection<String> publicUrls) {
+        if (publicUrls.isEmpty()) return 0;
+        int[] updated = { 0 };
+        getEntityManager().unwrap(Session.class).doWork(connection -> {
+            try (var ps = connection.prepareStatement(
+                    "UPDATE uploaded_images SET is_used = true, updated_at = NOW()"
+                    + " WHERE user_id = ? AND is_used = false AND public_url = ANY(?)")) {
+                ps.setObject(1, userId);
+                ps.setArray(2, connection.createArrayOf("text", publicUrls.toArray()));
+                updated[0] = ps.executeUpdate();
+            }
+        });
+        return updated[0];
+    }
+
+    /**
+     * Remet à non utilisées les images de {@code userId} retirées d'une annonce, sauf si une autre annonce
+     * les affiche encore (les écritures de photos doivent avoir été flushées).
+     */
+    public static int markUnused(UUID userId, Collection<String> publicUrls) {
+        if (publicUrls.isEmpty()) return 0;
+        int[] updated = { 0 };
+        getEntityManager().unwrap(Session.class).doWork(connection -> {
+            try (var ps = connection.prepareStatement(
+                    "UPDATE uploaded_images i SET is_used = false, updated_at = NOW()"
+                    + " WHERE i.user_id = ? AND i.is_used = true AND i.public_url = ANY(?)"
+                    + " AND NOT EXISTS (SELECT 1 FROM listing_photos p WHERE p.url = i.public_url)")) {
+                ps.setObject(1, userId);
+                ps.setArray(2, connection.createArrayOf("text", publicUrls.toArray()));
+                updated[0] = ps.executeUpdate();
+            }
+        });
+        return updated[0];
+    }
 }
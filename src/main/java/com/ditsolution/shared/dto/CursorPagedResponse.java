@@ -0,0 +1,6 @@
+package com.ditsolution.shared.dto;
+
+
+import java.util.List;
+
+public record CursorPagedResponse<T>(List<T> items, String nextCursor, Long total, int size) {}
@@ -0,0 +1,8 @@
+-- Index pour la pagination par curseur de GET /listings : tri (created_at DESC, id DESC)
+-- parcouru en range scan au lieu d'un OFFSET.
+CREATE INDEX IF NOT EXISTS idx_listings_status_created_id
+  ON listings (status, created_at DESC, id DESC);
+
+-- Même parcours quand la ville est filtrée (cas le plus fréquent côté mobile)
+CREATE INDEX IF NOT EXISTS idx_listings_status_city_created_id
+  ON listings (status, LOWER(city), created_at DESC, id DESC);
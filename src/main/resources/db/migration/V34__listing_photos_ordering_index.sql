@@ -0,0 +1,3 @@
+-- Première photo d'une annonce (vue résumé des listes) : lookup direct au lieu d'un tri des photos
+CREATE INDEX IF NOT EXISTS idx_listing_photos_listing_ordering
+  ON listing_photos (listing_id, ordering);
@@ -0,0 +1,21 @@
+-- Recherche plein texte sur titre + description (paramètre q= de GET /listings)
+-- Configuration française sans accents : "Résidence" et "residence" donnent le même lexème.
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+DO $$
+BEGIN
+  IF NOT EXISTS (SELECT 1 FROM pg_ts_config WHERE cfgname = 'french_unaccent') THEN
+    CREATE TEXT SEARCH CONFIGURATION french_unaccent (COPY = french);
+    ALTER TEXT SEARCH CONFIGURATION french_unaccent
+      ALTER MAPPING FOR hword, hword_part, word WITH unaccent, french_stem;
+  END IF;
+END$$;
+
+-- Vecteur maintenu par PostgreSQL à chaque écriture : le titre pèse plus que la description
+ALTER TABLE listings ADD COLUMN IF NOT EXISTS search_vector tsvector
+  GENERATED ALWAYS AS (
+    setweight(to_tsvector('french_unaccent'::regconfig, coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('french_unaccent'::regconfig, coalesce(description, '')), 'B')
+  ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_listings_search_vector ON listings USING GIN (search_vector);
@@ -0,0 +1,20 @@
+-- Recherches sauvegardées : alertes "nouvelle annonce correspondant à vos critères"
+CREATE TABLE IF NOT EXISTS saved_searches (
+  id          UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+  user_id     UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+  name        VARCHAR(100),
+  city        VARCHAR(100),
+  district    VARCHAR(100),
+  type        VARCHAR(20),
+  min_price   NUMERIC,
+  max_price   NUMERIC,
+  min_rooms   INTEGER,
+  latitude    DECIMAL(10, 8),
+  longitude   DECIMAL(11, 8),
+  radius_km   DOUBLE PRECISION,
+  created_at  TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  CONSTRAINT chk_saved_searches_radius
+    CHECK (radius_km IS NULL OR (latitude IS NOT NULL AND longitude IS NOT NULL AND radius_km > 0))
+);
+
+CREATE INDEX IF NOT EXISTS idx_saved_searches_user_id ON saved_searches (user_id);
@@ -0,0 +1,8 @@
+-- Compteurs de vues et de clics "contacter" par annonce.
+-- Alimentés par lots (upsert groupé toutes les quelques secondes), jamais ligne à ligne sur la lecture.
+CREATE TABLE IF NOT EXISTS listing_counters (
+  listing_id  UUID PRIMARY KEY REFERENCES listings(id) ON DELETE CASCADE,
+  views       BIGINT NOT NULL DEFAULT 0,
+  contacts    BIGINT NOT NULL DEFAULT 0,
+  updated_at  TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
@@ -0,0 +1,13 @@
+-- Tris explicites de GET /listings (sort=price|-price) : (price, id) dans le même sens,
+-- parcouru en avant (ASC) ou à rebours (DESC) sans trier l'ensemble filtré.
+-- Les tris par date réutilisent les index de V33 (parcours à rebours pour sort=createdAt).
+CREATE INDEX IF NOT EXISTS idx_listings_status_price_id
+  ON listings (status, price, id);
+
+-- Même parcours quand la ville est filtrée
+CREATE INDEX IF NOT EXISTS idx_listings_status_city_price_id
+  ON listings (status, LOWER(city), price, id);
+
+-- Ville + type (location / vente) : combinaison la plus fréquente avec un tri par prix
+CREATE INDEX IF NOT EXISTS idx_listings_status_city_type_price_id
+  ON listings (status, LOWER(city), type, price, id);
@@ -0,0 +1,4 @@
+-- Export NDJSON (GET /listings/export) : parcours dans l'ordre (updated_at, id) sans tri,
+-- et range scan direct pour les exports incrémentaux (updated_at > :since).
+CREATE INDEX IF NOT EXISTS idx_listings_updated_id
+  ON listings (updated_at, id);
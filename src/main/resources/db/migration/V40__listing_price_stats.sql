@@ -0,0 +1,16 @@
+-- Statistiques de prix par segment (ville, quartier, type, pièces) : sketches de quantiles de
+-- ListingPriceIndex, réécrits périodiquement et relus au démarrage. Les quantiles sont aussi
+-- stockés en clair pour être lisibles en SQL. Clés normalisées : '' = sans quartier, -1 = pièces inconnues.
+CREATE TABLE IF NOT EXISTS listing_price_stats (
+  city          VARCHAR(255) NOT NULL,
+  district      VARCHAR(255) NOT NULL DEFAULT '',
+  type          VARCHAR(20)  NOT NULL,
+  rooms         INTEGER      NOT NULL DEFAULT -1,
+  listing_count BIGINT       NOT NULL,
+  p25           NUMERIC      NOT NULL,
+  median        NUMERIC      NOT NULL,
+  p75           NUMERIC      NOT NULL,
+  sketch        BYTEA        NOT NULL,
+  updated_at    TIMESTAMPTZ  NOT NULL DEFAULT NOW(),
+  PRIMARY KEY (city, district, type, rooms)
+);
@@ -0,0 +1,4 @@
+-- Photos retirées d'une annonce : l'image n'est remise à « non utilisée » que si aucune autre
+-- annonce ne l'affiche (NOT EXISTS sur l'URL). Égalité seule sur des URLs longues : index hash.
+CREATE INDEX IF NOT EXISTS idx_listing_photos_url
+  ON listing_photos USING hash (url);
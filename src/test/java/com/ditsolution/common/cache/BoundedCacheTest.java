@@ -0,0 +1,58 @@
+package com.ditsolution.common.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedCacheTest {
+
+    @Test
+    void testReadThroughCountsHitsAndMisses() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofMinutes(5));
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v", cache.get("k", k -> { loads.incrementAndGet(); return "v"; }));
+        assertEquals("v", cache.get("k", k -> { loads.incrementAndGet(); return "other"; }));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void testInvalidateDuringLoadDoesNotCacheStaleValue() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofMinutes(5));
+
+        // Une écriture invalide la clé pendant que le lecteur charge l'ancienne valeur
+        String read = cache.get("k", k -> { cache.invalidate("k"); return "stale"; });
+
+        assertEquals("stale", read);
+        assertEquals("fresh", cache.get("k", k -> "fresh"));
+    }
+
+    @Test
+    void testExpiredEntryIsReloaded() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ZERO);
+        cache.get("k", k -> "v1");
+        assertEquals("v2", cache.get("k", k -> "v2"));
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100, Duration.ofMinutes(5));
+        for (int i = 0; i < 1000; i++) cache.get(i, k -> k);
+
+        assertTrue(cache.stats().size() <= 100);
+        assertTrue(cache.stats().evictions() >= 900);
+    }
+
+    @Test
+    void testNullIsNotCached() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofMinutes(5));
+        assertNull(cache.get("k", k -> null));
+        assertEquals(0, cache.stats().size());
+    }
+}
@@ -0,0 +1,37 @@
+package com.ditsolution.common.utils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvReaderTest {
+
+    @Test
+    void testReadsQuotedFieldsAndLineEndings() throws IOException {
+        var csv = new CsvReader(new StringReader("a,b,c\r\n\"x, y\",\"dit \"\"bonjour\"\"\",\n\"multi\nligne\",2,3"), ',');
+        assertEquals(List.of("a", "b", "c"), csv.next());
+        assertEquals(List.of("x, y", "dit \"bonjour\"", ""), csv.next());
+        assertEquals(3, csv.line());
+        assertEquals(List.of("multi\nligne", "2", "3"), csv.next());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void testCustomSeparatorAndEmptyLine() throws IOException {
+        var csv = new CsvReader(new StringReader("a;b\n\n1;2\n"), ';');
+        assertEquals(List.of("a", "b"), csv.next());
+        assertEquals(List.of(""), csv.next());
+        assertEquals(List.of("1", "2"), csv.next());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void testUnclosedQuoteFails() throws IOException {
+        var csv = new CsvReader(new StringReader("\"abc,def\n"), ',');
+        assertThrows(IOException.class, csv::next);
+    }
+}
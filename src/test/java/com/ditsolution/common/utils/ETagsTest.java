@@ -0,0 +1,25 @@
+package com.ditsolution.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ETagsTest {
+
+    @Test
+    void testIfNoneMatchUsesWeakComparison() {
+        String etag = ETags.weak("abc");
+        assertTrue(ETags.matches("W/\"abc\"", etag));
+        assertTrue(ETags.matches("\"abc\"", etag));
+        assertTrue(ETags.matches("\"zzz\", W/\"abc\"", etag));
+        assertTrue(ETags.matches("*", etag));
+        assertFalse(ETags.matches("W/\"abd\"", etag));
+        assertFalse(ETags.matches(null, etag));
+    }
+
+    @Test
+    void testDigestIsStableAndSeparatesParts() {
+        assertEquals(ETags.digest("a", 1, null), ETags.digest("a", 1, null));
+        assertNotEquals(ETags.digest("ab", "c"), ETags.digest("a", "bc"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.ditsolution.features.listing.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.ditsolution.features.listing.enums.ListingStatus;
+import com.ditsolution.features.listing.enums.ListingType;
+
+public class ColumnarCatalogueTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T10:00:00Z");
+
+    private static ListingSnapshot listing(UUID id, ListingStatus status, ListingType type, String city, String district,
+                                           long price, Integer rooms, Double lat, Double lng, long ageSeconds) {
+        return new ListingSnapshot(id, status, type, city, district, BigDecimal.valueOf(price),
+                lat == null ? null : BigDecimal.valueOf(lat), lng == null ? null : BigDecimal.valueOf(lng),
+                rooms, null, null, null, null, null, NOW.minusSeconds(ageSeconds), NOW);
+    }
+
+    private static ColumnarCatalogue.Query query(String city, ListingType type, Long maxPriceCents, Integer minRooms) {
+        return new ColumnarCatalogue.Query(city, null, type, null, maxPriceCents, minRooms, null, null, null, null);
+    }
+
+    @Test
+    public void testFiltersAndOrdersWithIdTieBreak() {
+        // Même prix : départage par uuid non signé (0x8... > 0x1...), comme Postgres
+        UUID low = UUID.fromString("10000000-0000-0000-0000-000000000000");
+        UUID high = UUID.fromString("80000000-0000-0000-0000-000000000000");
+        UUID cheap = UUID.randomUUID();
+        var catalogue = ColumnarCatalogue.of(List.of(
+                listing(high, ListingStatus.PUBLISHED, ListingType.RENT, "Abidjan", "Cocody", 200_000, 3, null, null, 10),
+                listing(low, ListingStatus.PUBLISHED, ListingType.RENT, " abidjan ", null, 200_000, 2, null, null, 20),
+                listing(cheap, ListingStatus.PUBLISHED, ListingType.RENT, "Abidjan", null, 90_000, null, null, null, 30),
+                listing(UUID.randomUUID(), ListingStatus.PUBLISHED, ListingType.SALE, "Abidjan", null, 100, 4, null, null, 5),
+                listing(UUID.randomUUID(), ListingStatus.DRAFT, ListingType.RENT, "Abidjan", null, 100, 4, null, null, 5)));
+
+        var byPrice = catalogue.search(query("abidjan", ListingType.RENT, null, null), ListingSort.parse("price", null, null), 0, 10);
+        assertEquals(List.of(cheap, low, high), byPrice.ids());
+        assertEquals(3, byPrice.total());
+
+        var desc = catalogue.search(query("abidjan", ListingType.RENT, null, null), ListingSort.parse("-price", null, null), 1, 1);
+        assertEquals(List.of(low), desc.ids());
+
+        var rooms = catalogue.search(query("abidjan", ListingType.RENT, 20_000_000L, 3), ListingSort.NEWEST, 0, 10);
+        assertEquals(List.of(high), rooms.ids());
+
+        assertEquals(0, catalogue.search(query("bouake", null, null, null), ListingSort.NEWEST, 0, 10).total());
+    }
+
+    @Test
+    public void testRadiusAndDistanceOrder() {
+        UUID near = UUID.randomUUID(), far = UUID.randomUUID(), out = UUID.randomUUID(), unknown = UUID.randomUUID();
+        var catalogue = ColumnarCatalogue.of(List.of(
+                listing(far, ListingStatus.PUBLISHED, ListingType.RENT, "Abidjan", null, 1, null, 5.40, -4.00, 0),
+                listing(near, ListingStatus.PUBLISHED, ListingType.RENT, "Abidjan", null, 1, null, 5.361, -4.008, 0),
+                listing(out, ListingStatus.PUBLISHED, ListingType.RENT, "Abidjan", null, 1, null, 6.80, -5.27, 0),
+                listing(unknown, ListingStatus.PUBLISHED, ListingType.RENT, "Abidjan", null, 1, null, null, null, 0)));
+        var sort = ListingSort.parse("distance", new BigDecimal("5.36"), new BigDecimal("-4.008"));
+
+        var inRadius = catalogue.search(new ColumnarCatalogue.Query(null, null, null, null, null, null, null, 5.36, -4.008, 10.0), sort, 0, 10);
+        assertEquals(List.of(near, far), inRadius.ids());
+
+        var all = catalogue.search(query(null, null, null, null), sort, 0, 10);
+        assertEquals(List.of(near, far, out, unknown), all.ids());
+    }
+}
@@ -0,0 +1,60 @@
+package com.ditsolution.features.listing.search;
+
+import com.ditsolution.features.listing.enums.ListingType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FacetIndexTest {
+
+    private final FacetIndex index = new FacetIndex(new long[] { 100, 1000 });
+
+    @Test
+    void testCountsEachDimensionWithoutItsOwnFilter() {
+        index.put(UUID.randomUUID(), "abidjan", "cocody", ListingType.RENT, 2, 50);
+        index.put(UUID.randomUUID(), "abidjan", "cocody", ListingType.SALE, 3, 5000);
+        index.put(UUID.randomUUID(), "abidjan", "plateau", ListingType.RENT, 2, 500);
+        index.put(UUID.randomUUID(), "bouake", "centre", ListingType.RENT, 1, 80);
+
+        var counts = index.count(new FacetIndex.Query("abidjan", null, ListingType.RENT, null, null));
+
+        assertEquals(2, counts.total());
+        assertEquals(Map.of("abidjan", 2L, "bouake", 1L), counts.cities());
+        assertEquals(Map.of("cocody", 1L, "plateau", 1L), counts.districts());
+        assertEquals(Map.of(ListingType.RENT, 2L, ListingType.SALE, 1L), counts.types());
+        assertEquals(Map.of(2, 2L), counts.rooms());
+        assertArrayEquals(new long[] { 1, 1, 0 }, counts.priceBuckets());
+    }
+
+    @Test
+    void testPriceRangeFiltersOtherFacetsButNotPriceBuckets() {
+        index.put(UUID.randomUUID(), "abidjan", "cocody", ListingType.RENT, 2, 100);
+        index.put(UUID.randomUUID(), "abidjan", "cocody", ListingType.RENT, 2, 999);
+        index.put(UUID.randomUUID(), "abidjan", "cocody", ListingType.RENT, 2, 1000);
+
+        var counts = index.count(new FacetIndex.Query(null, null, null, 100L, 999L));
+
+        assertEquals(2, counts.total());
+        assertEquals(Map.of("abidjan", 2L), counts.cities());
+        assertArrayEquals(new long[] { 0, 2, 1 }, counts.priceBuckets());
+    }
+
+    @Test
+    void testPutMovesAndRemoveForgets() {
+        var id = UUID.randomUUID();
+        index.put(id, "abidjan", "cocody", ListingType.RENT, 2, 50);
+        index.put(id, "bouake", null, ListingType.RENT, 2, 50);
+
+        var counts = index.count(new FacetIndex.Query(null, null, null, null, null));
+        assertEquals(Map.of("bouake", 1L), counts.cities());
+        assertEquals(Map.of(), counts.districts());
+
+        index.remove(id);
+        assertEquals(0, index.size());
+        assertEquals(0, index.count(new FacetIndex.Query(null, null, null, null, null)).total());
+        assertNull(index.count(new FacetIndex.Query(null, null, null, null, null)).cities().get("bouake"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.ditsolution.features.listing.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeoGridTest {
+
+    // Abidjan (Plateau) et quelques points autour
+    private static final double PLATEAU_LAT = 5.3236, PLATEAU_LNG = -4.0197;
+
+    @Test
+    void testWithinReturnsPointsSortedByDistance() {
+        GeoGrid grid = new GeoGrid(0.05);
+        UUID plateau = UUID.randomUUID();
+        UUID cocody = UUID.randomUUID();
+        UUID bouake = UUID.randomUUID();
+        grid.put(plateau, PLATEAU_LAT, PLATEAU_LNG);
+        grid.put(cocody, 5.3600, -3.9800);
+        grid.put(bouake, 7.6906, -5.0303);
+
+        List<GeoGrid.Hit> hits = grid.within(PLATEAU_LAT, PLATEAU_LNG, 10);
+
+        assertEquals(2, hits.size());
+        assertEquals(plateau, hits.get(0).id());
+        assertEquals(cocody, hits.get(1).id());
+        assertTrue(hits.get(1).distanceKm() > 5 && hits.get(1).distanceKm() < 7);
+    }
+
+    @Test
+    void testMoveAndRemove() {
+        GeoGrid grid = new GeoGrid(0.05);
+        UUID id = UUID.randomUUID();
+        grid.put(id, 7.6906, -5.0303);
+        assertTrue(grid.within(PLATEAU_LAT, PLATEAU_LNG, 10).isEmpty());
+
+        grid.put(id, PLATEAU_LAT, PLATEAU_LNG);
+        assertEquals(1, grid.within(PLATEAU_LAT, PLATEAU_LNG, 10).size());
+        assertEquals(1, grid.size());
+
+        grid.remove(id);
+        assertFalse(grid.contains(id));
+        assertTrue(grid.within(PLATEAU_LAT, PLATEAU_LNG, 10).isEmpty());
+    }
+
+    @Test
+    void testLargeRadiusFallsBackToFullScan() {
+        GeoGrid grid = new GeoGrid(0.05);
+        grid.put(UUID.randomUUID(), PLATEAU_LAT, PLATEAU_LNG);
+        grid.put(UUID.randomUUID(), 48.8566, 2.3522); // Paris
+
+        assertEquals(2, grid.within(PLATEAU_LAT, PLATEAU_LNG, 6000).size());
+    }
+
+    @Test
+    void testDistanceKm() {
+        // Abidjan -> Bouaké ~ 300 km à vol d'oiseau
+        double d = GeoGrid.distanceKm(PLATEAU_LAT, PLATEAU_LNG, 7.6906, -5.0303);
+        assertTrue(d > 280 && d < 300, "distance: " + d);
+        assertEquals(0.0, GeoGrid.distanceKm(PLATEAU_LAT, PLATEAU_LNG, PLATEAU_LAT, PLATEAU_LNG), 1e-9);
+    }
+}
@@ -0,0 +1,60 @@
+package com.ditsolution.features.listing.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KnnIndexTest {
+
+    @Test
+    void testNearestAreSortedAndExcludeQuery() {
+        KnnIndex index = new KnnIndex(2, 1.0);
+        UUID self = UUID.randomUUID(), a = UUID.randomUUID(), b = UUID.randomUUID(), c = UUID.randomUUID();
+        index.put(self, new float[] { 0, 0 });
+        index.put(a, new float[] { 3, 0 });
+        index.put(b, new float[] { 1, 0 });
+        index.put(c, new float[] { 0, 2 });
+
+        var neighbors = index.nearest(index.vectorOf(self), 2, self);
+
+        assertEquals(List.of(b, c), neighbors.stream().map(KnnIndex.Neighbor::id).toList());
+        assertEquals(1.0, neighbors.get(0).distance(), 1e-9);
+    }
+
+    @Test
+    void testMissingComponentCostsPenalty() {
+        KnnIndex index = new KnnIndex(2, 4.0);
+        UUID unknown = UUID.randomUUID(), far = UUID.randomUUID();
+        index.put(unknown, new float[] { 0, KnnIndex.MISSING });
+        index.put(far, new float[] { 0, 3 });
+
+        var neighbors = index.nearest(new float[] { 0, 0 }, 2, null);
+
+        assertEquals(unknown, neighbors.get(0).id());
+        assertEquals(2.0, neighbors.get(0).distance(), 1e-9);
+    }
+
+    @Test
+    void testRemoveKeepsOtherVectorsIntact() {
+        KnnIndex index = new KnnIndex(3, 1.0);
+        Random random = new Random(42);
+        UUID[] ids = new UUID[100];
+        float[][] vectors = new float[100][];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID();
+            vectors[i] = new float[] { random.nextFloat(), random.nextFloat(), random.nextFloat() };
+            index.put(ids[i], vectors[i]);
+        }
+        for (int i = 0; i < ids.length; i += 3) index.remove(ids[i]);
+
+        assertEquals(66, index.size());
+        for (int i = 0; i < ids.length; i++) {
+            if (i % 3 == 0) assertNull(index.vectorOf(ids[i]));
+            else assertArrayEquals(vectors[i], index.vectorOf(ids[i]));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.ditsolution.features.listing.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.ditsolution.features.listing.dto.FiltersDto;
+import com.ditsolution.features.listing.dto.PageRequestDto;
+import com.ditsolution.features.listing.enums.ListingStatus;
+import com.ditsolution.features.listing.enums.ListingType;
+
+public class ListingColumnarIndexTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T10:00:00Z");
+    private static final FiltersDto ALL = new FiltersDto(null, null, null, null, null, null);
+
+    private static ListingSnapshot listing(UUID id, ListingStatus status, long price) {
+        return new ListingSnapshot(id, status, ListingType.RENT, "Abidjan", null, BigDecimal.valueOf(price),
+                null, null, 2, null, null, null, null, null, NOW, NOW);
+    }
+
+    private static ListingColumnarIndex loaded(ListingSnapshot... listings) {
+        var index = new ListingColumnarIndex();
+        index.enabled = true;
+        var rebuild = index.beginRebuild();
+        for (ListingSnapshot s : listings) rebuild.apply(s);
+        rebuild.install();
+        return index;
+    }
+
+    private static List<UUID> ids(ListingColumnarIndex index) {
+        return index.search(ALL, ListingSort.parse("price", null, null), new PageRequestDto(0, 10)).orElseThrow().ids();
+    }
+
+    @Test
+    public void testChangesArePublishedOnRefreshOnly() {
+        UUID a = UUID.randomUUID(), b = UUID.randomUUID();
+        var index = loaded(listing(a, ListingStatus.PUBLISHED, 100));
+        assertEquals(List.of(a), ids(index));
+
+        index.apply(listing(b, ListingStatus.PUBLISHED, 50));
+        index.apply(listing(a, ListingStatus.ARCHIVED, 100));
+        assertEquals(List.of(a), ids(index));
+
+        index.refresh();
+        assertEquals(List.of(b), ids(index));
+    }
+
+    @Test
+    public void testRefreshWithoutChangesKeepsPublishedColumns() {
+        var index = loaded(listing(UUID.randomUUID(), ListingStatus.PUBLISHED, 100));
+        var before = index.search(ALL, ListingSort.NEWEST, new PageRequestDto(0, 10)).orElseThrow();
+        index.refresh();
+        assertEquals(before.ids(), ids(index));
+    }
+
+    @Test
+    public void testNotLoadedIgnoresChanges() {
+        var index = new ListingColumnarIndex();
+        index.enabled = true;
+        index.apply(listing(UUID.randomUUID(), ListingStatus.PUBLISHED, 100));
+        index.refresh();
+        assertTrue(index.search(ALL, ListingSort.NEWEST, new PageRequestDto(0, 10)).isEmpty());
+    }
+}
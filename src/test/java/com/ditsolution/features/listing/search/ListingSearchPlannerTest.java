@@ -0,0 +1,75 @@
+package com.ditsolution.features.listing.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.ditsolution.features.listing.dto.FiltersDto;
+import com.ditsolution.features.listing.enums.ListingStatus;
+import com.ditsolution.features.listing.enums.ListingType;
+
+public class ListingSearchPlannerTest {
+
+    private static final BigDecimal LAT = new BigDecimal("5.36");
+    private static final BigDecimal LNG = new BigDecimal("-4.01");
+
+    private static FiltersDto radius(double km) {
+        return new FiltersDto("abidjan", null, ListingType.RENT, null, new BigDecimal("300000"), null,
+                2, null, LAT, LNG, km);
+    }
+
+    private static ListingSearchPlanner planner(List<double[]> points) {
+        var geo = new ListingGeoIndex();
+        geo.cellDegrees = 0.05;
+        if (points != null) {
+            var rebuild = geo.beginRebuild();
+            for (double[] p : points) {
+                rebuild.apply(new ListingSnapshot(UUID.randomUUID(), ListingStatus.PUBLISHED, ListingType.RENT,
+                        "Abidjan", null, BigDecimal.TEN, BigDecimal.valueOf(p[0]), BigDecimal.valueOf(p[1]),
+                        null, null, null, null, null, null, Instant.now(), Instant.now()));
+            }
+            rebuild.install();
+        }
+        var planner = new ListingSearchPlanner();
+        planner.geoIndex = geo;
+        planner.maxGeoIds = 2;
+        return planner;
+    }
+
+    @Test
+    public void testRadiusKeepsStructuredFilters() {
+        var plan = planner(null).plan(radius(5), ListingSearchPlanner.Dialect.HQL);
+
+        assertEquals(ListingSearchPlanner.AccessPath.BOUNDING_BOX, plan.path());
+        assertTrue(plan.where().contains("LOWER(city) = :city"));
+        assertTrue(plan.where().contains("type = :type"));
+        assertTrue(plan.where().contains("price <= :maxPrice"));
+        assertTrue(plan.where().contains("rooms >= :minRooms"));
+        assertTrue(plan.where().contains("latitude BETWEEN :minLat AND :maxLat"));
+        assertTrue(plan.where().contains("longitude BETWEEN :minLng AND :maxLng"));
+        assertEquals(5.0, plan.params().get("radiusKm"));
+        assertTrue((double) plan.params().get("minLat") < 5.36 && (double) plan.params().get("maxLat") > 5.36);
+    }
+
+    @Test
+    public void testPicksGeoIndexWhenRadiusIsSelective() {
+        var planner = planner(List.of(new double[] { 5.361, -4.011 }, new double[] { 5.6, -4.0 }, new double[] { 5.7, -4.0 }));
+
+        var small = planner.plan(radius(5), ListingSearchPlanner.Dialect.SQL);
+        assertEquals(ListingSearchPlanner.AccessPath.GEO_INDEX, small.path());
+        assertTrue(small.where().contains("l.id IN (:geoIds)"));
+        assertTrue(small.where().contains("CAST(l.type AS text) = :type"));
+        assertEquals(1, ((List<?>) small.params().get("geoIds")).size());
+
+        // 3 annonces dans le rayon > max-geo-ids (2)
+        assertEquals(ListingSearchPlanner.AccessPath.BOUNDING_BOX, planner.plan(radius(50), ListingSearchPlanner.Dialect.SQL).path());
+
+        var far = new FiltersDto(null, null, null, null, null, null, null, null, BigDecimal.ZERO, BigDecimal.ZERO, 10.0);
+        assertTrue(planner.plan(far, ListingSearchPlanner.Dialect.HQL).isEmpty());
+    }
+}
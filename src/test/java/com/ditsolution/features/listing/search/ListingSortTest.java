@@ -0,0 +1,43 @@
+package com.ditsolution.features.listing.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+public class ListingSortTest {
+
+    @Test
+    public void testOrderByBreaksTiesOnIdInSameDirection() {
+        var params = new HashMap<String, Object>();
+        assertEquals(" ORDER BY price DESC, id DESC", ListingSort.parse("-price", null, null).hqlOrderBy(params));
+        assertEquals(" ORDER BY l.created_at ASC, l.id ASC", ListingSort.parse("createdAt", null, null).sqlOrderBy("l", params));
+        assertTrue(params.isEmpty());
+        assertNull(ListingSort.parse(" ", null, null));
+    }
+
+    @Test
+    public void testDistanceBindsOrigin() {
+        var params = new HashMap<String, Object>();
+        var sort = ListingSort.parse("distance", new BigDecimal("5.3600"), new BigDecimal("-4.0083"));
+        String orderBy = sort.hqlOrderBy(params);
+        assertTrue(orderBy.endsWith("ASC NULLS LAST, id ASC"));
+        assertEquals(5.36, (double) params.get("originLat"), 1e-9);
+        assertEquals(-4.0083, (double) params.get("originLng"), 1e-9);
+    }
+
+    @Test
+    public void testCursorKeepsPriceAndReadsLegacyTokens() {
+        var cursor = new ListingCursor(Instant.parse("2025-01-02T03:04:05Z"), new BigDecimal("150000.50"), UUID.randomUUID());
+        assertEquals(cursor, ListingCursor.decode(cursor.encode()));
+
+        var legacy = new ListingCursor(cursor.createdAt(), null, cursor.id());
+        var decoded = ListingCursor.decode(legacy.encode());
+        assertNull(decoded.price());
+        assertEquals(cursor.id(), decoded.id());
+    }
+}
@@ -0,0 +1,53 @@
+package com.ditsolution.features.listing.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MapClusterIndexTest {
+
+    private static final MapClusterIndex.BBox ABIDJAN = new MapClusterIndex.BBox(-4.2, 5.2, -3.8, 5.5);
+
+    @Test
+    void testCoarseLevelAggregatesAndRemovalRefreshesPriceRange() {
+        MapClusterIndex index = new MapClusterIndex();
+        UUID cheapest = UUID.randomUUID();
+        index.put(cheapest, 5.3236, -4.0197, 100);
+        index.put(UUID.randomUUID(), 5.3599, -3.9870, 300);
+        index.put(UUID.randomUUID(), 5.3400, -4.0100, 200);
+
+        var clusters = index.clusters(ABIDJAN, 5, 0, 1000);
+        assertEquals(1, clusters.size());
+        var c = clusters.get(0);
+        assertEquals(3, c.count());
+        assertEquals(100, c.minPrice());
+        assertEquals(300, c.maxPrice());
+        assertEquals((5.3236 + 5.3599 + 5.34) / 3, c.lat(), 1e-9);
+        assertTrue(c.points().isEmpty());
+
+        index.remove(cheapest);
+        c = index.clusters(ABIDJAN, 5, 0, 1000).get(0);
+        assertEquals(2, c.count());
+        assertEquals(200, c.minPrice());
+    }
+
+    @Test
+    void testSmallClustersCarryTheirPoints() {
+        MapClusterIndex index = new MapClusterIndex();
+        UUID a = UUID.randomUUID(), b = UUID.randomUUID();
+        index.put(a, 5.3236, -4.0197, 100);
+        index.put(b, 5.3599, -3.9870, 300);
+
+        var clusters = index.clusters(ABIDJAN, 5, 2, 1000);
+        assertEquals(2, clusters.get(0).points().size());
+    }
+
+    @Test
+    void testTooLargeBoxIsRejected() {
+        MapClusterIndex index = new MapClusterIndex();
+        var world = new MapClusterIndex.BBox(-180, -85, 180, 85);
+        assertThrows(MapClusterIndex.TooManyCellsException.class, () -> index.clusters(world, 10, 0, 4096));
+    }
+}
@@ -0,0 +1,73 @@
+package com.ditsolution.features.listing.search;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceSketchTest {
+
+    @Test
+    void testQuantilesWithinRelativeAccuracy() {
+        Random random = new Random(42);
+        long[] prices = new long[10_000];
+        PriceSketch sketch = new PriceSketch();
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 5_000_000L + (long) (random.nextDouble() * 95_000_000L);
+            sketch.add(prices[i]);
+        }
+        Arrays.sort(prices);
+        for (double q : new double[] { 0, 0.25, 0.5, 0.75, 1 }) {
+            long exact = prices[(int) Math.floor(q * (prices.length - 1))];
+            long estimate = sketch.quantile(q);
+            assertTrue(Math.abs(estimate - exact) <= exact * PriceSketch.DEFAULT_ACCURACY + 1,
+                    "q=" + q + " exact=" + exact + " estimate=" + estimate);
+        }
+        assertEquals(10_000, sketch.count());
+    }
+
+    @Test
+    void testRemoveUndoesAdd() {
+        PriceSketch sketch = new PriceSketch();
+        sketch.add(100_00);
+        sketch.add(200_00);
+        sketch.add(300_00);
+        sketch.remove(300_00);
+        sketch.remove(100_00);
+        assertEquals(1, sketch.count());
+        assertEquals(200_00, sketch.quantile(0.5), 200_00 * PriceSketch.DEFAULT_ACCURACY);
+
+        sketch.remove(200_00);
+        assertTrue(sketch.isEmpty());
+        assertThrows(IllegalStateException.class, () -> sketch.remove(200_00));
+        assertThrows(IllegalStateException.class, () -> sketch.quantile(0.5));
+    }
+
+    @Test
+    void testZeroPricesAndMerge() {
+        PriceSketch a = new PriceSketch();
+        a.add(0);
+        a.add(0);
+        PriceSketch b = new PriceSketch();
+        b.add(1_000_00);
+        b.add(2_000_00);
+        a.merge(b);
+        assertEquals(4, a.count());
+        assertEquals(0, a.quantile(0.25));
+        assertEquals(2_000_00, a.quantile(1), 2_000_00 * PriceSketch.DEFAULT_ACCURACY);
+    }
+
+    @Test
+    void testSerializationRoundTrip() {
+        PriceSketch sketch = new PriceSketch();
+        for (long p = 1; p <= 1_000; p++) sketch.add(p * 1_000_00);
+        sketch.add(0);
+        PriceSketch copy = PriceSketch.fromBytes(sketch.toBytes());
+        assertEquals(sketch.count(), copy.count());
+        for (double q : new double[] { 0, 0.1, 0.5, 0.9, 1 }) assertEquals(sketch.quantile(q), copy.quantile(q));
+        copy.remove(0);
+        assertEquals(1_000, copy.count());
+    }
+}
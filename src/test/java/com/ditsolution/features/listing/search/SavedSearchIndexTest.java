@@ -0,0 +1,68 @@
+package com.ditsolution.features.listing.search;
+
+import com.ditsolution.features.listing.enums.ListingType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SavedSearchIndexTest {
+
+    private final SavedSearchIndex index = new SavedSearchIndex();
+
+    private static SavedSearchIndex.Criteria search(UUID id, String city, ListingType type, long min, long max) {
+        return new SavedSearchIndex.Criteria(id, UUID.randomUUID(), city, null, type, min, max, null, null, null, null);
+    }
+
+    private static SavedSearchIndex.Candidate listing(String city, ListingType type, long price) {
+        return new SavedSearchIndex.Candidate(city, "cocody", type, price, 3, 5.3599, -3.9870);
+    }
+
+    private Set<UUID> matchIds(SavedSearchIndex.Candidate candidate) {
+        return index.match(candidate).stream().map(SavedSearchIndex.Criteria::id).collect(Collectors.toSet());
+    }
+
+    @Test
+    void testMatchesCityTypeAndPriceBuckets() {
+        UUID anyCity = UUID.randomUUID(), abidjanRent = UUID.randomUUID(), tooCheap = UUID.randomUUID(), bouake = UUID.randomUUID();
+        index.put(search(anyCity, null, null, Long.MIN_VALUE, Long.MAX_VALUE));
+        index.put(search(abidjanRent, "abidjan", ListingType.RENT, 100, 500));
+        index.put(search(tooCheap, "abidjan", ListingType.RENT, 100, 200));
+        index.put(search(bouake, "bouake", ListingType.RENT, 0, 1000));
+
+        assertEquals(Set.of(anyCity, abidjanRent), matchIds(listing("abidjan", ListingType.RENT, 300)));
+        assertEquals(Set.of(anyCity), matchIds(listing("abidjan", ListingType.SALE, 300)));
+        assertEquals(Set.of(anyCity), matchIds(listing("abidjan", ListingType.RENT, 50)));
+    }
+
+    @Test
+    void testRadiusAndRoomsCriteria() {
+        UUID near = UUID.randomUUID(), far = UUID.randomUUID(), bigger = UUID.randomUUID();
+        // Plateau -> Cocody ~ 5 km
+        index.put(new SavedSearchIndex.Criteria(near, UUID.randomUUID(), null, null, null,
+                Long.MIN_VALUE, Long.MAX_VALUE, null, 5.3236, -4.0197, 10.0));
+        index.put(new SavedSearchIndex.Criteria(far, UUID.randomUUID(), null, null, null,
+                Long.MIN_VALUE, Long.MAX_VALUE, null, 7.6900, -5.0300, 10.0));
+        index.put(new SavedSearchIndex.Criteria(bigger, UUID.randomUUID(), null, null, null,
+                Long.MIN_VALUE, Long.MAX_VALUE, 4, null, null, null));
+
+        assertEquals(Set.of(near), matchIds(listing("abidjan", ListingType.RENT, 300)));
+    }
+
+    @Test
+    void testPutReplacesAndRemoveForgets() {
+        UUID id = UUID.randomUUID();
+        index.put(search(id, "abidjan", null, 0, 100));
+        index.put(search(id, "bouake", null, 0, 100));
+
+        assertTrue(matchIds(listing("abidjan", ListingType.RENT, 50)).isEmpty());
+        assertEquals(Set.of(id), matchIds(listing("bouake", ListingType.RENT, 50)));
+
+        index.remove(id);
+        assertEquals(0, index.size());
+        assertTrue(matchIds(listing("bouake", ListingType.RENT, 50)).isEmpty());
+    }
+}
@@ -0,0 +1,87 @@
+package com.ditsolution.features.listing.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+import com.ditsolution.features.auth.entity.UserEntity;
+import com.ditsolution.features.listing.entity.ListingEntity;
+import com.ditsolution.features.listing.entity.SavedSearchEntity;
+import com.ditsolution.features.listing.enums.ListingType;
+import com.ditsolution.features.listing.repository.SavedSearchRepository;
+
+public class SavedSearchMatcherTest {
+
+    private static SavedSearchEntity search(String city) {
+        var user = new UserEntity();
+        user.id = UUID.randomUUID();
+        var s = new SavedSearchEntity();
+        s.setId(UUID.randomUUID());
+        s.setUser(user);
+        s.setCity(city);
+        return s;
+    }
+
+    private static ListingEntity listing(String city) {
+        var l = new ListingEntity();
+        l.setCity(city);
+        l.setType(ListingType.RENT);
+        l.setPrice(BigDecimal.valueOf(100_000));
+        return l;
+    }
+
+    /** Dépôt en mémoire ; {@code duringRead} simule les commits concurrents d'une lecture en cours. */
+    static class FakeSavedSearchRepository extends SavedSearchRepository {
+        List<SavedSearchEntity> rows = List.of();
+        Runnable duringRead = () -> {};
+
+        @Override
+        public void forEach(Consumer<SavedSearchEntity> consumer) {
+            for (SavedSearchEntity s : rows) {
+                consumer.accept(s);
+                duringRead.run();
+            }
+        }
+    }
+
+    @Test
+    public void testChangesCommittedDuringReloadSurviveTheSwap() {
+        var repo = new FakeSavedSearchRepository();
+        var matcher = new SavedSearchMatcher();
+        matcher.savedSearchRepo = repo;
+
+        SavedSearchEntity removed = search("Abidjan");
+        SavedSearchEntity added = search("Abidjan");
+        repo.rows = List.of(removed);
+        repo.duringRead = () -> {
+            matcher.onSavedSearchChanged(SavedSearchChangedEvent.deleted(removed.getId()));
+            matcher.onSavedSearchChanged(SavedSearchChangedEvent.saved(added));
+        };
+        matcher.reload();
+
+        assertEquals(Set.of(added.getUser().getId()), matcher.matchUsers(listing("Abidjan")));
+    }
+
+    @Test
+    public void testChangesAfterReloadApplyToCurrentIndex() {
+        var repo = new FakeSavedSearchRepository();
+        var matcher = new SavedSearchMatcher();
+        matcher.savedSearchRepo = repo;
+        SavedSearchEntity existing = search("Abidjan");
+        repo.rows = List.of(existing);
+        matcher.reload();
+
+        SavedSearchEntity other = search("Bouaké");
+        matcher.onSavedSearchChanged(SavedSearchChangedEvent.saved(other));
+        matcher.onSavedSearchChanged(SavedSearchChangedEvent.deleted(existing.getId()));
+
+        assertTrue(matcher.matchUsers(listing("Abidjan")).isEmpty());
+        assertEquals(Set.of(other.getUser().getId()), matcher.matchUsers(listing("bouaké")));
+    }
+}
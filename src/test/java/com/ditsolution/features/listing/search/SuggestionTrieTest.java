@@ -0,0 +1,53 @@
+package com.ditsolution.features.listing.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class SuggestionTrieTest {
+
+    @Test
+    public void testPrefixIgnoresAccentsAndCase() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.addCity("Abidjan", 5);
+        trie.addDistrict("Abidjan", "Cocody", 3);
+        trie.addCity("Bouaké", 2);
+
+        List<SuggestionTrie.Suggestion> hits = trie.suggest("BOUAKE", 5);
+        assertEquals(1, hits.size());
+        assertEquals("Bouaké", hits.get(0).label());
+        assertEquals(SuggestionTrie.Kind.CITY, hits.get(0).kind());
+    }
+
+    @Test
+    public void testMatchesWordStartsAndOrdersByCount() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.addCity("Grand-Bassam", 4);
+        trie.addDistrict("Abidjan", "Bassam Plage", 9);
+        trie.addDistrict("Abidjan", "Marcory", 7);
+
+        List<SuggestionTrie.Suggestion> hits = trie.suggest("bass", 5);
+        assertEquals(2, hits.size());
+        assertEquals("Bassam Plage", hits.get(0).label());
+        assertEquals("Abidjan", hits.get(0).city());
+        assertEquals("Grand-Bassam", hits.get(1).label());
+    }
+
+    @Test
+    public void testTopKAndRemovalAtZero() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.addCity("Yamoussoukro", 1);
+        trie.addCity("Yopougon", 10);
+        trie.addCity("Yakro", 5);
+
+        List<SuggestionTrie.Suggestion> top = trie.suggest("y", 2);
+        assertEquals(List.of("Yopougon", "Yakro"), top.stream().map(SuggestionTrie.Suggestion::label).toList());
+
+        trie.addCity("Yopougon", -10);
+        assertEquals(2, trie.size());
+        assertTrue(trie.suggest("yop", 5).isEmpty());
+        assertEquals("Yakro", trie.suggest("", 1).get(0).label());
+    }
+}
@@ -0,0 +1,128 @@
+package com.ditsolution.features.listing.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+import com.ditsolution.features.listing.repository.ListingCounterRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ListingCountersTest {
+
+    /** Dépôt sans base : cumule les deltas écrits. */
+    private static final class FakeCounterRepository extends ListingCounterRepository {
+        final Map<UUID, long[]> totals = new ConcurrentHashMap<>();
+        int writes;
+        boolean failNext;
+
+        @Override
+        public void addAll(UUID[] ids, long[] views, long[] contacts) {
+            if (failNext) {
+                failNext = false;
+                throw new IllegalStateException("base indisponible");
+            }
+            writes++;
+            for (int i = 0; i < ids.length; i++) {
+                long[] t = totals.computeIfAbsent(ids[i], k -> new long[2]);
+                t[0] += views[i];
+                t[1] += contacts[i];
+            }
+        }
+
+        long views(UUID id) {
+            long[] t = totals.get(id);
+            return t == null ? 0 : t[0];
+        }
+    }
+
+    private static ListingCounters counters(FakeCounterRepository repo) {
+        var counters = new ListingCounters();
+        counters.counterRepo = repo;
+        return counters;
+    }
+
+    @Test
+    void testFlushWritesDeltasOnce() {
+        var repo = new FakeCounterRepository();
+        var counters = counters(repo);
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        counters.recordView(a);
+        counters.recordView(a);
+        counters.recordContact(a);
+        counters.recordView(b);
+
+        counters.flush();
+        assertArrayEquals(new long[] { 2, 1 }, repo.totals.get(a));
+        assertArrayEquals(new long[] { 1, 0 }, repo.totals.get(b));
+
+        counters.flush(); // rien de nouveau : pas d'écriture
+        assertEquals(1, repo.writes);
+    }
+
+    @Test
+    void testIdleListingIsEvictedThenTrackedAgain() {
+        var repo = new FakeCounterRepository();
+        var counters = counters(repo);
+        UUID a = UUID.randomUUID();
+        counters.recordView(a);
+        counters.flush();
+        counters.flush();
+        counters.flush();
+        assertEquals(1, counters.trackedListings());
+        counters.flush(); // troisième flush sans activité
+        assertEquals(0, counters.trackedListings());
+
+        counters.recordView(a);
+        counters.flush();
+        assertEquals(2, repo.views(a));
+    }
+
+    @Test
+    void testFailedWriteIsRequeued() {
+        var repo = new FakeCounterRepository();
+        var counters = counters(repo);
+        UUID a = UUID.randomUUID();
+        counters.recordView(a);
+        repo.failNext = true;
+        assertThrows(IllegalStateException.class, counters::flush);
+
+        counters.flush();
+        assertEquals(1, repo.views(a));
+    }
+
+    @Test
+    void testNoIncrementLostWhileListingsAreEvicted() throws InterruptedException {
+        var repo = new FakeCounterRepository();
+        var counters = counters(repo);
+        UUID[] ids = new UUID[8];
+        for (int i = 0; i < ids.length; i++) ids[i] = UUID.randomUUID();
+        int threads = 4;
+        int perThread = 20_000;
+
+        // Incréments espacés : les flushs successifs retirent régulièrement des lignes inactives
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(Thread.ofPlatform().start(() -> {
+                var random = ThreadLocalRandom.current();
+                for (int i = 0; i < perThread; i++) {
+                    counters.recordView(ids[random.nextInt(ids.length)]);
+                    for (int spin = random.nextInt(200); spin > 0; spin--) Thread.onSpinWait();
+                }
+            }));
+        }
+        while (workers.stream().anyMatch(Thread::isAlive)) counters.flush();
+        for (Thread w : workers) w.join();
+        counters.flush();
+
+        long total = 0;
+        for (UUID id : ids) total += repo.views(id);
+        assertEquals((long) threads * perThread, total);
+    }
+}
@@ -0,0 +1,102 @@
+package com.ditsolution.features.listing.services;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.ditsolution.features.auth.entity.UserEntity;
+import com.ditsolution.features.listing.dto.ListingCreateDto;
+import com.ditsolution.features.listing.enums.ListingType;
+import com.ditsolution.features.listing.repository.ListingImportRepository;
+import com.ditsolution.features.storage.service.FileValidationService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ListingImportServiceTest {
+
+    /** Dépôt sans base : garde les annonces insérées. */
+    private static final class FakeImportRepository extends ListingImportRepository {
+        final List<NewListing> inserted = new ArrayList<>();
+
+        @Override
+        public void insertAll(UUID ownerId, List<NewListing> listings, Instant now) {
+            inserted.addAll(listings);
+        }
+
+        @Override
+        public int markPhotosUsed(UUID ownerId, Collection<String> urls) {
+            return urls.size();
+        }
+    }
+
+    private static ListingCreateDto listing(String title, String city) {
+        return listing(title, city, "https://bucket.s3.amazonaws.com/photo-" + UUID.randomUUID() + ".jpg");
+    }
+
+    private static ListingCreateDto listing(String title, String city, String photo) {
+        return new ListingCreateDto(ListingType.RENT, city, "Cocody", new BigDecimal("150000"), title, null,
+                null, null, 3, null, null, null, null, null, null, null, List.of(photo));
+    }
+
+    private static ListingImportService service(FakeImportRepository repo) {
+        var listingService = new ListingService();
+        listingService.fileValidationService = new FileValidationService() {
+            @Override
+            public boolean isValidPhotoCount(int photoCount) {
+                return photoCount >= 1 && photoCount <= 5;
+            }
+        };
+        var service = new ListingImportService();
+        service.listingService = listingService;
+        service.importRepo = repo;
+        service.maxRows = 5000;
+        return service;
+    }
+
+    @Test
+    void testOverlongPhotoUrlIsReportedPerRow() {
+        var repo = new FakeImportRepository();
+        var owner = new UserEntity();
+        owner.id = UUID.randomUUID();
+        String prefix = "https://bucket.s3.amazonaws.com/";
+        String atLimit = prefix + "p".repeat(ListingService.MAX_PHOTO_URL_LENGTH - prefix.length());
+
+        var result = service(repo).importJson(owner, List.of(
+                listing("T3 lumineux", "Abidjan", atLimit),
+                listing("Studio meublé", "Abidjan", atLimit + "p")));
+
+        assertEquals(1, result.imported());
+        assertEquals(1, result.errors().size());
+        assertEquals(2, result.errors().get(0).row());
+        assertEquals("INVALID_PHOTO_URL", result.errors().get(0).code());
+        assertEquals(List.of(atLimit), repo.inserted.get(0).photos());
+    }
+
+    @Test
+    void testOverlongRowIsReportedWithoutFailingTheImport() {
+        var repo = new FakeImportRepository();
+        var owner = new UserEntity();
+        owner.id = UUID.randomUUID();
+
+        var result = service(repo).importJson(owner, List.of(
+                listing("T3 lumineux", "Abidjan"),
+                listing("x".repeat(ListingService.MAX_TITLE_LENGTH + 1), "Abidjan"),
+                listing("Studio meublé", "c".repeat(ListingService.MAX_CITY_LENGTH)),
+                listing("Villa", "Abidjan " + "c".repeat(ListingService.MAX_CITY_LENGTH))));
+
+        assertEquals(4, result.received());
+        assertEquals(2, result.created().size());
+        assertEquals(List.of(1, 3), result.created().stream().map(c -> c.row()).toList());
+        assertEquals(List.of(2, 4), result.errors().stream().map(e -> e.row()).toList());
+        assertEquals("VALIDATION_ERROR", result.errors().get(0).code());
+        assertTrue(result.errors().get(0).message().startsWith("title"));
+        assertTrue(result.errors().get(1).message().startsWith("city"));
+        assertEquals(2, result.imported());
+        assertEquals(2, repo.inserted.size());
+    }
+}
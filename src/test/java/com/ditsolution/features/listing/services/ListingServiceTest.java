@@ -0,0 +1,132 @@
+package com.ditsolution.features.listing.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.ditsolution.features.auth.entity.UserEntity;
+import com.ditsolution.features.listing.entity.ListingEntity;
+import com.ditsolution.features.listing.entity.ListingPhotoEntity;
+import com.ditsolution.features.listing.repository.ListingPhotoRepository;
+
+import jakarta.ws.rs.WebApplicationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ListingServiceTest {
+
+    private static final String S3 = "https://bucket.s3.amazonaws.com/";
+
+    /** Dépôt sans base : garde les URLs marquées utilisées et libérées. */
+    private static final class FakePhotoRepository extends ListingPhotoRepository {
+        final List<String> used = new ArrayList<>();
+        final List<String> unused = new ArrayList<>();
+        int calls;
+
+        @Override
+        public void updateImageFlags(UUID ownerId, Collection<String> added, Collection<String> removed) {
+            calls++;
+            used.addAll(added);
+            unused.addAll(removed);
+        }
+    }
+
+    private static ListingEntity listing(String... urls) {
+        var owner = new UserEntity();
+        owner.id = UUID.randomUUID();
+        var l = new ListingEntity();
+        l.setId(UUID.randomUUID());
+        l.setOwner(owner);
+        for (int i = 0; i < urls.length; i++) {
+            var p = new ListingPhotoEntity();
+            p.setId(UUID.randomUUID());
+            p.setListing(l);
+            p.setUrl(urls[i]);
+            p.setOrdering(i);
+            l.getPhotos().add(p);
+        }
+        return l;
+    }
+
+    private static ListingService service(FakePhotoRepository repo) {
+        var service = new ListingService();
+        service.photoRepo = repo;
+        return service;
+    }
+
+    private static List<String> urls(ListingEntity l) {
+        return l.getPhotos().stream()
+                .sorted((a, b) -> Integer.compare(a.getOrdering(), b.getOrdering()))
+                .map(ListingPhotoEntity::getUrl)
+                .toList();
+    }
+
+    @Test
+    public void testPureReorderKeepsRowsAndTouchesNoImage() {
+        var repo = new FakePhotoRepository();
+        var l = listing(S3 + "a.jpg", S3 + "b.jpg", S3 + "c.jpg");
+        Map<String, UUID> ids = new HashMap<>();
+        l.getPhotos().forEach(p -> ids.put(p.getUrl(), p.getId()));
+
+        service(repo).replacePhotos(l, List.of(S3 + "c.jpg", S3 + "a.jpg", S3 + "b.jpg"));
+
+        assertEquals(List.of(S3 + "c.jpg", S3 + "a.jpg", S3 + "b.jpg"), urls(l));
+        assertEquals(3, l.getPhotos().size());
+        l.getPhotos().forEach(p -> assertEquals(ids.get(p.getUrl()), p.getId()));
+        assertEquals(0, repo.calls);
+    }
+
+    @Test
+    public void testAddedAndRemovedUrlsAreFlagged() {
+        var repo = new FakePhotoRepository();
+        var l = listing(S3 + "a.jpg", S3 + "b.jpg", S3 + "c.jpg");
+        UUID keptId = l.getPhotos().get(1).getId();
+
+        service(repo).replacePhotos(l, List.of(S3 + "d.jpg", S3 + "b.jpg", S3 + "e.jpg"));
+
+        assertEquals(List.of(S3 + "d.jpg", S3 + "b.jpg", S3 + "e.jpg"), urls(l));
+        var kept = l.getPhotos().stream().filter(p -> p.getUrl().equals(S3 + "b.jpg")).findFirst().orElseThrow();
+        assertEquals(keptId, kept.getId());
+        l.getPhotos().forEach(p -> assertSame(l, p.getListing()));
+        assertEquals(1, repo.calls);
+        assertEquals(List.of(S3 + "d.jpg", S3 + "e.jpg"), repo.used);
+        assertEquals(List.of(S3 + "a.jpg", S3 + "c.jpg"), repo.unused);
+    }
+
+    @Test
+    public void testInvalidNewUrlIsRejectedButKeptLegacyUrlIsNot() {
+        // Une photo existante n'est pas revalidée (URL antérieure aux règles actuelles)
+        String legacy = "https://cdn.example.org/old.jpg";
+        var repo = new FakePhotoRepository();
+        var l = listing(legacy, S3 + "a.jpg");
+
+        assertThrows(WebApplicationException.class,
+                () -> service(repo).replacePhotos(l, List.of(legacy, "http://elsewhere/new.jpg")));
+        assertEquals(List.of(legacy, S3 + "a.jpg"), urls(l));
+        assertEquals(0, repo.calls);
+
+        service(repo).replacePhotos(l, List.of(S3 + "b.jpg", legacy));
+        assertEquals(List.of(S3 + "b.jpg", legacy), urls(l));
+        assertEquals(List.of(S3 + "b.jpg"), repo.used);
+        assertEquals(List.of(S3 + "a.jpg"), repo.unused);
+    }
+
+    @Test
+    public void testOverlongNewPhotoUrlIsRejected() {
+        var repo = new FakePhotoRepository();
+        var l = listing(S3 + "a.jpg");
+        String atLimit = S3 + "p".repeat(ListingService.MAX_PHOTO_URL_LENGTH - S3.length());
+
+        assertThrows(WebApplicationException.class,
+                () -> service(repo).replacePhotos(l, List.of(S3 + "a.jpg", atLimit + "x")));
+        assertEquals(List.of(S3 + "a.jpg"), urls(l));
+
+        service(repo).replacePhotos(l, List.of(S3 + "a.jpg", atLimit));
+        assertEquals(List.of(S3 + "a.jpg", atLimit), urls(l));
+    }
+}
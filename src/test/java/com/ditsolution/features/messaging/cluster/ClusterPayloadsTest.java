@@ -0,0 +1,61 @@
+package com.ditsolution.features.messaging.cluster;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClusterPayloadsTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private static ClusterEvent event(String text) {
+        return new ClusterEvent(List.of(UUID.randomUUID(), UUID.randomUUID()), null, text, null);
+    }
+
+    @Test
+    void testRoundTripKeepsNodeAndEvents() {
+        var payloads = new ClusterPayloads(mapper, "node-a");
+        UUID exclude = UUID.randomUUID();
+        var typing = new ClusterEvent(List.of(exclude, UUID.randomUUID()), exclude, "{\"type\":\"typing\"}", "typing:1:" + exclude);
+        var packed = payloads.pack(List.of(event("{\"type\":\"message\",\"content\":\"Bonjour éà\"}"), typing));
+
+        assertEquals(1, packed.payloads().size());
+        assertEquals(0, packed.oversized());
+        var envelope = payloads.decode(packed.payloads().get(0));
+        assertEquals("node-a", envelope.node());
+        assertEquals(2, envelope.events().size());
+        assertEquals(typing, envelope.events().get(1));
+    }
+
+    @Test
+    void testBatchIsSplitUnderSizeLimitInOrder() {
+        var payloads = new ClusterPayloads(mapper, "node-a", 1_000);
+        List<ClusterEvent> events = new ArrayList<>();
+        for (int i = 0; i < 20; i++) events.add(event("{\"n\":" + i + ",\"pad\":\"" + "x".repeat(100) + "\"}"));
+
+        var packed = payloads.pack(events);
+        assertTrue(packed.payloads().size() > 1);
+        List<ClusterEvent> decoded = new ArrayList<>();
+        for (String payload : packed.payloads()) {
+            assertTrue(payload.getBytes(java.nio.charset.StandardCharsets.UTF_8).length <= 1_000);
+            decoded.addAll(payloads.decode(payload).events());
+        }
+        assertEquals(events, decoded);
+    }
+
+    @Test
+    void testOversizedEventIsSkipped() {
+        var payloads = new ClusterPayloads(mapper, "node-a", 1_000);
+        var packed = payloads.pack(List.of(event("a"), event("é".repeat(600)), event("b")));
+
+        assertEquals(1, packed.oversized());
+        assertEquals(1, packed.payloads().size());
+        assertEquals(2, payloads.decode(packed.payloads().get(0)).events().size());
+    }
+}
@@ -0,0 +1,145 @@
+package com.ditsolution.features.messaging.websocket;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionOutboxTest {
+
+    /** Transport dont les envois restent en attente jusqu'à {@link #ack}. */
+    private static final class FakeTransport implements SessionOutbox.Transport {
+        final List<String> sent = new ArrayList<>();
+        final List<Consumer<Throwable>> pending = new ArrayList<>();
+        String closedWith;
+
+        @Override
+        public boolean isOpen() {
+            return closedWith == null;
+        }
+
+        @Override
+        public void send(String text, Consumer<Throwable> done) {
+            sent.add(text);
+            pending.add(done);
+        }
+
+        @Override
+        public void close(String reason) {
+            closedWith = reason;
+        }
+
+        void ack() {
+            pending.remove(0).accept(null);
+        }
+    }
+
+    @Test
+    void testOneSendInFlightAndOrderPreserved() {
+        var transport = new FakeTransport();
+        var stats = new OutboundStats();
+        var outbox = new SessionOutbox(transport, 10, Duration.ofSeconds(10), stats);
+
+        assertTrue(outbox.offer("a", null));
+        assertTrue(outbox.offer("b", null));
+        assertTrue(outbox.offer("c", null));
+        assertEquals(List.of("a"), transport.sent);
+        assertEquals(2, outbox.depth());
+
+        transport.ack();
+        transport.ack();
+        transport.ack();
+        assertEquals(List.of("a", "b", "c"), transport.sent);
+        assertEquals(0, outbox.depth());
+        assertEquals(3, stats.snapshot(1, 0, 0).sent());
+    }
+
+    @Test
+    void testTypingEventsAreCoalescedAndDroppedWhenFull() {
+        var transport = new FakeTransport();
+        var stats = new OutboundStats();
+        var outbox = new SessionOutbox(transport, 2, Duration.ofSeconds(10), stats);
+
+        outbox.offer("msg", null);                 // en cours d'envoi
+        outbox.offer("typing-1", "typing:1:u");
+        outbox.offer("typing-2", "typing:1:u");    // remplace typing-1
+        assertEquals(1, outbox.depth());
+        outbox.offer("other", null);
+        assertFalse(outbox.offer("typing-x", "typing:2:u")); // file pleine : abandonné
+        assertNull(transport.closedWith);
+
+        transport.ack();
+        transport.ack();
+        transport.ack();
+        assertEquals(List.of("msg", "typing-2", "other"), transport.sent);
+        var snapshot = stats.snapshot(1, 0, 0);
+        assertEquals(1, snapshot.coalesced());
+        assertEquals(1, snapshot.dropped());
+    }
+
+    @Test
+    void testSlowConsumerIsClosedWhenQueueStaysFull() throws InterruptedException {
+        var transport = new FakeTransport();
+        var stats = new OutboundStats();
+        var outbox = new SessionOutbox(transport, 1, Duration.ofMillis(20), stats);
+
+        outbox.offer("a", null);
+        outbox.offer("b", null);
+        assertFalse(outbox.offer("c", null));      // file pleine : début du délai de grâce
+        assertNull(transport.closedWith);
+        Thread.sleep(40);
+        assertFalse(outbox.offer("d", null));
+        assertNotNull(transport.closedWith);
+        assertTrue(outbox.isClosed());
+        assertEquals(1, stats.snapshot(1, 0, 0).slowConsumersClosed());
+
+        transport.ack();                           // l'envoi en cours se termine, la file est vidée
+        assertEquals(List.of("a"), transport.sent);
+        assertEquals(0, outbox.depth());
+    }
+
+    @Test
+    void testSendErrorClosesSession() {
+        var transport = new FakeTransport();
+        var stats = new OutboundStats();
+        var outbox = new SessionOutbox(transport, 10, Duration.ofSeconds(10), stats);
+
+        outbox.offer("a", null);
+        outbox.offer("b", null);
+        transport.pending.remove(0).accept(new RuntimeException("reset"));
+        assertNotNull(transport.closedWith);
+        assertEquals(List.of("a"), transport.sent);
+        assertFalse(outbox.offer("c", null));
+        assertEquals(1, stats.snapshot(1, 0, 0).sendErrors());
+    }
+
+    @Test
+    void testRefusedMessageClosesSessionAfterDrain() {
+        var transport = new FakeTransport();
+        var stats = new OutboundStats();
+        var outbox = new SessionOutbox(transport, 2, Duration.ofSeconds(10), stats);
+
+        outbox.offer("a", null);                   // en cours d'envoi
+        outbox.offer("b", null);
+        outbox.offer("c", null);                   // file pleine
+        assertFalse(outbox.offer("d", null));      // message perdu : session condamnée
+        assertNull(transport.closedWith);
+
+        transport.ack();                           // la file redescend à moitié
+        assertFalse(outbox.offer("e", null));      // plus rien n'est accepté
+        assertFalse(outbox.offer("typing", "typing:1:u"));
+        transport.ack();
+        assertNull(transport.closedWith);
+        transport.ack();                           // file vidée : fermeture
+
+        assertEquals(List.of("a", "b", "c"), transport.sent);
+        assertNotNull(transport.closedWith);
+        assertTrue(outbox.isClosed());
+        assertEquals(1, stats.snapshot(1, 0, 0).slowConsumersClosed());
+        assertEquals(3, stats.snapshot(1, 0, 0).dropped());
+    }
+}